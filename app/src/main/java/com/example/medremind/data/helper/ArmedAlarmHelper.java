@@ -0,0 +1,170 @@
+package com.example.medremind.data.helper;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.medremind.data.model.ArmedAlarm;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Catatan persisten alarm yang sedang terpasang, supaya reschedule
+ * hanya memasang dan membatalkan alarm yang berbeda.
+ */
+public class ArmedAlarmHelper {
+    private static final String TAG = "ArmedAlarmHelper";
+
+    private SQLiteDatabase database;
+    private DatabaseManager databaseManager;
+    private Context context;
+    private boolean isOpen = false;
+
+    public ArmedAlarmHelper(@NonNull Context context) {
+        this.context = context.getApplicationContext(); // Prevent memory leaks
+        this.databaseManager = DatabaseManager.getInstance(this.context);
+    }
+
+    /**
+     * Membuka koneksi database
+     * @throws SQLiteException jika gagal membuka database
+     */
+    public synchronized void open() throws SQLiteException {
+        if (!isOpen) {
+            try {
+                database = databaseManager.openDatabase();
+                isOpen = true;
+                Log.d(TAG, "Database opened successfully");
+            } catch (SQLiteException e) {
+                Log.e(TAG, "Failed to open database: " + e.getMessage(), e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Menutup koneksi database
+     */
+    public synchronized void close() {
+        if (isOpen && database != null) {
+            try {
+                databaseManager.closeDatabase();
+                database = null;
+                isOpen = false;
+                Log.d(TAG, "Database closed successfully");
+            } catch (Exception e) {
+                Log.e(TAG, "Error closing database: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Memastikan database terbuka sebelum operasi
+     */
+    private void ensureDatabaseOpen() {
+        if (!isOpen || database == null || !database.isOpen()) {
+            open();
+        }
+    }
+
+    /**
+     * Mendapatkan semua alarm yang tercatat terpasang
+     * @return Map request code ke catatan alarm, atau empty map jika tidak ada
+     */
+    @NonNull
+    public Map<Integer, ArmedAlarm> getArmedAlarms() {
+        ensureDatabaseOpen();
+
+        Map<Integer, ArmedAlarm> result = new HashMap<>();
+        Cursor cursor = null;
+        try {
+            cursor = database.rawQuery("SELECT " + DbHelper.KEY_ARMED_REQUEST_CODE + ", " +
+                    DbHelper.KEY_ARMED_ACTION + ", " + DbHelper.KEY_ARMED_TRIGGER_AT +
+                    " FROM " + DbHelper.TABLE_ARMED_ALARM, null);
+
+            if (cursor != null && cursor.moveToFirst()) {
+                do {
+                    ArmedAlarm alarm = new ArmedAlarm(cursor.getInt(0), cursor.getString(1), cursor.getLong(2));
+                    result.put(alarm.getRequestCode(), alarm);
+                } while (cursor.moveToNext());
+            }
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting armed alarms: " + e.getMessage(), e);
+            result.clear();
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Perbarui catatan alarm dalam satu transaksi
+     * @param armed Alarm yang baru dipasang atau waktunya berubah
+     * @param removedRequestCodes Request code alarm yang sudah dibatalkan atau sudah berbunyi
+     * @return true jika berhasil
+     */
+    public boolean applyChanges(@NonNull Collection<ArmedAlarm> armed, @NonNull Collection<Integer> removedRequestCodes) {
+        if (armed.isEmpty() && removedRequestCodes.isEmpty()) {
+            return true;
+        }
+
+        ensureDatabaseOpen();
+
+        database.beginTransaction();
+        try {
+            for (Integer requestCode : removedRequestCodes) {
+                database.delete(DbHelper.TABLE_ARMED_ALARM,
+                        DbHelper.KEY_ARMED_REQUEST_CODE + " = ?",
+                        new String[]{String.valueOf(requestCode)});
+            }
+
+            for (ArmedAlarm alarm : armed) {
+                ContentValues values = new ContentValues();
+                values.put(DbHelper.KEY_ARMED_REQUEST_CODE, alarm.getRequestCode());
+                values.put(DbHelper.KEY_ARMED_ACTION, alarm.getAction());
+                values.put(DbHelper.KEY_ARMED_TRIGGER_AT, alarm.getTriggerAt());
+                database.insertWithOnConflict(DbHelper.TABLE_ARMED_ALARM, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+
+            database.setTransactionSuccessful();
+            Log.d(TAG, "Armed alarms updated - Armed: " + armed.size() + ", Removed: " + removedRequestCodes.size());
+            return true;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error updating armed alarms: " + e.getMessage(), e);
+            return false;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Hapus semua catatan (contoh: setelah boot, saat AlarmManager sudah kosong)
+     * @return Jumlah catatan yang terhapus
+     */
+    public int clearArmedAlarms() {
+        ensureDatabaseOpen();
+
+        try {
+            int rowsAffected = database.delete(DbHelper.TABLE_ARMED_ALARM, null, null);
+            Log.d(TAG, "Cleared " + rowsAffected + " armed alarm records");
+            return rowsAffected;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error clearing armed alarms: " + e.getMessage(), e);
+            return 0;
+        }
+    }
+}
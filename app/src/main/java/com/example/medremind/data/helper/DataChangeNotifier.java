@@ -0,0 +1,84 @@
+package com.example.medremind.data.helper;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notifikasi perubahan per tabel untuk seluruh proses.
+ * JadwalHelper/ObatHelper memanggil {@link #notifyChanged} setelah tulisan ter-commit;
+ * setiap tabel punya nomor versi yang naik di setiap perubahan sehingga pembaca bisa
+ * mengecek apakah hasil query lamanya masih berlaku tanpa menjalankan query.
+ */
+public final class DataChangeNotifier {
+
+    public interface OnTablesChangedListener {
+        /**
+         * Dipanggil di thread penulis; listener harus ringan (jadwalkan query ulang di executor sendiri)
+         */
+        void onTablesChanged(@NonNull Set<String> tables);
+    }
+
+    private static final DataChangeNotifier INSTANCE = new DataChangeNotifier();
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<OnTablesChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Perubahan di dalam transaksi luar (mis. ObatRepository) ditahan sampai transaksi itu selesai
+    private final ThreadLocal<Set<String>> pending = ThreadLocal.withInitial(HashSet::new);
+
+    private DataChangeNotifier() {
+    }
+
+    @NonNull
+    public static DataChangeNotifier getInstance() {
+        return INSTANCE;
+    }
+
+    public void addListener(@NonNull OnTablesChangedListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(@NonNull OnTablesChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Versi tabel saat ini; berbeda dari nilai sebelumnya berarti tabel sudah berubah sejak itu
+     */
+    public long getVersion(@NonNull String table) {
+        AtomicLong version = versions.get(table);
+        return version != null ? version.get() : 0;
+    }
+
+    /**
+     * Umumkan perubahan tabel. Jika thread ini masih di dalam transaksi, perubahan ditahan dan
+     * diumumkan oleh pemilik transaksi yang memanggil method ini (boleh tanpa tabel) setelah endTransaction.
+     * @param database Koneksi yang dipakai untuk menulis
+     */
+    public void notifyChanged(@NonNull SQLiteDatabase database, @NonNull String... tables) {
+        Set<String> changed = pending.get();
+        Collections.addAll(changed, tables);
+
+        if (changed.isEmpty() || database.inTransaction()) {
+            return;
+        }
+        pending.remove();
+
+        for (String table : changed) {
+            versions.computeIfAbsent(table, key -> new AtomicLong()).incrementAndGet();
+        }
+
+        Set<String> tablesView = Collections.unmodifiableSet(changed);
+        for (OnTablesChangedListener listener : listeners) {
+            listener.onTablesChanged(tablesView);
+        }
+    }
+}
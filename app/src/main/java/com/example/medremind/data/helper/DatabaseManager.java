@@ -0,0 +1,229 @@
+package com.example.medremind.data.helper;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pemegang koneksi database tunggal untuk seluruh proses aplikasi.
+ * Helper, receiver dan fragment meminjam koneksi yang sama lewat
+ * {@link #openDatabase()} dan mengembalikannya lewat {@link #closeDatabase()}.
+ * Koneksi fisik hanya dibuka saat peminjam pertama datang dan ditutup
+ * saat peminjam terakhir selesai.
+ * <p>
+ * Statement tulis yang sering dipakai di-compile sekali per koneksi dan dipakai ulang lewat
+ * {@link #executeInsert} dan {@link #executeUpdateDelete}.
+ * <p>
+ * Koneksi dibuka dengan {@link DbConfig#DEFAULT} (WAL), jadi query dari thread lain tetap
+ * berjalan lewat koneksi baca selama satu thread memegang transaksi tulis.
+ */
+public class DatabaseManager {
+    private static final String TAG = "DatabaseManager";
+
+    private static volatile DatabaseManager instance;
+
+    private final DbHelper dbHelper;
+    private SQLiteDatabase database;
+    private int openCounter = 0;
+
+    // Jumlah koneksi fisik yang pernah dibuka (untuk debugging dan benchmark)
+    private int connectionOpenCount = 0;
+
+    // 🔑 Cache SQLiteStatement per SQL untuk koneksi saat ini. Statement "dipinjam" (dikeluarkan dari map)
+    // selama dieksekusi, jadi thread lain yang butuh SQL sama meng-compile salinan sendiri
+    // alih-alih menunggu lock statement (yang bisa deadlock dengan transaksi).
+    private final Map<String, SQLiteStatement> statementCache = new HashMap<>();
+    private int statementCompileCount = 0;
+
+    private DatabaseManager(@NonNull Context context) {
+        this.dbHelper = new DbHelper(context.getApplicationContext());
+    }
+
+    @NonNull
+    public static DatabaseManager getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (DatabaseManager.class) {
+                if (instance == null) {
+                    instance = new DatabaseManager(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Meminjam koneksi database. Setiap panggilan harus diimbangi dengan {@link #closeDatabase()}.
+     * @throws SQLiteException jika gagal membuka database
+     */
+    @NonNull
+    public synchronized SQLiteDatabase openDatabase() throws SQLiteException {
+        if (database == null || !database.isOpen()) {
+            database = dbHelper.getWritableDatabase();
+            connectionOpenCount++;
+            Log.d(TAG, "Database connection opened (total opens: " + connectionOpenCount + ")");
+        }
+        openCounter++;
+        return database;
+    }
+
+    /**
+     * Mengembalikan koneksi yang dipinjam. Koneksi fisik ditutup saat tidak ada peminjam lagi.
+     */
+    public synchronized void closeDatabase() {
+        if (openCounter <= 0) {
+            Log.w(TAG, "closeDatabase called without matching openDatabase");
+            return;
+        }
+
+        openCounter--;
+        if (openCounter == 0 && database != null && database.isOpen()) {
+            closeCachedStatements();
+            database.close();
+            database = null;
+            Log.d(TAG, "Database connection closed");
+        }
+    }
+
+    /**
+     * Tutup koneksi dan lupakan instance (untuk test yang membuat Context baru per kasus)
+     */
+    @VisibleForTesting
+    public static void resetInstance() {
+        synchronized (DatabaseManager.class) {
+            if (instance != null) {
+                synchronized (instance) {
+                    instance.closeCachedStatements();
+                    if (instance.database != null && instance.database.isOpen()) {
+                        instance.database.close();
+                    }
+                    instance.database = null;
+                    instance.openCounter = 0;
+                }
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Jalankan INSERT dengan statement yang di-compile sekali per koneksi.
+     * Pemanggil harus sedang meminjam koneksi lewat {@link #openDatabase()}.
+     * @param sql SQL dengan placeholder ?
+     * @param args Nilai untuk placeholder (null, Number, Boolean, byte[] atau String)
+     * @return Row ID baris baru, atau -1 jika gagal
+     */
+    public long executeInsert(@NonNull String sql, @Nullable Object... args) {
+        SQLiteDatabase owner = currentDatabase();
+        SQLiteStatement statement = acquireStatement(owner, sql);
+        try {
+            bindArgs(statement, args);
+            return statement.executeInsert();
+        } finally {
+            releaseStatement(owner, sql, statement);
+        }
+    }
+
+    /**
+     * Jalankan UPDATE/DELETE (atau UPSERT) dengan statement yang di-compile sekali per koneksi
+     * @return Jumlah row yang teraffect
+     * @see #executeInsert(String, Object...)
+     */
+    public int executeUpdateDelete(@NonNull String sql, @Nullable Object... args) {
+        SQLiteDatabase owner = currentDatabase();
+        SQLiteStatement statement = acquireStatement(owner, sql);
+        try {
+            bindArgs(statement, args);
+            return statement.executeUpdateDelete();
+        } finally {
+            releaseStatement(owner, sql, statement);
+        }
+    }
+
+    @NonNull
+    private synchronized SQLiteDatabase currentDatabase() {
+        if (openCounter <= 0 || database == null || !database.isOpen()) {
+            throw new IllegalStateException("Database is not borrowed; call openDatabase() first");
+        }
+        return database;
+    }
+
+    @NonNull
+    private synchronized SQLiteStatement acquireStatement(@NonNull SQLiteDatabase owner, @NonNull String sql) {
+        SQLiteStatement statement = owner == database ? statementCache.remove(sql) : null;
+        if (statement == null) {
+            statement = owner.compileStatement(sql);
+            statementCompileCount++;
+        }
+        return statement;
+    }
+
+    private synchronized void releaseStatement(@NonNull SQLiteDatabase owner, @NonNull String sql,
+                                               @NonNull SQLiteStatement statement) {
+        statement.clearBindings();
+        // Simpan kembali hanya jika koneksinya masih sama dan belum ada salinan lain di cache
+        if (owner == database && database.isOpen() && !statementCache.containsKey(sql)) {
+            statementCache.put(sql, statement);
+        } else {
+            statement.close();
+        }
+    }
+
+    private synchronized void closeCachedStatements() {
+        for (SQLiteStatement statement : statementCache.values()) {
+            statement.close();
+        }
+        statementCache.clear();
+    }
+
+    private static void bindArgs(@NonNull SQLiteStatement statement, @Nullable Object[] args) {
+        if (args == null) {
+            return;
+        }
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            int index = i + 1;
+            if (arg == null) {
+                statement.bindNull(index);
+            } else if (arg instanceof Double || arg instanceof Float) {
+                statement.bindDouble(index, ((Number) arg).doubleValue());
+            } else if (arg instanceof Number) {
+                statement.bindLong(index, ((Number) arg).longValue());
+            } else if (arg instanceof Boolean) {
+                statement.bindLong(index, (Boolean) arg ? 1 : 0);
+            } else if (arg instanceof byte[]) {
+                statement.bindBlob(index, (byte[]) arg);
+            } else {
+                statement.bindString(index, arg.toString());
+            }
+        }
+    }
+
+    /**
+     * Jumlah statement yang di-compile sejak proses dimulai (untuk benchmark cache statement)
+     */
+    public synchronized int getStatementCompileCount() {
+        return statementCompileCount;
+    }
+
+    /**
+     * Jumlah peminjam yang sedang aktif
+     */
+    public synchronized int getOpenCounter() {
+        return openCounter;
+    }
+
+    /**
+     * Jumlah koneksi fisik yang pernah dibuka sejak proses dimulai
+     */
+    public synchronized int getConnectionOpenCount() {
+        return connectionOpenCount;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.medremind.data.helper;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Pengaturan koneksi SQLite yang dipasang {@link DbHelper} setiap kali database dibuka.
+ * Default: WAL aktif supaya pembacaan UI tidak menunggu tulisan receiver/loader di thread lain.
+ * <p>
+ * WAL dan synchronous dipasang framework di setiap koneksi pool. temp_store dan cache_size tidak
+ * punya hook per koneksi, jadi hanya berlaku di koneksi utama (semua tulisan dan query di dalam transaksi);
+ * koneksi baca tambahan di pool WAL memakai default SQLite (cache 2 MiB, temp_store bawaan build).
+ */
+public final class DbConfig {
+
+    // Nilai PRAGMA synchronous
+    public static final String SYNCHRONOUS_OFF = "OFF";
+    public static final String SYNCHRONOUS_NORMAL = "NORMAL";
+    public static final String SYNCHRONOUS_FULL = "FULL";
+
+    // Nilai PRAGMA temp_store (hanya koneksi utama)
+    public static final String TEMP_STORE_DEFAULT = "DEFAULT";
+    public static final String TEMP_STORE_FILE = "FILE";
+    public static final String TEMP_STORE_MEMORY = "MEMORY";
+
+    // Nilai negatif = ukuran dalam KiB (aturan PRAGMA cache_size SQLite)
+    public static final int DEFAULT_CACHE_SIZE_KIB = 4096;
+
+    // 🔑 NORMAL cukup aman di mode WAL: commit terakhir bisa hilang saat mati listrik, database tidak korup
+    public static final DbConfig DEFAULT = new DbConfig(true, SYNCHRONOUS_NORMAL, TEMP_STORE_MEMORY, DEFAULT_CACHE_SIZE_KIB);
+
+    private final boolean writeAheadLogging;
+    private final String synchronous;
+    private final String tempStore;
+    private final int cacheSizeKib;
+
+    /**
+     * @param writeAheadLogging true untuk journal_mode WAL
+     * @param synchronous Salah satu konstanta SYNCHRONOUS_*
+     * @param tempStore Salah satu konstanta TEMP_STORE_*
+     * @param cacheSizeKib Ukuran page cache koneksi utama dalam KiB
+     */
+    public DbConfig(boolean writeAheadLogging, @NonNull String synchronous, @NonNull String tempStore, int cacheSizeKib) {
+        if (!isOneOf(synchronous, SYNCHRONOUS_OFF, SYNCHRONOUS_NORMAL, SYNCHRONOUS_FULL)) {
+            throw new IllegalArgumentException("synchronous tidak valid: " + synchronous);
+        }
+        if (!isOneOf(tempStore, TEMP_STORE_DEFAULT, TEMP_STORE_FILE, TEMP_STORE_MEMORY)) {
+            throw new IllegalArgumentException("temp_store tidak valid: " + tempStore);
+        }
+        if (cacheSizeKib <= 0) {
+            throw new IllegalArgumentException("cacheSizeKib harus > 0");
+        }
+
+        this.writeAheadLogging = writeAheadLogging;
+        this.synchronous = synchronous;
+        this.tempStore = tempStore;
+        this.cacheSizeKib = cacheSizeKib;
+    }
+
+    /**
+     * Salinan config ini dengan WAL diaktifkan/dimatikan
+     */
+    @NonNull
+    public DbConfig withWriteAheadLogging(boolean enabled) {
+        return new DbConfig(enabled, synchronous, tempStore, cacheSizeKib);
+    }
+
+    public boolean isWriteAheadLogging() {
+        return writeAheadLogging;
+    }
+
+    @NonNull
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    @NonNull
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public int getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DbConfig{" +
+                "wal=" + writeAheadLogging +
+                ", synchronous=" + synchronous +
+                ", tempStore=" + tempStore +
+                ", cacheSizeKib=" + cacheSizeKib +
+                '}';
+    }
+
+    private static boolean isOneOf(String value, String... allowed) {
+        for (String candidate : allowed) {
+            if (candidate.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
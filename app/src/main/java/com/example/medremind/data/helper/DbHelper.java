@@ -5,16 +5,27 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+
+import com.example.medremind.data.model.ScheduleEncoding;
+
+import java.util.Calendar;
+import java.util.Locale;
+
 public class DbHelper extends SQLiteOpenHelper {
     private static final String TAG = "DbHelper";
 
     // Database Info
     public static final String DATABASE_NAME = "MediReminderDatabase";
-    public static final int DATABASE_VERSION = 3; // 🔑 INCREMENT untuk daily reset
+    public static final int DATABASE_VERSION = 11; // 🔑 INCREMENT untuk keyset paging obat
 
     // Table Names
     public static final String TABLE_OBAT = "obat";
     public static final String TABLE_JADWAL = "jadwal";
+    public static final String TABLE_APP_STATE = "app_state";
+    public static final String TABLE_DOSE_EVENT = "dose_event";
+    public static final String TABLE_ARMED_ALARM = "armed_alarm";
+    public static final String TABLE_ALARM_REQUEST_CODE = "alarm_request_code";
 
     // Table Obat - Column Names
     public static final String KEY_OBAT_ID = "id";
@@ -39,6 +50,39 @@ public class DbHelper extends SQLiteOpenHelper {
     public static final String KEY_JADWAL_TANGGAL_DIMINUM = "tanggal_diminum";
     public static final String KEY_JADWAL_CATATAN = "catatan";
     public static final String KEY_LAST_RESET_DATE = "last_reset_date"; // 🔑 NEW COLUMN
+    public static final String KEY_MINUTE_OF_DAY = "minute_of_day"; // waktu sebagai menit sejak tengah malam
+    public static final String KEY_DAY_MASK = "day_mask"; // bitmask hari, lihat ScheduleEncoding
+
+    // Table App State - Column Names (key/value)
+    public static final String KEY_STATE_KEY = "key";
+    public static final String KEY_STATE_VALUE = "value";
+
+    // App State - Keys
+    public static final String STATE_LAST_RESET_DATE = "last_reset_date";
+
+    // Table Dose Event - Column Names (satu baris per dosis terjadwal per tanggal)
+    public static final String KEY_EVENT_ID = "id";
+    public static final String KEY_EVENT_JADWAL_ID = "jadwal_id";
+    public static final String KEY_EVENT_TANGGAL = "tanggal"; // Format: YYYY-MM-DD
+    public static final String KEY_EVENT_STATUS = "status";
+    public static final String KEY_EVENT_TANGGAL_DIMINUM = "tanggal_diminum";
+    public static final String KEY_EVENT_CATATAN = "catatan";
+    public static final String KEY_EVENT_TANGGAL_DIBUAT = "tanggal_dibuat";
+
+    // Table Armed Alarm - Column Names (alarm yang sedang terpasang di AlarmManager)
+    public static final String KEY_ARMED_REQUEST_CODE = "request_code";
+    public static final String KEY_ARMED_ACTION = "action";
+    public static final String KEY_ARMED_TRIGGER_AT = "trigger_at"; // epoch millis
+
+    // Table Alarm Request Code - Column Names (request code PendingIntent <-> jadwal)
+    public static final String KEY_RC_REQUEST_CODE = "request_code";
+    public static final String KEY_RC_JADWAL_ID = "jadwal_id";
+
+    // Epoch detik saat ini; dipakai penulis untuk mengisi tanggal_diperbarui secara eksplisit
+    public static final String SQL_NOW_EPOCH = "strftime('%s', 'now')";
+
+    // Request code di bawah nilai ini dicadangkan untuk alarm tetap (contoh: rantai next-due)
+    public static final int FIRST_ALLOCATED_REQUEST_CODE = 1000;
 
     // Table Create Statements dengan constraints yang lebih baik
     private static final String CREATE_TABLE_OBAT = "CREATE TABLE " + TABLE_OBAT + "("
@@ -65,40 +109,132 @@ public class DbHelper extends SQLiteOpenHelper {
             + KEY_JADWAL_TANGGAL_DIMINUM + " INTEGER,"
             + KEY_JADWAL_CATATAN + " TEXT,"
             + KEY_LAST_RESET_DATE + " TEXT DEFAULT NULL," // 🔑 NEW COLUMN
+            + KEY_MINUTE_OF_DAY + " INTEGER NOT NULL DEFAULT -1,"
+            + KEY_DAY_MASK + " INTEGER NOT NULL DEFAULT 0,"
             + "FOREIGN KEY(" + KEY_OBAT_ID_FK + ") REFERENCES " + TABLE_OBAT + "(" + KEY_OBAT_ID + ") ON DELETE CASCADE"
             + ")";
 
-    // Indexes untuk performa yang lebih baik
+    private static final String CREATE_TABLE_APP_STATE = "CREATE TABLE " + TABLE_APP_STATE + "("
+            + KEY_STATE_KEY + " TEXT PRIMARY KEY,"
+            + KEY_STATE_VALUE + " TEXT"
+            + ")";
+
+    private static final String CREATE_TABLE_DOSE_EVENT = "CREATE TABLE " + TABLE_DOSE_EVENT + "("
+            + KEY_EVENT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + KEY_EVENT_JADWAL_ID + " INTEGER NOT NULL,"
+            + KEY_EVENT_TANGGAL + " TEXT NOT NULL,"
+            + KEY_EVENT_STATUS + " INTEGER NOT NULL CHECK(" + KEY_EVENT_STATUS + " IN (0, 1, 2)),"
+            + KEY_EVENT_TANGGAL_DIMINUM + " INTEGER,"
+            + KEY_EVENT_CATATAN + " TEXT,"
+            + KEY_EVENT_TANGGAL_DIBUAT + " INTEGER NOT NULL DEFAULT (strftime('%s', 'now')),"
+            + "UNIQUE(" + KEY_EVENT_JADWAL_ID + ", " + KEY_EVENT_TANGGAL + "),"
+            + "FOREIGN KEY(" + KEY_EVENT_JADWAL_ID + ") REFERENCES " + TABLE_JADWAL + "(" + KEY_JADWAL_ID + ") ON DELETE CASCADE"
+            + ")";
+
+    private static final String CREATE_TABLE_ARMED_ALARM = "CREATE TABLE " + TABLE_ARMED_ALARM + "("
+            + KEY_ARMED_REQUEST_CODE + " INTEGER PRIMARY KEY,"
+            + KEY_ARMED_ACTION + " TEXT NOT NULL,"
+            + KEY_ARMED_TRIGGER_AT + " INTEGER NOT NULL"
+            + ")";
+
+    // AUTOINCREMENT: request code tidak pernah dipakai ulang, sehingga alarm lama
+    // tidak bisa menunjuk ke jadwal lain setelah jadwalnya dihapus
+    private static final String CREATE_TABLE_ALARM_REQUEST_CODE = "CREATE TABLE " + TABLE_ALARM_REQUEST_CODE + "("
+            + KEY_RC_REQUEST_CODE + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+            + KEY_RC_JADWAL_ID + " INTEGER NOT NULL UNIQUE,"
+            + "FOREIGN KEY(" + KEY_RC_JADWAL_ID + ") REFERENCES " + TABLE_JADWAL + "(" + KEY_JADWAL_ID + ") ON DELETE CASCADE"
+            + ")";
+
+    // Mulai alokasi dari FIRST_ALLOCATED_REQUEST_CODE
+    private static final String SEED_ALARM_REQUEST_CODE_SEQUENCE =
+            "INSERT INTO sqlite_sequence (name, seq) VALUES ('" + TABLE_ALARM_REQUEST_CODE + "', " +
+                    (FIRST_ALLOCATED_REQUEST_CODE - 1) + ")";
+
+    // Index sampai v9; hanya dipakai migrasi lama, dihapus di migrateFromV9ToV10
+    private static final String INDEX_JADWAL_OBAT_ID = "idx_jadwal_obat_id";
+    private static final String INDEX_JADWAL_HARI_WAKTU = "idx_jadwal_hari_waktu";
+    private static final String INDEX_JADWAL_STATUS = "idx_jadwal_status";
+    private static final String INDEX_JADWAL_RESET_DATE = "idx_jadwal_reset_date";
+    private static final String INDEX_JADWAL_MINUTE_DAY = "idx_jadwal_minute_day";
+
     private static final String CREATE_INDEX_JADWAL_OBAT_ID =
-            "CREATE INDEX idx_jadwal_obat_id ON " + TABLE_JADWAL + "(" + KEY_OBAT_ID_FK + ")";
+            "CREATE INDEX " + INDEX_JADWAL_OBAT_ID + " ON " + TABLE_JADWAL + "(" + KEY_OBAT_ID_FK + ")";
 
     private static final String CREATE_INDEX_JADWAL_HARI_WAKTU =
-            "CREATE INDEX idx_jadwal_hari_waktu ON " + TABLE_JADWAL + "(" + KEY_HARI + ", " + KEY_WAKTU + ")";
+            "CREATE INDEX " + INDEX_JADWAL_HARI_WAKTU + " ON " + TABLE_JADWAL + "(" + KEY_HARI + ", " + KEY_WAKTU + ")";
 
     private static final String CREATE_INDEX_JADWAL_STATUS =
-            "CREATE INDEX idx_jadwal_status ON " + TABLE_JADWAL + "(" + KEY_STATUS + ")";
+            "CREATE INDEX " + INDEX_JADWAL_STATUS + " ON " + TABLE_JADWAL + "(" + KEY_STATUS + ")";
 
-    // 🔑 NEW INDEX untuk daily reset
     private static final String CREATE_INDEX_JADWAL_RESET_DATE =
-            "CREATE INDEX idx_jadwal_reset_date ON " + TABLE_JADWAL + "(" + KEY_LAST_RESET_DATE + ")";
-
-    // Triggers untuk auto-update timestamp
-    private static final String CREATE_TRIGGER_OBAT_UPDATE =
-            "CREATE TRIGGER trigger_obat_update AFTER UPDATE ON " + TABLE_OBAT + " " +
-                    "BEGIN " +
-                    "UPDATE " + TABLE_OBAT + " SET " + KEY_OBAT_TANGGAL_DIPERBARUI + " = strftime('%s', 'now') " +
-                    "WHERE " + KEY_OBAT_ID + " = NEW." + KEY_OBAT_ID + "; " +
-                    "END";
-
-    private static final String CREATE_TRIGGER_JADWAL_UPDATE =
-            "CREATE TRIGGER trigger_jadwal_update AFTER UPDATE ON " + TABLE_JADWAL + " " +
-                    "BEGIN " +
-                    "UPDATE " + TABLE_JADWAL + " SET " + KEY_JADWAL_TANGGAL_DIPERBARUI + " = strftime('%s', 'now') " +
-                    "WHERE " + KEY_JADWAL_ID + " = NEW." + KEY_JADWAL_ID + "; " +
-                    "END";
+            "CREATE INDEX " + INDEX_JADWAL_RESET_DATE + " ON " + TABLE_JADWAL + "(" + KEY_LAST_RESET_DATE + ")";
+
+    private static final String CREATE_INDEX_JADWAL_MINUTE_DAY =
+            "CREATE INDEX " + INDEX_JADWAL_MINUTE_DAY + " ON " + TABLE_JADWAL + "(" + KEY_MINUTE_OF_DAY + ", " + KEY_DAY_MASK + ")";
+
+    // Indexes skema terbaru; rencana query setiap helper dicek di QueryPlanTest
+
+    // Riwayat per tanggal (lookup per jadwal sudah dicakup UNIQUE(jadwal_id, tanggal))
+    private static final String CREATE_INDEX_DOSE_EVENT_TANGGAL =
+            "CREATE INDEX idx_dose_event_tanggal ON " + TABLE_DOSE_EVENT + "(" + KEY_EVENT_TANGGAL + ")";
+
+    // Jadwal per obat terurut waktu; juga dipakai FK/ON DELETE CASCADE dari obat
+    private static final String CREATE_INDEX_JADWAL_OBAT_MINUTE =
+            "CREATE INDEX idx_jadwal_obat_minute ON " + TABLE_JADWAL + "(" + KEY_OBAT_ID_FK + ", " + KEY_MINUTE_OF_DAY + ")";
+
+    // 🔑 Query hari ini: range/urutan minute_of_day, filter day_mask dan JOIN obat dibaca langsung dari index
+    private static final String CREATE_INDEX_JADWAL_MINUTE_DAY_OBAT =
+            "CREATE INDEX idx_jadwal_minute_day_obat ON " + TABLE_JADWAL + "(" +
+                    KEY_MINUTE_OF_DAY + ", " + KEY_DAY_MASK + ", " + KEY_OBAT_ID_FK + ")";
+
+    // Index parsial: hanya obat aktif, sesuai filter is_aktif = 1 di hampir semua query
+    private static final String CREATE_INDEX_OBAT_AKTIF_DIBUAT =
+            "CREATE INDEX idx_obat_aktif_dibuat ON " + TABLE_OBAT + "(" + KEY_OBAT_TANGGAL_DIBUAT + ") " +
+                    "WHERE " + KEY_OBAT_IS_AKTIF + " = 1";
+
+    private static final String CREATE_INDEX_OBAT_AKTIF_STOK =
+            "CREATE INDEX idx_obat_aktif_stok ON " + TABLE_OBAT + "(" + KEY_JUMLAH_OBAT + ") " +
+                    "WHERE " + KEY_OBAT_IS_AKTIF + " = 1";
+
+    // Keyset paging daftar obat: halaman berikutnya mulai dari (nama, id) terakhir tanpa OFFSET
+    private static final String CREATE_INDEX_OBAT_AKTIF_NAMA =
+            "CREATE INDEX idx_obat_aktif_nama ON " + TABLE_OBAT + "(" + KEY_NAMA_OBAT + ", " + KEY_OBAT_ID + ") " +
+                    "WHERE " + KEY_OBAT_IS_AKTIF + " = 1";
+
+    // Trigger lama (sampai v7) yang meng-UPDATE ulang baris yang sama setelah setiap UPDATE
+    private static final String LEGACY_TRIGGER_OBAT_UPDATE = "trigger_obat_update";
+    private static final String LEGACY_TRIGGER_JADWAL_UPDATE = "trigger_jadwal_update";
+
+    private final DbConfig config;
 
     public DbHelper(Context context) {
+        this(context, DbConfig.DEFAULT);
+    }
+
+    public DbHelper(Context context, @NonNull DbConfig config) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.config = config;
+        // 🔑 synchronous lewat OpenParams: framework memasangnya di setiap koneksi pool, termasuk koneksi baca
+        setOpenParams(new SQLiteDatabase.OpenParams.Builder()
+                .setSynchronousMode(config.getSynchronous())
+                .build());
+        // 🔑 WAL: pembaca di thread lain tidak diblokir oleh transaksi tulis
+        setWriteAheadLoggingEnabled(config.isWriteAheadLogging());
+    }
+
+    @NonNull
+    public DbConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Dipanggil sekali untuk koneksi utama (koneksi tulis), sebelum onCreate/onUpgrade/onOpen.
+        // Koneksi baca tambahan di pool WAL tidak melewati sini, lihat DbConfig
+        db.execSQL("PRAGMA temp_store=" + config.getTempStore());
+        db.execSQL("PRAGMA cache_size=-" + config.getCacheSizeKib());
+        Log.d(TAG, "Database configured: " + config);
     }
 
     @Override
@@ -110,16 +246,14 @@ public class DbHelper extends SQLiteOpenHelper {
             // Creating required tables
             db.execSQL(CREATE_TABLE_OBAT);
             db.execSQL(CREATE_TABLE_JADWAL);
+            db.execSQL(CREATE_TABLE_APP_STATE);
+            db.execSQL(CREATE_TABLE_DOSE_EVENT);
+            db.execSQL(CREATE_TABLE_ARMED_ALARM);
+            db.execSQL(CREATE_TABLE_ALARM_REQUEST_CODE);
+            db.execSQL(SEED_ALARM_REQUEST_CODE_SEQUENCE);
 
             // Creating indexes
-            db.execSQL(CREATE_INDEX_JADWAL_OBAT_ID);
-            db.execSQL(CREATE_INDEX_JADWAL_HARI_WAKTU);
-            db.execSQL(CREATE_INDEX_JADWAL_STATUS);
-            db.execSQL(CREATE_INDEX_JADWAL_RESET_DATE); // 🔑 NEW INDEX
-
-            // Creating triggers
-            db.execSQL(CREATE_TRIGGER_OBAT_UPDATE);
-            db.execSQL(CREATE_TRIGGER_JADWAL_UPDATE);
+            createIndexes(db);
 
             Log.d(TAG, "Database created successfully");
         } catch (Exception e) {
@@ -142,6 +276,38 @@ public class DbHelper extends SQLiteOpenHelper {
                 // 🔑 Migration dari versi 2 ke 3 (Daily Reset)
                 migrateFromV2ToV3(db);
             }
+            if (oldVersion < 4) {
+                // Migration dari versi 3 ke 4 (App State)
+                migrateFromV3ToV4(db);
+            }
+            if (oldVersion < 5) {
+                // Migration dari versi 4 ke 5 (Dose Event log)
+                migrateFromV4ToV5(db);
+            }
+            if (oldVersion < 6) {
+                // Migration dari versi 5 ke 6 (Armed Alarm)
+                migrateFromV5ToV6(db);
+            }
+            if (oldVersion < 7) {
+                // Migration dari versi 6 ke 7 (Alarm Request Code)
+                migrateFromV6ToV7(db);
+            }
+            if (oldVersion < 8) {
+                // Migration dari versi 7 ke 8 (Drop trigger tanggal_diperbarui)
+                migrateFromV7ToV8(db);
+            }
+            if (oldVersion < 9) {
+                // Migration dari versi 8 ke 9 (Schedule encoding)
+                migrateFromV8ToV9(db);
+            }
+            if (oldVersion < 10) {
+                // Migration dari versi 9 ke 10 (Index komposit/parsial)
+                migrateFromV9ToV10(db);
+            }
+            if (oldVersion < 11) {
+                // Migration dari versi 10 ke 11 (Keyset paging obat)
+                migrateFromV10ToV11(db);
+            }
 
             Log.d(TAG, "Database upgrade completed successfully");
         } catch (Exception e) {
@@ -170,12 +336,10 @@ public class DbHelper extends SQLiteOpenHelper {
             db.execSQL("ALTER TABLE " + TABLE_JADWAL + " ADD COLUMN " + KEY_JADWAL_TANGGAL_DIMINUM + " INTEGER");
             db.execSQL("ALTER TABLE " + TABLE_JADWAL + " ADD COLUMN " + KEY_JADWAL_CATATAN + " TEXT");
 
-            // Create indexes and triggers
+            // Create indexes (trigger lama tidak dibuat lagi, lihat migrateFromV7ToV8)
             db.execSQL(CREATE_INDEX_JADWAL_OBAT_ID);
             db.execSQL(CREATE_INDEX_JADWAL_HARI_WAKTU);
             db.execSQL(CREATE_INDEX_JADWAL_STATUS);
-            db.execSQL(CREATE_TRIGGER_OBAT_UPDATE);
-            db.execSQL(CREATE_TRIGGER_JADWAL_UPDATE);
 
             Log.d(TAG, "Migration from V1 to V2 completed successfully");
         } catch (Exception e) {
@@ -200,8 +364,165 @@ public class DbHelper extends SQLiteOpenHelper {
         }
     }
 
+    private void migrateFromV3ToV4(SQLiteDatabase db) {
+        try {
+            db.execSQL(CREATE_TABLE_APP_STATE);
+
+            // Bawa tanggal reset terakhir dari kolom jadwal agar reset hari ini tidak diulang
+            db.execSQL("INSERT INTO " + TABLE_APP_STATE + " (" + KEY_STATE_KEY + ", " + KEY_STATE_VALUE + ") " +
+                    "SELECT '" + STATE_LAST_RESET_DATE + "', MAX(" + KEY_LAST_RESET_DATE + ") FROM " + TABLE_JADWAL +
+                    " WHERE " + KEY_LAST_RESET_DATE + " IS NOT NULL");
+
+            Log.d(TAG, "Migration from V3 to V4 completed - Added app_state table");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V3 to V4: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV4ToV5(SQLiteDatabase db) {
+        try {
+            db.execSQL(CREATE_TABLE_DOSE_EVENT);
+            db.execSQL(CREATE_INDEX_DOSE_EVENT_TANGGAL);
+
+            // Pindahkan status terakhir yang sudah tercatat di jadwal agar progress hari ini tidak hilang
+            db.execSQL("INSERT OR IGNORE INTO " + TABLE_DOSE_EVENT + " (" +
+                    KEY_EVENT_JADWAL_ID + ", " + KEY_EVENT_TANGGAL + ", " + KEY_EVENT_STATUS + ", " +
+                    KEY_EVENT_TANGGAL_DIMINUM + ", " + KEY_EVENT_CATATAN + ") " +
+                    "SELECT " + KEY_JADWAL_ID + ", " + KEY_LAST_RESET_DATE + ", " + KEY_STATUS + ", " +
+                    KEY_JADWAL_TANGGAL_DIMINUM + ", " + KEY_JADWAL_CATATAN + " FROM " + TABLE_JADWAL +
+                    " WHERE " + KEY_STATUS + " != 0 AND " + KEY_LAST_RESET_DATE + " IS NOT NULL");
+
+            Log.d(TAG, "Migration from V4 to V5 completed - Added dose_event table");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V4 to V5: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV5ToV6(SQLiteDatabase db) {
+        try {
+            // Tabel kosong: alarm versi lama belum tercatat, reschedule berikutnya memasang ulang semuanya
+            db.execSQL(CREATE_TABLE_ARMED_ALARM);
+
+            Log.d(TAG, "Migration from V5 to V6 completed - Added armed_alarm table");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V5 to V6: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV6ToV7(SQLiteDatabase db) {
+        try {
+            db.execSQL(CREATE_TABLE_ALARM_REQUEST_CODE);
+            db.execSQL(SEED_ALARM_REQUEST_CODE_SEQUENCE);
+
+            Log.d(TAG, "Migration from V6 to V7 completed - Added alarm_request_code table");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V6 to V7: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV7ToV8(SQLiteDatabase db) {
+        try {
+            // 🔑 tanggal_diperbarui sekarang diisi langsung oleh statement UPDATE, bukan UPDATE kedua dari trigger
+            db.execSQL("DROP TRIGGER IF EXISTS " + LEGACY_TRIGGER_OBAT_UPDATE);
+            db.execSQL("DROP TRIGGER IF EXISTS " + LEGACY_TRIGGER_JADWAL_UPDATE);
+
+            Log.d(TAG, "Migration from V7 to V8 completed - Dropped tanggal_diperbarui triggers");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V7 to V8: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV8ToV9(SQLiteDatabase db) {
+        try {
+            db.execSQL("ALTER TABLE " + TABLE_JADWAL + " ADD COLUMN " + KEY_MINUTE_OF_DAY + " INTEGER NOT NULL DEFAULT -1");
+            db.execSQL("ALTER TABLE " + TABLE_JADWAL + " ADD COLUMN " + KEY_DAY_MASK + " INTEGER NOT NULL DEFAULT 0");
+
+            // Isi dari teks lama sekali saja; setelah ini tidak ada lagi parsing waktu/hari saat query
+            db.execSQL("UPDATE " + TABLE_JADWAL + " SET " +
+                    KEY_MINUTE_OF_DAY + " = CAST(substr(" + KEY_WAKTU + ", 1, instr(" + KEY_WAKTU + ", ':') - 1) AS INTEGER) * 60 + " +
+                    "CAST(substr(" + KEY_WAKTU + ", instr(" + KEY_WAKTU + ", ':') + 1) AS INTEGER), " +
+                    KEY_DAY_MASK + " = " + buildDayMaskSql(KEY_HARI) + " " +
+                    "WHERE instr(" + KEY_WAKTU + ", ':') > 0");
+
+            db.execSQL(CREATE_INDEX_JADWAL_MINUTE_DAY);
+
+            Log.d(TAG, "Migration from V8 to V9 completed - Added minute_of_day and day_mask");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V8 to V9: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV9ToV10(SQLiteDatabase db) {
+        try {
+            // Index lama: kolom hari/waktu/status/last_reset_date tidak lagi dipakai query,
+            // dua index lainnya diganti versi komposit yang lebih lebar
+            db.execSQL("DROP INDEX IF EXISTS " + INDEX_JADWAL_OBAT_ID);
+            db.execSQL("DROP INDEX IF EXISTS " + INDEX_JADWAL_HARI_WAKTU);
+            db.execSQL("DROP INDEX IF EXISTS " + INDEX_JADWAL_STATUS);
+            db.execSQL("DROP INDEX IF EXISTS " + INDEX_JADWAL_RESET_DATE);
+            db.execSQL("DROP INDEX IF EXISTS " + INDEX_JADWAL_MINUTE_DAY);
+
+            db.execSQL(CREATE_INDEX_JADWAL_OBAT_MINUTE);
+            db.execSQL(CREATE_INDEX_JADWAL_MINUTE_DAY_OBAT);
+            db.execSQL(CREATE_INDEX_OBAT_AKTIF_DIBUAT);
+            db.execSQL(CREATE_INDEX_OBAT_AKTIF_STOK);
+
+            Log.d(TAG, "Migration from V9 to V10 completed - Replaced jadwal/obat indexes");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V9 to V10: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    private void migrateFromV10ToV11(SQLiteDatabase db) {
+        try {
+            db.execSQL(CREATE_INDEX_OBAT_AKTIF_NAMA);
+            Log.d(TAG, "Migration from V10 to V11 completed - Added obat name index for paging");
+        } catch (Exception e) {
+            Log.e(TAG, "Error in migration from V10 to V11: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Index skema terbaru (onCreate)
+     */
+    private static void createIndexes(SQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_JADWAL_OBAT_MINUTE);
+        db.execSQL(CREATE_INDEX_JADWAL_MINUTE_DAY_OBAT);
+        db.execSQL(CREATE_INDEX_DOSE_EVENT_TANGGAL);
+        db.execSQL(CREATE_INDEX_OBAT_AKTIF_DIBUAT);
+        db.execSQL(CREATE_INDEX_OBAT_AKTIF_STOK);
+        db.execSQL(CREATE_INDEX_OBAT_AKTIF_NAMA);
+    }
+
+    /**
+     * CASE SQL yang memetakan teks hari ke bitmask, sama dengan ScheduleEncoding.dayMaskOf
+     */
+    private static String buildDayMaskSql(String hariColumn) {
+        StringBuilder sql = new StringBuilder("CASE LOWER(TRIM(" + hariColumn + ")) ");
+        sql.append("WHEN 'daily' THEN ").append(ScheduleEncoding.MASK_EVERY_DAY).append(' ');
+        sql.append("WHEN 'setiap hari' THEN ").append(ScheduleEncoding.MASK_EVERY_DAY).append(' ');
+        sql.append("WHEN 'harian' THEN ").append(ScheduleEncoding.MASK_EVERY_DAY).append(' ');
+        for (int day = Calendar.SUNDAY; day <= Calendar.SATURDAY; day++) {
+            sql.append("WHEN '").append(ScheduleEncoding.dayName(day).toLowerCase(Locale.ROOT)).append("' THEN ")
+                    .append(ScheduleEncoding.dayBit(day)).append(' ');
+        }
+        return sql.append("ELSE ").append(ScheduleEncoding.MASK_NONE).append(" END").toString();
+    }
+
     private void recreateTables(SQLiteDatabase db) {
         // Drop existing tables
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ALARM_REQUEST_CODE);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ARMED_ALARM);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_DOSE_EVENT);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_APP_STATE);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_JADWAL);
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_OBAT);
 
@@ -0,0 +1,54 @@
+package com.example.medremind.data.helper;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.medremind.data.model.DoseEvent;
+
+import java.util.Date;
+
+/**
+ * RowMapper untuk tabel dose_event. Index kolom dicari sekali per cursor.
+ */
+public class DoseEventRowMapper implements RowMapper<DoseEvent> {
+    private static final String TAG = "DoseEventRowMapper";
+
+    private final int idxId;
+    private final int idxJadwalId;
+    private final int idxTanggal;
+    private final int idxStatus;
+    private final int idxTanggalDiminum;
+    private final int idxCatatan;
+
+    public DoseEventRowMapper(@NonNull Cursor cursor) {
+        idxId = cursor.getColumnIndex(DbHelper.KEY_EVENT_ID);
+        idxJadwalId = cursor.getColumnIndex(DbHelper.KEY_EVENT_JADWAL_ID);
+        idxTanggal = cursor.getColumnIndex(DbHelper.KEY_EVENT_TANGGAL);
+        idxStatus = cursor.getColumnIndex(DbHelper.KEY_EVENT_STATUS);
+        idxTanggalDiminum = cursor.getColumnIndex(DbHelper.KEY_EVENT_TANGGAL_DIMINUM);
+        idxCatatan = cursor.getColumnIndex(DbHelper.KEY_EVENT_CATATAN);
+    }
+
+    @Nullable
+    @Override
+    public DoseEvent mapRow(@NonNull Cursor cursor) {
+        try {
+            long tanggalDiminum = CursorHelper.getLong(cursor, idxTanggalDiminum, 0);
+
+            return new DoseEvent(
+                    CursorHelper.getInt(cursor, idxId, 0),
+                    CursorHelper.getInt(cursor, idxJadwalId, 0),
+                    CursorHelper.getString(cursor, idxTanggal, ""),
+                    CursorHelper.getInt(cursor, idxStatus, 0),
+                    tanggalDiminum > 0 ? new Date(tanggalDiminum * 1000) : null,
+                    CursorHelper.getString(cursor, idxCatatan, null));
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error mapping row to DoseEvent: " + e.getMessage(), e);
+            return null;
+        }
+    }
+}
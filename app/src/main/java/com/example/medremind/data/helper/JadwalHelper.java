@@ -11,27 +11,205 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.example.medremind.data.model.DoseEvent;
 import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.ScheduleEncoding;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class JadwalHelper {
     private static final String TAG = "JadwalHelper";
 
+    // Hasil recordDoseTaken selain sisa stok (>= 0): gagal (tidak tercatat), atau
+    // dosis tercatat tetapi stok tercatat kurang dari satu dosis sehingga dijadikan 0
+    public static final int RECORD_DOSE_GAGAL = -1;
+    public static final int RECORD_DOSE_STOK_TIDAK_CUKUP = -2;
+
+    // Jadwal dianggap terlewat jika sudah lewat 2 jam (120 menit)
+    private static final int AUTO_TERLEWAT_MINUTES = 120;
+
+    // Waktu jadwal sebagai menit sejak tengah malam (kolom terindeks, lihat ScheduleEncoding)
+    private static final String MINUTE_OF_DAY = "j." + DbHelper.KEY_MINUTE_OF_DAY;
+
+    private static final String AUTO_TERLEWAT_CATATAN = "Auto terlewat - lewat 2 jam";
+
+    // 🔑 Jadwal berlaku hari ini: bit hari ini ada di day_mask (arg: ScheduleEncoding.todayBit())
+    private static final String TODAY_PREDICATE =
+            "(j." + DbHelper.KEY_DAY_MASK + " & CAST(? AS INTEGER)) != 0";
+
+    // Jadwal aktif hari ini yang belum punya dose_event dan waktunya <= batas menit
+    // (args: tanggal, bit hari ini, batas menit)
+    private static final String OVERDUE_FROM_WHERE =
+            " FROM " + DbHelper.TABLE_JADWAL + " j " +
+                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
+                    "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
+                    "AND NOT EXISTS (SELECT 1 FROM " + DbHelper.TABLE_DOSE_EVENT + " e WHERE e." + DbHelper.KEY_EVENT_JADWAL_ID +
+                    " = j." + DbHelper.KEY_JADWAL_ID + " AND e." + DbHelper.KEY_EVENT_TANGGAL + " = ?) " +
+                    "AND " + TODAY_PREDICATE + " " +
+                    "AND " + MINUTE_OF_DAY + " <= CAST(? AS INTEGER)";
+
+    // Kolom jadwal + obat dengan status hari ini diturunkan dari dose_event (arg pertama: tanggal).
+    // Tanpa event berarti belum diminum, sehingga pergantian hari tidak perlu menulis ulang jadwal.
+    private static final String SELECT_JADWAL_WITH_STATUS =
+            "SELECT j." + DbHelper.KEY_JADWAL_ID + ", j." + DbHelper.KEY_OBAT_ID_FK + ", j." + DbHelper.KEY_HARI + ", " +
+                    "j." + DbHelper.KEY_WAKTU + ", j." + DbHelper.KEY_MINUTE_OF_DAY + ", j." + DbHelper.KEY_DAY_MASK + ", " +
+                    "j." + DbHelper.KEY_JADWAL_TANGGAL_DIBUAT + ", " +
+                    "j." + DbHelper.KEY_JADWAL_TANGGAL_DIPERBARUI + ", " +
+                    "COALESCE(e." + DbHelper.KEY_EVENT_STATUS + ", " + Jadwal.STATUS_BELUM_DIMINUM + ") AS " + DbHelper.KEY_STATUS + ", " +
+                    "e." + DbHelper.KEY_EVENT_TANGGAL_DIMINUM + " AS " + DbHelper.KEY_JADWAL_TANGGAL_DIMINUM + ", " +
+                    "e." + DbHelper.KEY_EVENT_CATATAN + " AS " + DbHelper.KEY_JADWAL_CATATAN + ", " +
+                    "e." + DbHelper.KEY_EVENT_TANGGAL + " AS " + DbHelper.KEY_LAST_RESET_DATE + ", " +
+                    "o.nama_obat, o.dosis_obat, o.aturan_minum, o.jenis_obat, o.jumlah_obat " +
+                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
+                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
+                    "LEFT JOIN " + DbHelper.TABLE_DOSE_EVENT + " e ON e." + DbHelper.KEY_EVENT_JADWAL_ID + " = j." + DbHelper.KEY_JADWAL_ID +
+                    " AND e." + DbHelper.KEY_EVENT_TANGGAL + " = ? ";
+
+    // Dosis hari ini yang belum punya dose_event, untuk obat aktif dengan stok (arg: bit hari ini).
+    // Dipakai setelah SELECT_JADWAL_WITH_STATUS atau JOIN dose_event yang sama.
+    private static final String PENDING_TODAY_WHERE =
+            "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 AND o." + DbHelper.KEY_JUMLAH_OBAT + " > 0 " +
+                    "AND e." + DbHelper.KEY_EVENT_ID + " IS NULL " +
+                    "AND " + TODAY_PREDICATE + " ";
+
+    // Catat/ubah status satu dosis pada satu tanggal (args: jadwal_id, tanggal, status, tanggal_diminum, catatan)
+    private static final String SQL_UPSERT_DOSE_EVENT =
+            "INSERT INTO " + DbHelper.TABLE_DOSE_EVENT + " (" +
+                    DbHelper.KEY_EVENT_JADWAL_ID + ", " + DbHelper.KEY_EVENT_TANGGAL + ", " + DbHelper.KEY_EVENT_STATUS + ", " +
+                    DbHelper.KEY_EVENT_TANGGAL_DIMINUM + ", " + DbHelper.KEY_EVENT_CATATAN + ") VALUES (?, ?, ?, ?, ?) " +
+                    "ON CONFLICT(" + DbHelper.KEY_EVENT_JADWAL_ID + ", " + DbHelper.KEY_EVENT_TANGGAL + ") DO UPDATE SET " +
+                    DbHelper.KEY_EVENT_STATUS + " = excluded." + DbHelper.KEY_EVENT_STATUS + ", " +
+                    DbHelper.KEY_EVENT_TANGGAL_DIMINUM + " = excluded." + DbHelper.KEY_EVENT_TANGGAL_DIMINUM + ", " +
+                    DbHelper.KEY_EVENT_CATATAN + " = excluded." + DbHelper.KEY_EVENT_CATATAN;
+
+    // Kembalikan dosis ke belum diminum: tanpa event berarti pending (args: jadwal_id, tanggal)
+    private static final String SQL_DELETE_DOSE_EVENT =
+            "DELETE FROM " + DbHelper.TABLE_DOSE_EVENT + " WHERE " + DbHelper.KEY_EVENT_JADWAL_ID + " = ? AND " +
+                    DbHelper.KEY_EVENT_TANGGAL + " = ?";
+
+    // Hanya definisi jadwal; status dan catatan per hari ada di dose_event
+    private static final String SQL_INSERT_JADWAL =
+            "INSERT INTO " + DbHelper.TABLE_JADWAL + " (" + DbHelper.KEY_OBAT_ID_FK + ", " + DbHelper.KEY_HARI + ", " +
+                    DbHelper.KEY_WAKTU + ", " + DbHelper.KEY_MINUTE_OF_DAY + ", " + DbHelper.KEY_DAY_MASK + ") VALUES (?, ?, ?, ?, ?)";
+
+    // Status dosis pada tanggal, stok dan besar dosis obat (args: tanggal, jadwal_id)
+    private static final String SQL_SELECT_DOSE_STOCK_STATE =
+            "SELECT j." + DbHelper.KEY_OBAT_ID_FK + ", e." + DbHelper.KEY_EVENT_STATUS + ", " +
+                    "o." + DbHelper.KEY_JUMLAH_OBAT + ", CAST(o." + DbHelper.KEY_DOSIS_OBAT + " AS INTEGER) " +
+                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
+                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
+                    "LEFT JOIN " + DbHelper.TABLE_DOSE_EVENT + " e ON e." + DbHelper.KEY_EVENT_JADWAL_ID + " = j." + DbHelper.KEY_JADWAL_ID +
+                    " AND e." + DbHelper.KEY_EVENT_TANGGAL + " = ? " +
+                    "WHERE j." + DbHelper.KEY_JADWAL_ID + " = ?";
+
+    // 🔑 Statement lengkap diberi prefix SQL_; QueryPlanTest menjalankan EXPLAIN QUERY PLAN untuk semuanya
+
+    private static final String SQL_SELECT_APP_STATE =
+            "SELECT " + DbHelper.KEY_STATE_VALUE + " FROM " + DbHelper.TABLE_APP_STATE +
+                    " WHERE " + DbHelper.KEY_STATE_KEY + " = ?";
+
+    private static final String SQL_SELECT_OVERDUE_IDS = "SELECT j." + DbHelper.KEY_JADWAL_ID + OVERDUE_FROM_WHERE;
+
+    // args: tanggal, catatan, lalu args OVERDUE_FROM_WHERE
+    private static final String SQL_INSERT_OVERDUE_EVENTS =
+            "INSERT OR IGNORE INTO " + DbHelper.TABLE_DOSE_EVENT + " (" +
+                    DbHelper.KEY_EVENT_JADWAL_ID + ", " + DbHelper.KEY_EVENT_TANGGAL + ", " +
+                    DbHelper.KEY_EVENT_STATUS + ", " + DbHelper.KEY_EVENT_CATATAN + ") " +
+                    "SELECT j." + DbHelper.KEY_JADWAL_ID + ", ?, " + Jadwal.STATUS_TERLEWAT + ", ?" +
+                    OVERDUE_FROM_WHERE;
+
+    private static final String SQL_SELECT_ALL_JADWAL = SELECT_JADWAL_WITH_STATUS +
+            "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
+            "ORDER BY " + MINUTE_OF_DAY + " ASC";
+
+    private static final String SQL_SELECT_JADWAL_BY_OBAT = SELECT_JADWAL_WITH_STATUS +
+            "WHERE j." + DbHelper.KEY_OBAT_ID_FK + " = ? AND o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
+            "ORDER BY " + MINUTE_OF_DAY + " ASC";
+
+    // args: tanggal, bit hari ini, menit awal, menit akhir
+    private static final String SQL_SELECT_PENDING_TODAY = SELECT_JADWAL_WITH_STATUS +
+            PENDING_TODAY_WHERE +
+            "AND " + MINUTE_OF_DAY + " BETWEEN CAST(? AS INTEGER) AND CAST(? AS INTEGER) " +
+            "ORDER BY " + MINUTE_OF_DAY + " ASC, j." + DbHelper.KEY_JADWAL_ID + " ASC";
+
+    // args: tanggal, bit hari ini, menit setelahnya
+    private static final String SQL_SELECT_NEXT_PENDING_MINUTE =
+            "SELECT MIN(" + MINUTE_OF_DAY + ") " +
+                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
+                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
+                    "LEFT JOIN " + DbHelper.TABLE_DOSE_EVENT + " e ON e." + DbHelper.KEY_EVENT_JADWAL_ID + " = j." + DbHelper.KEY_JADWAL_ID +
+                    " AND e." + DbHelper.KEY_EVENT_TANGGAL + " = ? " +
+                    PENDING_TODAY_WHERE +
+                    "AND " + MINUTE_OF_DAY + " > CAST(? AS INTEGER)";
+
+    // day_mask sama persis (jadwal harian saja, atau mingguan satu hari tanpa harian)
+    private static final String SQL_SELECT_JADWAL_BY_DAY_MASK = SELECT_JADWAL_WITH_STATUS +
+            "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 AND j." + DbHelper.KEY_DAY_MASK + " = CAST(? AS INTEGER) " +
+            "ORDER BY " + MINUTE_OF_DAY + " ASC";
+
+    // day_mask memuat salah satu bit (termasuk jadwal harian)
+    private static final String SQL_SELECT_JADWAL_MATCHING_DAY_MASK = SELECT_JADWAL_WITH_STATUS +
+            "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 AND (j." + DbHelper.KEY_DAY_MASK + " & CAST(? AS INTEGER)) != 0 " +
+            "ORDER BY " + MINUTE_OF_DAY + " ASC";
+
+    private static final String SQL_SELECT_JADWAL_BY_ID = SELECT_JADWAL_WITH_STATUS +
+            "WHERE j." + DbHelper.KEY_JADWAL_ID + " = ? AND o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1";
+
+    private static final String SQL_DELETE_JADWAL_BY_OBAT =
+            "DELETE FROM " + DbHelper.TABLE_JADWAL + " WHERE " + DbHelper.KEY_OBAT_ID_FK + " = ?";
+
+    // Jumlah jadwal obat aktif per status hari ini (arg: tanggal)
+    private static final String SQL_SELECT_STATUS_COUNTS =
+            "SELECT COALESCE(e." + DbHelper.KEY_EVENT_STATUS + ", " + Jadwal.STATUS_BELUM_DIMINUM + ") AS " +
+                    DbHelper.KEY_STATUS + ", COUNT(*) as count " +
+                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
+                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
+                    "LEFT JOIN " + DbHelper.TABLE_DOSE_EVENT + " e ON e." + DbHelper.KEY_EVENT_JADWAL_ID + " = j." + DbHelper.KEY_JADWAL_ID +
+                    " AND e." + DbHelper.KEY_EVENT_TANGGAL + " = ? " +
+                    "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
+                    "GROUP BY 1";
+
+    // args: obat_id, tanggal awal, tanggal akhir
+    private static final String SQL_SELECT_DOSE_HISTORY =
+            "SELECT e.* FROM " + DbHelper.TABLE_DOSE_EVENT + " e " +
+                    "INNER JOIN " + DbHelper.TABLE_JADWAL + " j ON e." + DbHelper.KEY_EVENT_JADWAL_ID + " = j." + DbHelper.KEY_JADWAL_ID + " " +
+                    "WHERE j." + DbHelper.KEY_OBAT_ID_FK + " = ? " +
+                    "AND e." + DbHelper.KEY_EVENT_TANGGAL + " BETWEEN ? AND ? " +
+                    "ORDER BY e." + DbHelper.KEY_EVENT_TANGGAL + " ASC, " + MINUTE_OF_DAY + " ASC";
+
+    private static final String SQL_SELECT_REQUEST_CODE =
+            "SELECT " + DbHelper.KEY_RC_REQUEST_CODE + " FROM " + DbHelper.TABLE_ALARM_REQUEST_CODE +
+                    " WHERE " + DbHelper.KEY_RC_JADWAL_ID + " = ?";
+
+    private static final String SQL_SELECT_JADWAL_ID_FOR_REQUEST_CODE =
+            "SELECT " + DbHelper.KEY_RC_JADWAL_ID + " FROM " + DbHelper.TABLE_ALARM_REQUEST_CODE +
+                    " WHERE " + DbHelper.KEY_RC_REQUEST_CODE + " = ?";
+
+    // Tanggal daily reset terakhir yang sudah tercatat di app_state (cache seluruh proses)
+    private static volatile String lastResetDateCache;
+
+    private final TodayScheduleCache todayCache = TodayScheduleCache.getInstance();
+    private final DataChangeNotifier changeNotifier = DataChangeNotifier.getInstance();
+
     private SQLiteDatabase database;
-    private DbHelper dbHelper;
+    private DatabaseManager databaseManager;
     private ObatHelper obatHelper;
     private Context context;
     private boolean isOpen = false;
 
     public JadwalHelper(@NonNull Context context) {
         this.context = context.getApplicationContext(); // Prevent memory leaks
-        this.dbHelper = new DbHelper(this.context);
+        this.databaseManager = DatabaseManager.getInstance(this.context);
         this.obatHelper = new ObatHelper(this.context);
     }
 
@@ -42,8 +220,8 @@ public class JadwalHelper {
     public synchronized void open() throws SQLiteException {
         if (!isOpen) {
             try {
-                database = dbHelper.getWritableDatabase();
-                obatHelper.open();
+                database = databaseManager.openDatabase();
+                obatHelper.open(); // Meminjam koneksi yang sama, tidak membuka file baru
                 isOpen = true;
                 Log.d(TAG, "Database opened successfully");
             } catch (SQLiteException e) {
@@ -62,8 +240,9 @@ public class JadwalHelper {
                 if (obatHelper != null) {
                     obatHelper.close();
                 }
-                if (database != null && database.isOpen()) {
-                    database.close();
+                if (database != null) {
+                    databaseManager.closeDatabase();
+                    database = null;
                 }
                 isOpen = false;
                 Log.d(TAG, "Database closed successfully");
@@ -85,41 +264,38 @@ public class JadwalHelper {
     // 🔑 =============== DAILY RESET FUNCTIONALITY ===============
 
     /**
-     * Get current date in YYYY-MM-DD format
+     * Get current date in YYYY-MM-DD format (format kolom tanggal di dose_event)
      */
-    private String getCurrentDate() {
+    @NonNull
+    public String getCurrentDate() {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
         return dateFormat.format(new Date());
     }
 
     /**
-     * Get current time in HH:mm format
-     */
-    private String getCurrentTime() {
-        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
-        return timeFormat.format(new Date());
-    }
-
-    /**
-     * Check dan perform daily reset jika perlu
-     * Call method ini setiap kali app dibuka
+     * Catat pergantian hari. Status harian tidak lagi di-reset dengan menulis ulang tabel jadwal:
+     * status hari ini dibaca dari dose_event untuk tanggal hari ini, jadi hari baru otomatis kosong.
+     * Pengecekan berulang di hari yang sama hanya membaca cache di memori.
      */
     public void checkAndPerformDailyReset() {
+        String today = getCurrentDate();
+
+        // Fast path: pergantian hari ini sudah tercatat di proses ini
+        if (today.equals(lastResetDateCache)) {
+            return;
+        }
+
         ensureDatabaseOpen();
 
         try {
-            String today = getCurrentDate();
-
-            // Check if reset sudah dilakukan hari ini
-            if (isResetAlreadyDoneToday(today)) {
-                Log.d(TAG, "Daily reset already performed today: " + today);
-                return;
+            if (!today.equals(getAppState(DbHelper.STATE_LAST_RESET_DATE))) {
+                putAppState(DbHelper.STATE_LAST_RESET_DATE, today);
+                Log.d(TAG, "Day rollover recorded for: " + today);
             }
 
-            // Perform reset
-            performDailyReset(today);
-
-            Log.d(TAG, "Daily reset completed for: " + today);
+            // Entri cache hari kemarin tidak berlaku lagi
+            todayCache.invalidateAll();
+            lastResetDateCache = today;
 
         } catch (Exception e) {
             Log.e(TAG, "Error in daily reset: " + e.getMessage(), e);
@@ -127,25 +303,19 @@ public class JadwalHelper {
     }
 
     /**
-     * Check apakah reset sudah dilakukan hari ini
+     * Baca nilai dari tabel app_state
      */
-    private boolean isResetAlreadyDoneToday(String today) {
+    @Nullable
+    private String getAppState(@NonNull String key) {
         Cursor cursor = null;
         try {
-            String query = "SELECT COUNT(*) FROM " + DbHelper.TABLE_JADWAL +
-                    " WHERE " + DbHelper.KEY_LAST_RESET_DATE + " = ?";
-            cursor = database.rawQuery(query, new String[]{today});
+            cursor = database.rawQuery(SQL_SELECT_APP_STATE, new String[]{key});
 
-            if (cursor != null && cursor.moveToFirst()) {
-                int count = cursor.getInt(0);
-                return count > 0; // Jika ada yang sudah direset hari ini
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getString(0);
             }
+            return null;
 
-            return false;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking reset status: " + e.getMessage(), e);
-            return false;
         } finally {
             if (cursor != null && !cursor.isClosed()) {
                 cursor.close();
@@ -154,111 +324,96 @@ public class JadwalHelper {
     }
 
     /**
-     * Perform daily reset - clear semua status dan update last_reset_date
+     * Simpan nilai ke tabel app_state
      */
-    private void performDailyReset(String today) {
-        try {
-            // Reset semua status ke BELUM_DIMINUM dan update last_reset_date
-            ContentValues values = new ContentValues();
-            values.put(DbHelper.KEY_STATUS, Jadwal.STATUS_BELUM_DIMINUM); // Reset ke 0
-            values.put(DbHelper.KEY_LAST_RESET_DATE, today);
-            values.putNull(DbHelper.KEY_JADWAL_TANGGAL_DIMINUM); // Clear tanggal diminum
-            values.putNull(DbHelper.KEY_JADWAL_CATATAN); // Clear catatan (optional)
-
-            int updatedRows = database.update(DbHelper.TABLE_JADWAL, values, null, null);
-
-            Log.d(TAG, "Daily reset: cleared status for " + updatedRows + " jadwal records");
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error performing daily reset: " + e.getMessage(), e);
-            throw e;
-        }
+    private void putAppState(@NonNull String key, @Nullable String value) {
+        ContentValues values = new ContentValues();
+        values.put(DbHelper.KEY_STATE_KEY, key);
+        values.put(DbHelper.KEY_STATE_VALUE, value);
+        database.insertWithOnConflict(DbHelper.TABLE_APP_STATE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
     }
 
     /**
-     * Auto-mark jadwal sebagai TERLEWAT jika sudah lewat 2 jam
+     * Auto-mark jadwal sebagai TERLEWAT jika sudah lewat 2 jam.
+     * Dosis hari ini yang belum punya dose_event dicatat sebagai terlewat;
+     * seluruh sweep hanya satu SELECT id + satu INSERT ... SELECT dalam satu transaksi.
+     * @return ID jadwal yang baru ditandai terlewat (untuk pembatalan alarm)
      */
-    public void autoMarkTerlewatJadwal() {
+    @NonNull
+    public List<Integer> autoMarkTerlewatJadwal() {
         ensureDatabaseOpen();
 
+        List<Integer> affectedIds = new ArrayList<>();
+        Cursor cursor = null;
+
         try {
-            String currentTime = getCurrentTime(); // Format: HH:mm
             String currentDate = getCurrentDate();
+            int batasMenit = getCurrentMinuteOfDay() - AUTO_TERLEWAT_MINUTES;
 
-            // Query jadwal yang belum diminum dan waktunya sudah lewat 2+ jam
-            String query = "SELECT " + DbHelper.KEY_JADWAL_ID + ", " + DbHelper.KEY_WAKTU +
-                    " FROM " + DbHelper.TABLE_JADWAL + " j " +
-                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK +
-                    " = o." + DbHelper.KEY_OBAT_ID +
-                    " WHERE j." + DbHelper.KEY_STATUS + " = ? " +
-                    "AND o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
-                    "AND (j." + DbHelper.KEY_LAST_RESET_DATE + " = ? OR j." + DbHelper.KEY_LAST_RESET_DATE + " IS NULL)";
-
-            Cursor cursor = database.rawQuery(query, new String[]{
-                    String.valueOf(Jadwal.STATUS_BELUM_DIMINUM), currentDate
-            });
+            if (batasMenit < 0) {
+                // Belum ada jadwal hari ini yang lewat 2 jam
+                return affectedIds;
+            }
 
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    int jadwalId = cursor.getInt(0);
-                    String waktuJadwal = cursor.getString(1);
+            String[] args = new String[]{
+                    currentDate,
+                    String.valueOf(ScheduleEncoding.todayBit()),
+                    String.valueOf(batasMenit)
+            };
 
-                    if (shouldAutoMarkTerlewat(waktuJadwal, currentTime)) {
-                        updateJadwalStatus(jadwalId, Jadwal.STATUS_TERLEWAT, "Auto terlewat - lewat 2 jam");
-                        Log.d(TAG, "Auto marked jadwal " + jadwalId + " as TERLEWAT");
-                    }
+            database.beginTransaction();
+            try {
+                cursor = database.rawQuery(SQL_SELECT_OVERDUE_IDS, args);
 
-                } while (cursor.moveToNext());
+                if (cursor != null && cursor.moveToFirst()) {
+                    do {
+                        affectedIds.add(cursor.getInt(0));
+                    } while (cursor.moveToNext());
+                }
+
+                if (!affectedIds.isEmpty()) {
+                    database.execSQL(SQL_INSERT_OVERDUE_EVENTS,
+                            new Object[]{currentDate, AUTO_TERLEWAT_CATATAN, args[0], args[1], args[2]});
+
+                    Log.d(TAG, "Auto marked " + affectedIds.size() + " jadwal as TERLEWAT: " + affectedIds);
+                }
+
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
             }
 
-            if (cursor != null && !cursor.isClosed()) {
-                cursor.close();
+            if (!affectedIds.isEmpty()) {
+                // Obat pemilik jadwal tidak diketahui di sini; sweep hanya menulis saat ada dosis yang lewat 2 jam
+                todayCache.invalidateAll(database);
+                changeNotifier.notifyChanged(database, DbHelper.TABLE_DOSE_EVENT);
             }
 
         } catch (Exception e) {
             Log.e(TAG, "Error auto marking terlewat: " + e.getMessage(), e);
+            affectedIds.clear();
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
         }
+
+        return affectedIds;
     }
 
     /**
-     * Check if jadwal should be auto-marked as terlewat
+     * Get current time as minutes since midnight
      */
-    private boolean shouldAutoMarkTerlewat(String waktuJadwal, String currentTime) {
-        try {
-            // Parse times
-            String[] jadwalParts = waktuJadwal.split(":");
-            String[] currentParts = currentTime.split(":");
-
-            int jadwalHour = Integer.parseInt(jadwalParts[0]);
-            int jadwalMinute = Integer.parseInt(jadwalParts[1]);
-            int currentHour = Integer.parseInt(currentParts[0]);
-            int currentMinute = Integer.parseInt(currentParts[1]);
-
-            // Convert to minutes since midnight
-            int jadwalMinutes = jadwalHour * 60 + jadwalMinute;
-            int currentMinutes = currentHour * 60 + currentMinute;
-
-            // Check if current time is 2+ hours (120 minutes) after jadwal time
-            int diffMinutes = currentMinutes - jadwalMinutes;
-
-            // Handle day transition (currentTime < jadwalTime bisa berarti besok)
-            if (diffMinutes < 0) {
-                diffMinutes += 24 * 60; // Add 24 hours in minutes
-            }
-
-            return diffMinutes >= 120; // 2 hours = 120 minutes
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking auto terlewat: " + e.getMessage(), e);
-            return false;
-        }
+    private int getCurrentMinuteOfDay() {
+        Calendar now = Calendar.getInstance();
+        return now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE);
     }
 
     /**
      * Get status untuk jadwal hari ini dengan daily reset logic
      */
     @Nullable
-    public String getJadwalStatusForToday(int jadwalId, String waktuJadwal) {
+    public String getJadwalStatusForToday(int jadwalId) {
         ensureDatabaseOpen();
 
         // Perform daily reset check
@@ -282,25 +437,20 @@ public class JadwalHelper {
             case Jadwal.STATUS_BELUM_DIMINUM:
             default:
                 // Calculate real-time status
-                return calculateRealTimeStatus(waktuJadwal);
+                return calculateRealTimeStatus(jadwal.getMinuteOfDay());
         }
     }
 
     /**
      * Calculate real-time status for belum diminum jadwal
      */
-    private String calculateRealTimeStatus(String waktuJadwal) {
+    private String calculateRealTimeStatus(int minuteOfDay) {
         try {
             Calendar now = Calendar.getInstance();
             Calendar jadwalTime = Calendar.getInstance();
 
-            // Parse waktu (format HH:mm)
-            String[] timeParts = waktuJadwal.split(":");
-            int hour = Integer.parseInt(timeParts[0]);
-            int minute = Integer.parseInt(timeParts[1]);
-
-            jadwalTime.set(Calendar.HOUR_OF_DAY, hour);
-            jadwalTime.set(Calendar.MINUTE, minute);
+            jadwalTime.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+            jadwalTime.set(Calendar.MINUTE, minuteOfDay % 60);
             jadwalTime.set(Calendar.SECOND, 0);
 
             long diffMillis = jadwalTime.getTimeInMillis() - now.getTimeInMillis();
@@ -347,21 +497,12 @@ public class JadwalHelper {
         ensureDatabaseOpen();
 
         try {
-            ContentValues values = new ContentValues();
-            values.put(DbHelper.KEY_OBAT_ID_FK, jadwal.getObatId());
-            values.put(DbHelper.KEY_HARI, jadwal.getHari().trim());
-            values.put(DbHelper.KEY_WAKTU, jadwal.getWaktu().trim());
-            values.put(DbHelper.KEY_STATUS, jadwal.getStatus());
-
-            if (jadwal.getCatatan() != null) {
-                values.put(DbHelper.KEY_JADWAL_CATATAN, jadwal.getCatatan().trim());
-            }
-
-            long result = database.insert(DbHelper.TABLE_JADWAL, null, values);
+            long result = insertJadwalRow(jadwal);
 
             if (result != -1) {
+                todayCache.invalidate(database, jadwal.getObatId());
+                changeNotifier.notifyChanged(database, DbHelper.TABLE_JADWAL);
                 Log.d(TAG, "Jadwal inserted successfully with ID: " + result);
-                jadwal.setId((int) result); // Set ID ke objek jadwal
             } else {
                 Log.e(TAG, "Failed to insert jadwal");
             }
@@ -377,6 +518,22 @@ public class JadwalHelper {
         }
     }
 
+    /**
+     * Insert satu baris jadwal dengan statement dari cache DatabaseManager (dipakai ulang saat batch)
+     */
+    private long insertJadwalRow(@NonNull Jadwal jadwal) {
+        long result = databaseManager.executeInsert(SQL_INSERT_JADWAL,
+                jadwal.getObatId(),
+                jadwal.getHari().trim(),
+                jadwal.getWaktu().trim(),
+                jadwal.getMinuteOfDay(),
+                jadwal.getDayMask());
+        if (result != -1) {
+            jadwal.setId((int) result);
+        }
+        return result;
+    }
+
     /**
      * Mendapatkan semua jadwal dengan informasi obat
      * @return List jadwal atau empty list jika tidak ada
@@ -386,13 +543,7 @@ public class JadwalHelper {
         ensureDatabaseOpen();
 
         try {
-            String selectQuery = "SELECT j.*, o.nama_obat, o.dosis_obat, o.aturan_minum, o.jenis_obat " +
-                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
-                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
-                    "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
-                    "ORDER BY j." + DbHelper.KEY_WAKTU + " ASC";
-
-            Cursor cursor = database.rawQuery(selectQuery, null);
+            Cursor cursor = database.rawQuery(SQL_SELECT_ALL_JADWAL, new String[]{getCurrentDate()});
             List<Jadwal> result = CursorHelper.cursorToJadwalList(cursor);
 
             Log.d(TAG, "Retrieved " + result.size() + " jadwal records");
@@ -422,14 +573,7 @@ public class JadwalHelper {
         ensureDatabaseOpen();
 
         try {
-            String selectQuery = "SELECT j.*, o.nama_obat, o.dosis_obat, o.aturan_minum, o.jenis_obat " +
-                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
-                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
-                    "WHERE j." + DbHelper.KEY_OBAT_ID_FK + " = ? AND o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
-                    "ORDER BY j." + DbHelper.KEY_WAKTU + " ASC";
-
-            Cursor cursor = database.rawQuery(selectQuery, new String[]{String.valueOf(obatId)});
-            List<Jadwal> result = CursorHelper.cursorToJadwalList(cursor);
+            List<Jadwal> result = queryJadwalByObatId(obatId, getCurrentDate());
 
             Log.d(TAG, "Retrieved " + result.size() + " jadwal for obat ID: " + obatId);
             return result;
@@ -443,19 +587,144 @@ public class JadwalHelper {
         }
     }
 
+    /**
+     * Semua jadwal obat dengan status hari ini, setelah reset harian dan sweep terlewat.
+     * Dilayani dari {@link TodayScheduleCache} tanpa menyentuh database selama belum ada tulisan,
+     * belum ganti hari, dan belum ada dosis yang akan ditandai terlewat oleh sweep.
+     * @param obatId ID obat
+     * @return List read-only terurut waktu (dipakai bersama lewat cache, jangan diubah)
+     */
+    @NonNull
+    public List<Jadwal> getJadwalObatHariIni(long obatId) {
+        if (obatId <= 0) {
+            Log.e(TAG, "Invalid obat ID: " + obatId);
+            return Collections.emptyList();
+        }
+
+        String tanggal = getCurrentDate();
+        List<Jadwal> cached = todayCache.get(tanggal, obatId, getCurrentMinuteOfDay());
+        if (cached != null) {
+            return cached;
+        }
+
+        ensureDatabaseOpen();
+
+        try {
+            checkAndPerformDailyReset();
+            autoMarkTerlewatJadwal();
+
+            // Versi diambil setelah sweep: tulisan lain sejak titik ini membatalkan penyimpanan hasil query
+            long version = todayCache.version();
+            List<Jadwal> result = queryJadwalByObatId(obatId, tanggal);
+            List<Jadwal> stored = todayCache.put(version, tanggal, obatId, result, getValidUntilMinute(result));
+
+            Log.d(TAG, "Loaded " + result.size() + " jadwal hari ini for obat ID: " + obatId + (stored != null ? " (cached)" : ""));
+            return stored != null ? stored : Collections.unmodifiableList(result);
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting jadwal hari ini by obat ID: " + e.getMessage(), e);
+            return Collections.emptyList();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error getting jadwal hari ini by obat ID: " + e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    private List<Jadwal> queryJadwalByObatId(long obatId, @NonNull String tanggal) {
+        Cursor cursor = database.rawQuery(SQL_SELECT_JADWAL_BY_OBAT, new String[]{tanggal, String.valueOf(obatId)});
+        return CursorHelper.cursorToJadwalList(cursor);
+    }
+
+    /**
+     * Menit pertama saat sweep terlewat akan mengubah salah satu status di list (dosis hari ini yang belum diminum)
+     * @return Menit sejak tengah malam, atau Integer.MAX_VALUE jika tidak ada lagi yang bisa berubah hari ini
+     */
+    private int getValidUntilMinute(@NonNull List<Jadwal> jadwalList) {
+        int today = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
+        int validUntil = Integer.MAX_VALUE;
+
+        for (Jadwal jadwal : jadwalList) {
+            if (jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM && jadwal.getMinuteOfDay() >= 0 &&
+                    jadwal.isScheduledOn(today)) {
+                validUntil = Math.min(validUntil, jadwal.getMinuteOfDay() + AUTO_TERLEWAT_MINUTES);
+            }
+        }
+        return validUntil;
+    }
+
     /**
      * Mendapatkan jadwal untuk hari ini
      * @return List jadwal hari ini
      */
     @NonNull
     public List<Jadwal> getJadwalHariIni() {
-        // Mendapatkan nama hari dalam bahasa Indonesia
-        String[] hariNames = {"Minggu", "Senin", "Selasa", "Rabu", "Kamis", "Jumat", "Sabtu"};
-        Calendar calendar = Calendar.getInstance();
-        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-        String hariIni = hariNames[dayOfWeek - 1]; // Calendar.SUNDAY = 1, dll
+        return getJadwalByDayMask(ScheduleEncoding.todayBit(), false); // Include daily schedules
+    }
 
-        return getJadwalByHari(hariIni, true); // Include daily schedules
+    /**
+     * Mendapatkan dosis hari ini yang masih menunggu (belum ada dose_event) dalam rentang menit,
+     * hanya untuk obat aktif yang stoknya masih ada
+     * @param fromMinute Menit awal sejak tengah malam (inklusif)
+     * @param toMinute Menit akhir sejak tengah malam (inklusif)
+     * @return List jadwal terurut waktu lalu ID
+     */
+    @NonNull
+    public List<Jadwal> getPendingJadwalHariIni(int fromMinute, int toMinute) {
+        ensureDatabaseOpen();
+
+        try {
+            Cursor cursor = database.rawQuery(SQL_SELECT_PENDING_TODAY, new String[]{
+                    getCurrentDate(),
+                    String.valueOf(ScheduleEncoding.todayBit()),
+                    String.valueOf(fromMinute),
+                    String.valueOf(toMinute)
+            });
+            List<Jadwal> result = CursorHelper.cursorToJadwalList(cursor);
+
+            Log.d(TAG, "Retrieved " + result.size() + " pending jadwal between minute " + fromMinute + " and " + toMinute);
+            return result;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting pending jadwal: " + e.getMessage(), e);
+            return new ArrayList<>();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error getting pending jadwal: " + e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Mendapatkan menit dosis hari ini berikutnya yang masih menunggu
+     * @param afterMinute Menit sejak tengah malam; hanya dosis setelah menit ini yang dihitung
+     * @return Menit sejak tengah malam, atau -1 jika tidak ada lagi dosis hari ini
+     */
+    public int getNextPendingMinuteOfDay(int afterMinute) {
+        ensureDatabaseOpen();
+
+        Cursor cursor = null;
+        try {
+            cursor = database.rawQuery(SQL_SELECT_NEXT_PENDING_MINUTE, new String[]{
+                    getCurrentDate(),
+                    String.valueOf(ScheduleEncoding.todayBit()),
+                    String.valueOf(afterMinute)
+            });
+
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getInt(0);
+            }
+            return -1;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting next pending minute: " + e.getMessage(), e);
+            return -1;
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error getting next pending minute: " + e.getMessage(), e);
+            return -1;
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+        }
     }
 
     /**
@@ -466,34 +735,33 @@ public class JadwalHelper {
      */
     @NonNull
     public List<Jadwal> getJadwalByHari(@NonNull String hari, boolean includeDaily) {
-        if (hari == null || hari.trim().isEmpty()) {
-            Log.e(TAG, "Invalid hari parameter");
+        int dayMask = ScheduleEncoding.dayMaskOf(hari);
+        if (dayMask == ScheduleEncoding.MASK_NONE) {
+            Log.e(TAG, "Invalid hari parameter: " + hari);
             return new ArrayList<>();
         }
 
+        // Jadwal harian hanya ikut jika diminta; "daily" sendiri selalu berarti jadwal harian saja
+        boolean exact = !includeDaily || dayMask == ScheduleEncoding.MASK_EVERY_DAY;
+        return getJadwalByDayMask(dayMask, exact);
+    }
+
+    /**
+     * Jadwal obat aktif berdasarkan day_mask, terurut waktu
+     * @param dayMask Bitmask hari yang dicari
+     * @param exact true: day_mask harus sama persis; false: cukup memuat salah satu bit (termasuk jadwal harian)
+     */
+    @NonNull
+    private List<Jadwal> getJadwalByDayMask(int dayMask, boolean exact) {
         ensureDatabaseOpen();
 
         try {
-            String selectQuery = "SELECT j.*, o.nama_obat, o.dosis_obat, o.aturan_minum, o.jenis_obat " +
-                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
-                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
-                    "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 AND (";
-
-            List<String> params = new ArrayList<>();
-
-            if (includeDaily) {
-                selectQuery += "j." + DbHelper.KEY_HARI + " = 'daily' OR ";
-            }
+            String selectQuery = exact ? SQL_SELECT_JADWAL_BY_DAY_MASK : SQL_SELECT_JADWAL_MATCHING_DAY_MASK;
 
-            selectQuery += "j." + DbHelper.KEY_HARI + " = ?) " +
-                    "ORDER BY j." + DbHelper.KEY_WAKTU + " ASC";
-
-            params.add(hari.trim());
-
-            Cursor cursor = database.rawQuery(selectQuery, params.toArray(new String[0]));
+            Cursor cursor = database.rawQuery(selectQuery, new String[]{getCurrentDate(), String.valueOf(dayMask)});
             List<Jadwal> result = CursorHelper.cursorToJadwalList(cursor);
 
-            Log.d(TAG, "Retrieved " + result.size() + " jadwal for hari: " + hari);
+            Log.d(TAG, "Retrieved " + result.size() + " jadwal for day mask: " + dayMask);
             return result;
 
         } catch (SQLException e) {
@@ -531,6 +799,17 @@ public class JadwalHelper {
      */
     @Nullable
     public Jadwal getJadwalById(long jadwalId) {
+        return getJadwalById(jadwalId, getCurrentDate());
+    }
+
+    /**
+     * Mendapatkan jadwal berdasarkan ID dengan status dosis pada tanggal tertentu
+     * @param jadwalId ID jadwal yang dicari
+     * @param tanggal Tanggal dosis (YYYY-MM-DD)
+     * @return Objek jadwal atau null jika tidak ditemukan
+     */
+    @Nullable
+    public Jadwal getJadwalById(long jadwalId, @NonNull String tanggal) {
         if (jadwalId <= 0) {
             Log.e(TAG, "Invalid jadwal ID: " + jadwalId);
             return null;
@@ -540,12 +819,7 @@ public class JadwalHelper {
 
         Cursor cursor = null;
         try {
-            String selectQuery = "SELECT j.*, o.nama_obat, o.dosis_obat, o.aturan_minum, o.jenis_obat " +
-                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
-                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
-                    "WHERE j." + DbHelper.KEY_JADWAL_ID + " = ? AND o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1";
-
-            cursor = database.rawQuery(selectQuery, new String[]{String.valueOf(jadwalId)});
+            cursor = database.rawQuery(SQL_SELECT_JADWAL_BY_ID, new String[]{tanggal, String.valueOf(jadwalId)});
 
             Jadwal jadwal = null;
             if (cursor != null && cursor.moveToFirst()) {
@@ -581,13 +855,25 @@ public class JadwalHelper {
     }
 
     /**
-     * Update status jadwal dengan catatan
+     * Update status jadwal hari ini dengan catatan (dicatat di dose_event)
      * @param jadwalId ID jadwal yang akan diupdate
      * @param status Status baru
      * @param catatan Catatan tambahan
      * @return Jumlah row yang teraffect
      */
     public int updateJadwalStatus(long jadwalId, int status, @Nullable String catatan) {
+        return updateJadwalStatus(jadwalId, status, catatan, getCurrentDate());
+    }
+
+    /**
+     * Update status dosis jadwal pada tanggal tertentu (contoh: aksi notifikasi yang diketuk setelah tengah malam)
+     * @param jadwalId ID jadwal yang akan diupdate
+     * @param status Status baru
+     * @param catatan Catatan tambahan
+     * @param tanggal Tanggal dosis (YYYY-MM-DD)
+     * @return Jumlah row yang teraffect
+     */
+    public int updateJadwalStatus(long jadwalId, int status, @Nullable String catatan, @NonNull String tanggal) {
         if (jadwalId <= 0) {
             Log.e(TAG, "Invalid jadwal ID for status update: " + jadwalId);
             return 0;
@@ -598,60 +884,136 @@ public class JadwalHelper {
             return 0;
         }
 
+        // Sudah diminum: status, waktu minum dan stok dalam satu transaksi
+        if (status == Jadwal.STATUS_SUDAH_DIMINUM) {
+            return recordDoseTaken(jadwalId, tanggal, catatan) != RECORD_DOSE_GAGAL ? 1 : 0;
+        }
+
         ensureDatabaseOpen();
 
         try {
-            // Get current jadwal to check previous status
-            Jadwal currentJadwal = getJadwalById(jadwalId);
-            if (currentJadwal == null) {
+            Jadwal jadwal = getJadwalById(jadwalId, tanggal);
+            if (jadwal == null) {
                 Log.e(TAG, "Jadwal not found for status update. ID: " + jadwalId);
                 return 0;
             }
 
-            ContentValues values = new ContentValues();
-            values.put(DbHelper.KEY_STATUS, status);
-
-            if (catatan != null) {
-                values.put(DbHelper.KEY_JADWAL_CATATAN, catatan.trim());
+            // Status disimpan sebagai dose_event tanggal tersebut; baris jadwal tidak diubah.
+            // 🔑 Belum diminum = tidak ada event, supaya query pending/next-due/terlewat tetap melihatnya
+            if (status == Jadwal.STATUS_BELUM_DIMINUM) {
+                databaseManager.executeUpdateDelete(SQL_DELETE_DOSE_EVENT, jadwalId, tanggal);
+            } else {
+                databaseManager.executeUpdateDelete(SQL_UPSERT_DOSE_EVENT,
+                        jadwalId,
+                        tanggal,
+                        status,
+                        null,
+                        catatan != null ? catatan.trim() : null);
             }
+            todayCache.invalidate(database, jadwal.getObatId());
+            changeNotifier.notifyChanged(database, DbHelper.TABLE_DOSE_EVENT);
+            Log.d(TAG, "Jadwal status updated successfully. ID: " + jadwalId + ", Status: " + status);
 
-            // Set tanggal diminum jika status berubah ke sudah diminum
-            if (status == Jadwal.STATUS_SUDAH_DIMINUM) {
-                long currentTimestamp = System.currentTimeMillis() / 1000; // Unix timestamp
-                values.put(DbHelper.KEY_JADWAL_TANGGAL_DIMINUM, currentTimestamp);
-            }
+            return 1;
 
-            int rowsAffected = database.update(
-                    DbHelper.TABLE_JADWAL,
-                    values,
-                    DbHelper.KEY_JADWAL_ID + " = ?",
-                    new String[]{String.valueOf(jadwalId)});
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error updating jadwal status: " + e.getMessage(), e);
+            return 0;
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error updating jadwal status: " + e.getMessage(), e);
+            return 0;
+        }
+    }
 
-            if (rowsAffected > 0) {
-                Log.d(TAG, "Jadwal status updated successfully. ID: " + jadwalId + ", Status: " + status);
+    /**
+     * Tandai dosis sudah diminum
+     * @see #recordDoseTaken(long, String, String)
+     */
+    public int recordDoseTaken(long jadwalId, @NonNull String tanggal) {
+        return recordDoseTaken(jadwalId, tanggal, null);
+    }
 
-                // Kurangi stok obat jika status berubah menjadi sudah diminum
-                // dan sebelumnya belum diminum
-                if (status == Jadwal.STATUS_SUDAH_DIMINUM &&
-                        currentJadwal.getStatus() != Jadwal.STATUS_SUDAH_DIMINUM) {
+    /**
+     * Tandai dosis sudah diminum, simpan waktu minum dan kurangi stok satu dosis dalam satu transaksi.
+     * Dosis yang sudah tercatat diminum tidak mengurangi stok lagi. Stok yang kurang tidak menghalangi
+     * pencatatan (sering karena restock belum diinput): stok dijadikan 0 dan dilaporkan terpisah.
+     * @param jadwalId ID jadwal
+     * @param tanggal Tanggal dosis (YYYY-MM-DD)
+     * @param catatan Catatan tambahan
+     * @return Stok obat setelah dosis dicatat (untuk peringatan stok rendah),
+     *         {@link #RECORD_DOSE_STOK_TIDAK_CUKUP} jika dosis tercatat tetapi stok kurang dari satu dosis,
+     *         atau {@link #RECORD_DOSE_GAGAL} jika tidak ada yang dicatat
+     */
+    public int recordDoseTaken(long jadwalId, @NonNull String tanggal, @Nullable String catatan) {
+        if (jadwalId <= 0) {
+            Log.e(TAG, "Invalid jadwal ID for dose taken: " + jadwalId);
+            return RECORD_DOSE_GAGAL;
+        }
 
-                    boolean stockReduced = obatHelper.kurangiJumlahObat(currentJadwal.getObatId());
-                    if (!stockReduced) {
-                        Log.w(TAG, "Failed to reduce stock for obat ID: " + currentJadwal.getObatId());
-                    }
+        ensureDatabaseOpen();
+
+        Cursor cursor = null;
+        long obatId = -1;
+        boolean shortfall = false;
+        boolean committed = false;
+        database.beginTransaction();
+        try {
+            cursor = database.rawQuery(SQL_SELECT_DOSE_STOCK_STATE, new String[]{tanggal, String.valueOf(jadwalId)});
+            if (cursor == null || !cursor.moveToFirst()) {
+                Log.e(TAG, "Jadwal not found for dose taken. ID: " + jadwalId);
+                return RECORD_DOSE_GAGAL;
+            }
+
+            obatId = cursor.getLong(0);
+            boolean alreadyTaken = !cursor.isNull(1) && cursor.getInt(1) == Jadwal.STATUS_SUDAH_DIMINUM;
+            int stock = cursor.getInt(2);
+            int dosis = cursor.getInt(3);
+            cursor.close();
+
+            if (!alreadyTaken) {
+                databaseManager.executeUpdateDelete(SQL_UPSERT_DOSE_EVENT,
+                        jadwalId,
+                        tanggal,
+                        Jadwal.STATUS_SUDAH_DIMINUM,
+                        System.currentTimeMillis() / 1000, // Unix timestamp
+                        catatan != null ? catatan.trim() : null);
+
+                // Koneksi dan transaksi yang sama (ObatHelper meminjam koneksi dari DatabaseManager).
+                // 🔑 Dosis tetap di-commit walau stok tidak bisa dikurangi (dosis tidak valid)
+                if (obatHelper.kurangiJumlahObatMinNol(obatId)) {
+                    shortfall = stock < dosis;
+                    stock = Math.max(stock - dosis, 0);
+                } else {
+                    Log.w(TAG, "Stock not reduced for obat ID: " + obatId + ", Dose: " + dosis);
                 }
-            } else {
-                Log.w(TAG, "No rows updated for jadwal ID: " + jadwalId);
             }
 
-            return rowsAffected;
+            database.setTransactionSuccessful();
+            committed = true;
+            if (shortfall) {
+                Log.w(TAG, "Dose taken with insufficient stock, stock set to 0. Jadwal ID: " + jadwalId + ", Obat ID: " + obatId);
+                return RECORD_DOSE_STOK_TIDAK_CUKUP;
+            }
+            Log.d(TAG, "Dose taken recorded. Jadwal ID: " + jadwalId + ", Tanggal: " + tanggal + ", Stock: " + stock);
+            return stock;
 
         } catch (SQLException e) {
-            Log.e(TAG, "SQL error updating jadwal status: " + e.getMessage(), e);
-            return 0;
+            Log.e(TAG, "SQL error recording dose taken: " + e.getMessage(), e);
+            return RECORD_DOSE_GAGAL;
         } catch (Exception e) {
-            Log.e(TAG, "Unexpected error updating jadwal status: " + e.getMessage(), e);
-            return 0;
+            Log.e(TAG, "Unexpected error recording dose taken: " + e.getMessage(), e);
+            return RECORD_DOSE_GAGAL;
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+            database.endTransaction();
+
+            // Setelah commit, supaya pembaca lain tidak mengisi ulang cache dengan status lama
+            if (committed) {
+                todayCache.invalidate(database, obatId);
+                changeNotifier.notifyChanged(database, DbHelper.TABLE_DOSE_EVENT, DbHelper.TABLE_OBAT);
+            }
         }
     }
 
@@ -683,11 +1045,10 @@ public class JadwalHelper {
             values.put(DbHelper.KEY_OBAT_ID_FK, jadwal.getObatId());
             values.put(DbHelper.KEY_HARI, jadwal.getHari().trim());
             values.put(DbHelper.KEY_WAKTU, jadwal.getWaktu().trim());
-            values.put(DbHelper.KEY_STATUS, jadwal.getStatus());
-
-            if (jadwal.getCatatan() != null) {
-                values.put(DbHelper.KEY_JADWAL_CATATAN, jadwal.getCatatan().trim());
-            }
+            values.put(DbHelper.KEY_MINUTE_OF_DAY, jadwal.getMinuteOfDay());
+            values.put(DbHelper.KEY_DAY_MASK, jadwal.getDayMask());
+            values.put(DbHelper.KEY_JADWAL_TANGGAL_DIPERBARUI, System.currentTimeMillis() / 1000);
+            // Status/catatan jadwal adalah nilai hari ini dari dose_event, jadi tidak ditulis ke baris jadwal
 
             int rowsAffected = database.update(
                     DbHelper.TABLE_JADWAL,
@@ -696,6 +1057,9 @@ public class JadwalHelper {
                     new String[]{String.valueOf(jadwal.getId())});
 
             if (rowsAffected > 0) {
+                // obat_id bisa ikut berubah, jadi obat lama tidak diketahui
+                todayCache.invalidateAll(database);
+                changeNotifier.notifyChanged(database, DbHelper.TABLE_JADWAL);
                 Log.d(TAG, "Jadwal updated successfully. ID: " + jadwal.getId());
             } else {
                 Log.w(TAG, "No rows updated for jadwal ID: " + jadwal.getId());
@@ -732,6 +1096,9 @@ public class JadwalHelper {
                     new String[]{String.valueOf(jadwalId)});
 
             if (rowsAffected > 0) {
+                todayCache.invalidateAll(database);
+                // dose_event ikut terhapus lewat ON DELETE CASCADE
+                changeNotifier.notifyChanged(database, DbHelper.TABLE_JADWAL, DbHelper.TABLE_DOSE_EVENT);
                 Log.d(TAG, "Jadwal deleted successfully. ID: " + jadwalId);
                 return true;
             } else {
@@ -762,11 +1129,12 @@ public class JadwalHelper {
         ensureDatabaseOpen();
 
         try {
-            int rowsAffected = database.delete(
-                    DbHelper.TABLE_JADWAL,
-                    DbHelper.KEY_OBAT_ID_FK + " = ?",
-                    new String[]{String.valueOf(obatId)});
+            int rowsAffected = databaseManager.executeUpdateDelete(SQL_DELETE_JADWAL_BY_OBAT, obatId);
 
+            if (rowsAffected > 0) {
+                todayCache.invalidate(database, obatId);
+                changeNotifier.notifyChanged(database, DbHelper.TABLE_JADWAL, DbHelper.TABLE_DOSE_EVENT);
+            }
             Log.d(TAG, "Deleted " + rowsAffected + " jadwal for obat ID: " + obatId);
             return rowsAffected;
 
@@ -787,23 +1155,11 @@ public class JadwalHelper {
     public List<Jadwal> getJadwalTerlewat() {
         List<Jadwal> jadwalHariIni = getJadwalHariIni();
         List<Jadwal> jadwalTerlewat = new ArrayList<>();
-
-        Calendar now = Calendar.getInstance();
-        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
-        String currentTime = timeFormat.format(now.getTime());
+        int currentMinute = getCurrentMinuteOfDay();
 
         for (Jadwal jadwal : jadwalHariIni) {
-            if (jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM) {
-                try {
-                    Date waktuJadwal = timeFormat.parse(jadwal.getWaktu());
-                    Date waktuSekarang = timeFormat.parse(currentTime);
-
-                    if (waktuSekarang.after(waktuJadwal)) {
-                        jadwalTerlewat.add(jadwal);
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error parsing time for jadwal: " + jadwal.getWaktu(), e);
-                }
+            if (jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM && jadwal.getMinuteOfDay() < currentMinute) {
+                jadwalTerlewat.add(jadwal);
             }
         }
 
@@ -820,13 +1176,7 @@ public class JadwalHelper {
         ensureDatabaseOpen();
 
         try {
-            String query = "SELECT " + DbHelper.KEY_STATUS + ", COUNT(*) as count " +
-                    "FROM " + DbHelper.TABLE_JADWAL + " j " +
-                    "INNER JOIN " + DbHelper.TABLE_OBAT + " o ON j." + DbHelper.KEY_OBAT_ID_FK + " = o." + DbHelper.KEY_OBAT_ID + " " +
-                    "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
-                    "GROUP BY " + DbHelper.KEY_STATUS;
-
-            Cursor cursor = database.rawQuery(query, null);
+            Cursor cursor = database.rawQuery(SQL_SELECT_STATUS_COUNTS, new String[]{getCurrentDate()});
 
             int[] stats = new int[4]; // [total, sudah_diminum, belum_diminum, terlewat]
 
@@ -862,6 +1212,154 @@ public class JadwalHelper {
         }
     }
 
+    /**
+     * Mendapatkan riwayat dosis suatu obat dalam rentang tanggal (inklusif)
+     * @param obatId ID obat
+     * @param fromDate Tanggal awal (YYYY-MM-DD)
+     * @param toDate Tanggal akhir (YYYY-MM-DD)
+     * @return List dose_event terurut tanggal, atau empty list jika tidak ada
+     */
+    @NonNull
+    public List<DoseEvent> getDoseHistory(long obatId, @NonNull String fromDate, @NonNull String toDate) {
+        if (obatId <= 0) {
+            Log.e(TAG, "Invalid obat ID for dose history: " + obatId);
+            return new ArrayList<>();
+        }
+
+        ensureDatabaseOpen();
+
+        try {
+            Cursor cursor = database.rawQuery(SQL_SELECT_DOSE_HISTORY, new String[]{String.valueOf(obatId), fromDate, toDate});
+            List<DoseEvent> result = CursorHelper.cursorToList(cursor, new DoseEventRowMapper(cursor));
+
+            Log.d(TAG, "Retrieved " + result.size() + " dose events for obat ID: " + obatId);
+            return result;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting dose history: " + e.getMessage(), e);
+            return new ArrayList<>();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error getting dose history: " + e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    // 🔑 =============== ALARM REQUEST CODE ===============
+
+    /**
+     * Mendapatkan request code alarm untuk jadwal; dialokasikan sekali lalu dipakai seterusnya
+     * @param jadwalId ID jadwal
+     * @return Request code (>= DbHelper.FIRST_ALLOCATED_REQUEST_CODE), atau -1 jika gagal
+     */
+    public int getOrAllocateRequestCode(int jadwalId) {
+        Integer requestCode = getOrAllocateRequestCodes(Collections.singletonList(jadwalId)).get(jadwalId);
+        return requestCode != null ? requestCode : -1;
+    }
+
+    /**
+     * Batch version dari getOrAllocateRequestCode dalam satu transaksi
+     * @param jadwalIds ID jadwal
+     * @return Map ID jadwal ke request code (jadwal yang gagal dialokasikan tidak ada di map)
+     */
+    @NonNull
+    public Map<Integer, Integer> getOrAllocateRequestCodes(@NonNull List<Integer> jadwalIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (jadwalIds.isEmpty()) {
+            return result;
+        }
+
+        ensureDatabaseOpen();
+
+        database.beginTransaction();
+        try {
+            for (Integer jadwalId : jadwalIds) {
+                if (jadwalId == null || jadwalId <= 0 || result.containsKey(jadwalId)) {
+                    continue;
+                }
+
+                int requestCode = getRequestCode(jadwalId);
+                if (requestCode == -1) {
+                    ContentValues values = new ContentValues();
+                    values.put(DbHelper.KEY_RC_JADWAL_ID, jadwalId);
+                    long rowId = database.insert(DbHelper.TABLE_ALARM_REQUEST_CODE, null, values);
+
+                    if (rowId <= 0 || rowId > Integer.MAX_VALUE) {
+                        Log.e(TAG, "Failed to allocate request code for jadwal ID: " + jadwalId + " (row: " + rowId + ")");
+                        continue;
+                    }
+                    requestCode = (int) rowId;
+                    Log.d(TAG, "Allocated request code " + requestCode + " for jadwal ID: " + jadwalId);
+                }
+
+                result.put(jadwalId, requestCode);
+            }
+
+            database.setTransactionSuccessful();
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error allocating request codes: " + e.getMessage(), e);
+            result.clear();
+        } finally {
+            database.endTransaction();
+        }
+
+        return result;
+    }
+
+    /**
+     * Mendapatkan request code yang sudah dialokasikan untuk jadwal (tanpa mengalokasikan baru)
+     * @param jadwalId ID jadwal
+     * @return Request code, atau -1 jika belum dialokasikan
+     */
+    public int getRequestCode(long jadwalId) {
+        ensureDatabaseOpen();
+
+        Cursor cursor = null;
+        try {
+            cursor = database.rawQuery(SQL_SELECT_REQUEST_CODE, new String[]{String.valueOf(jadwalId)});
+
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+            return -1;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting request code: " + e.getMessage(), e);
+            return -1;
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Reverse lookup: jadwal pemilik request code alarm
+     * @param requestCode Request code dari alarm
+     * @return ID jadwal, atau -1 jika request code tidak dikenal (jadwal sudah dihapus)
+     */
+    public int getJadwalIdForRequestCode(int requestCode) {
+        ensureDatabaseOpen();
+
+        Cursor cursor = null;
+        try {
+            cursor = database.rawQuery(SQL_SELECT_JADWAL_ID_FOR_REQUEST_CODE, new String[]{String.valueOf(requestCode)});
+
+            if (cursor != null && cursor.moveToFirst()) {
+                return cursor.getInt(0);
+            }
+            return -1;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting jadwal for request code: " + e.getMessage(), e);
+            return -1;
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+        }
+    }
+
     /**
      * Mengecek apakah database terbuka
      * @return true jika database terbuka
@@ -871,7 +1369,9 @@ public class JadwalHelper {
     }
 
     /**
-     * Batch insert untuk multiple jadwal
+     * Batch insert untuk multiple jadwal. Sendiri: baris yang gagal dilewati dan sisanya tetap disimpan.
+     * Di dalam transaksi pemanggil (mis. ObatRepository): baris yang gagal melempar SQLException
+     * sehingga pemanggil me-rollback semuanya.
      * @param jadwalList List jadwal yang akan disimpan
      * @return Jumlah jadwal yang berhasil disimpan
      */
@@ -883,15 +1383,27 @@ public class JadwalHelper {
 
         ensureDatabaseOpen();
 
+        boolean nested = database.inTransaction();
         database.beginTransaction();
         int successCount = 0;
+        Set<Integer> obatIds = new HashSet<>();
 
         try {
+            // Satu prepared statement untuk semua baris dalam satu transaksi
             for (Jadwal jadwal : jadwalList) {
-                if (jadwal != null && jadwal.isValid()) {
-                    long result = tambahJadwal(jadwal);
-                    if (result != -1) {
+                if (jadwal == null || !jadwal.isValid()) {
+                    continue;
+                }
+                try {
+                    if (insertJadwalRow(jadwal) != -1) {
                         successCount++;
+                        obatIds.add(jadwal.getObatId());
+                    }
+                } catch (SQLException e) {
+                    Log.e(TAG, "SQL error inserting jadwal in batch: " + e.getMessage(), e);
+                    // 🔑 Jangan commit sebagian di dalam transaksi pemanggil
+                    if (nested) {
+                        throw e;
                     }
                 }
             }
@@ -899,12 +1411,24 @@ public class JadwalHelper {
             database.setTransactionSuccessful();
             Log.d(TAG, "Batch insert completed. Success: " + successCount + "/" + jadwalList.size());
 
+        } catch (SQLException e) {
+            if (nested) {
+                throw e;
+            }
+            Log.e(TAG, "SQL error in batch insert: " + e.getMessage(), e);
         } catch (Exception e) {
             Log.e(TAG, "Error in batch insert: " + e.getMessage(), e);
         } finally {
             database.endTransaction();
         }
 
+        for (Integer obatId : obatIds) {
+            todayCache.invalidate(database, obatId);
+        }
+        if (successCount > 0) {
+            changeNotifier.notifyChanged(database, DbHelper.TABLE_JADWAL);
+        }
+
         return successCount;
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.example.medremind.data.helper;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.medremind.data.model.Jadwal;
+
+import java.util.Date;
+
+/**
+ * RowMapper untuk tabel jadwal. Index kolom dicari sekali per cursor;
+ * kolom yang tidak ada di projection query dilewati (index -1),
+ * termasuk kolom obat dari JOIN.
+ */
+public class JadwalRowMapper implements RowMapper<Jadwal> {
+    private static final String TAG = "JadwalRowMapper";
+
+    private final int idxId;
+    private final int idxObatId;
+    private final int idxHari;
+    private final int idxWaktu;
+    private final int idxMinuteOfDay;
+    private final int idxDayMask;
+    private final int idxStatus;
+    private final int idxCatatan;
+    private final int idxLastResetDate;
+    private final int idxTanggalDibuat;
+    private final int idxTanggalDiperbarui;
+    private final int idxTanggalDiminum;
+
+    // Kolom obat dari JOIN
+    private final int idxNamaObat;
+    private final int idxDosisObat;
+    private final int idxAturanMinum;
+    private final int idxJenisObat;
+    private final int idxJumlahObat;
+
+    public JadwalRowMapper(@NonNull Cursor cursor) {
+        idxId = cursor.getColumnIndex(DbHelper.KEY_JADWAL_ID);
+        idxObatId = cursor.getColumnIndex(DbHelper.KEY_OBAT_ID_FK);
+        idxHari = cursor.getColumnIndex(DbHelper.KEY_HARI);
+        idxWaktu = cursor.getColumnIndex(DbHelper.KEY_WAKTU);
+        idxMinuteOfDay = cursor.getColumnIndex(DbHelper.KEY_MINUTE_OF_DAY);
+        idxDayMask = cursor.getColumnIndex(DbHelper.KEY_DAY_MASK);
+        idxStatus = cursor.getColumnIndex(DbHelper.KEY_STATUS);
+        idxCatatan = cursor.getColumnIndex(DbHelper.KEY_JADWAL_CATATAN);
+        idxLastResetDate = cursor.getColumnIndex(DbHelper.KEY_LAST_RESET_DATE);
+        idxTanggalDibuat = cursor.getColumnIndex(DbHelper.KEY_JADWAL_TANGGAL_DIBUAT);
+        idxTanggalDiperbarui = cursor.getColumnIndex(DbHelper.KEY_JADWAL_TANGGAL_DIPERBARUI);
+        idxTanggalDiminum = cursor.getColumnIndex(DbHelper.KEY_JADWAL_TANGGAL_DIMINUM);
+
+        idxNamaObat = cursor.getColumnIndex(DbHelper.KEY_NAMA_OBAT);
+        idxDosisObat = cursor.getColumnIndex(DbHelper.KEY_DOSIS_OBAT);
+        idxAturanMinum = cursor.getColumnIndex(DbHelper.KEY_ATURAN_MINUM);
+        idxJenisObat = cursor.getColumnIndex(DbHelper.KEY_JENIS_OBAT);
+        idxJumlahObat = cursor.getColumnIndex(DbHelper.KEY_JUMLAH_OBAT);
+    }
+
+    @Nullable
+    @Override
+    public Jadwal mapRow(@NonNull Cursor cursor) {
+        try {
+            Jadwal jadwal = new Jadwal();
+
+            if (idxId != -1) {
+                jadwal.setId(CursorHelper.getInt(cursor, idxId, 0));
+            }
+            if (idxObatId != -1) {
+                jadwal.setObatId(CursorHelper.getInt(cursor, idxObatId, 0));
+            }
+            if (idxMinuteOfDay != -1 && idxDayMask != -1) {
+                // 🔑 Encoding dari kolom integer, tanpa parse "HH:mm" / cocokkan nama hari per baris
+                jadwal.setStoredSchedule(
+                        CursorHelper.getString(cursor, idxHari, ""),
+                        CursorHelper.getString(cursor, idxWaktu, ""),
+                        CursorHelper.getInt(cursor, idxDayMask, 0),
+                        CursorHelper.getInt(cursor, idxMinuteOfDay, -1));
+            } else {
+                if (idxHari != -1) {
+                    jadwal.setHari(CursorHelper.getString(cursor, idxHari, ""));
+                }
+                if (idxWaktu != -1) {
+                    jadwal.setWaktu(CursorHelper.getString(cursor, idxWaktu, ""));
+                }
+            }
+            if (idxStatus != -1) {
+                jadwal.setStatus(CursorHelper.getInt(cursor, idxStatus, 0));
+            }
+            if (idxCatatan != -1) {
+                jadwal.setCatatan(CursorHelper.getString(cursor, idxCatatan, null));
+            }
+            if (idxLastResetDate != -1) {
+                jadwal.setLastResetDate(CursorHelper.getString(cursor, idxLastResetDate, null));
+            }
+
+            // Set timestamp jika ada
+            long tanggalDibuat = CursorHelper.getLong(cursor, idxTanggalDibuat, 0);
+            if (tanggalDibuat > 0) {
+                jadwal.setTanggalDibuat(new Date(tanggalDibuat * 1000));
+            }
+
+            long tanggalDiperbarui = CursorHelper.getLong(cursor, idxTanggalDiperbarui, 0);
+            if (tanggalDiperbarui > 0) {
+                jadwal.setTanggalDiperbarui(new Date(tanggalDiperbarui * 1000));
+            }
+
+            long tanggalDiminum = CursorHelper.getLong(cursor, idxTanggalDiminum, 0);
+            if (tanggalDiminum > 0) {
+                jadwal.setTanggalDiminum(new Date(tanggalDiminum * 1000));
+            }
+
+            // Informasi obat terkait hanya jika query memilih kolom JOIN
+            if (idxNamaObat != -1) {
+                String namaObat = CursorHelper.getString(cursor, idxNamaObat, null);
+                if (namaObat != null) {
+                    jadwal.setTambahan("namaObat", namaObat);
+                    jadwal.setTambahan("dosisObat", CursorHelper.getString(cursor, idxDosisObat, ""));
+                    jadwal.setTambahan("aturanMinum", CursorHelper.getString(cursor, idxAturanMinum, ""));
+                    jadwal.setTambahan("jenisObat", CursorHelper.getString(cursor, idxJenisObat, ""));
+                    if (idxJumlahObat != -1) {
+                        jadwal.setTambahan("jumlahObat", String.valueOf(CursorHelper.getInt(cursor, idxJumlahObat, 0)));
+                    }
+                }
+            }
+
+            return jadwal;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error mapping row to Jadwal: " + e.getMessage(), e);
+            return null;
+        }
+    }
+}
@@ -18,14 +18,82 @@ import java.util.List;
 public class ObatHelper {
     private static final String TAG = "ObatHelper";
 
+    // Setiap UPDATE obat ikut mengisi tanggal_diperbarui (tidak ada trigger lagi)
+    private static final String SET_TANGGAL_DIPERBARUI =
+            ", " + DbHelper.KEY_OBAT_TANGGAL_DIPERBARUI + " = " + DbHelper.SQL_NOW_EPOCH + " ";
+
+    // 🔑 Perubahan stok dalam satu UPDATE atomik; rows affected = berhasil/gagal
+    // args: jumlah, obat_id, jumlah
+    private static final String SQL_KURANGI_STOK =
+            "UPDATE " + DbHelper.TABLE_OBAT + " SET " + DbHelper.KEY_JUMLAH_OBAT + " = " + DbHelper.KEY_JUMLAH_OBAT + " - ?" + SET_TANGGAL_DIPERBARUI +
+                    "WHERE " + DbHelper.KEY_OBAT_ID + " = ? AND " + DbHelper.KEY_JUMLAH_OBAT + " >= ?";
+
+    // Kurangi sebanyak dosis obat ("2 tablet" -> 2, sama seperti Obat.getDosisObatInt); args: obat_id
+    private static final String DOSIS_INT_SQL = "CAST(" + DbHelper.KEY_DOSIS_OBAT + " AS INTEGER)";
+    private static final String SQL_KURANGI_STOK_SATU_DOSIS =
+            "UPDATE " + DbHelper.TABLE_OBAT + " SET " + DbHelper.KEY_JUMLAH_OBAT + " = " + DbHelper.KEY_JUMLAH_OBAT + " - " + DOSIS_INT_SQL + SET_TANGGAL_DIPERBARUI +
+                    "WHERE " + DbHelper.KEY_OBAT_ID + " = ? AND " + DOSIS_INT_SQL + " > 0 " +
+                    "AND " + DbHelper.KEY_JUMLAH_OBAT + " >= " + DOSIS_INT_SQL;
+
+    // Dosis yang sudah diminum tetap dikurangi walau stok tercatat kurang (restock belum diinput): stok jadi 0; args: obat_id
+    private static final String SQL_KURANGI_STOK_SATU_DOSIS_MIN_NOL =
+            "UPDATE " + DbHelper.TABLE_OBAT + " SET " + DbHelper.KEY_JUMLAH_OBAT + " = MAX(" + DbHelper.KEY_JUMLAH_OBAT + " - " + DOSIS_INT_SQL + ", 0)" + SET_TANGGAL_DIPERBARUI +
+                    "WHERE " + DbHelper.KEY_OBAT_ID + " = ? AND " + DOSIS_INT_SQL + " > 0";
+
+    // args: jumlah, obat_id
+    private static final String SQL_TAMBAH_STOK =
+            "UPDATE " + DbHelper.TABLE_OBAT + " SET " + DbHelper.KEY_JUMLAH_OBAT + " = " + DbHelper.KEY_JUMLAH_OBAT + " + ?" + SET_TANGGAL_DIPERBARUI +
+                    "WHERE " + DbHelper.KEY_OBAT_ID + " = ?";
+
+    private static final String SQL_INSERT_OBAT =
+            "INSERT INTO " + DbHelper.TABLE_OBAT + " (" + DbHelper.KEY_NAMA_OBAT + ", " + DbHelper.KEY_JENIS_OBAT + ", " +
+                    DbHelper.KEY_DOSIS_OBAT + ", " + DbHelper.KEY_ATURAN_MINUM + ", " + DbHelper.KEY_JUMLAH_OBAT + ", " +
+                    DbHelper.KEY_TIPE_JADWAL + ", " + DbHelper.KEY_OBAT_IS_AKTIF + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_UPDATE_OBAT =
+            "UPDATE " + DbHelper.TABLE_OBAT + " SET " + DbHelper.KEY_NAMA_OBAT + " = ?, " + DbHelper.KEY_JENIS_OBAT + " = ?, " +
+                    DbHelper.KEY_DOSIS_OBAT + " = ?, " + DbHelper.KEY_ATURAN_MINUM + " = ?, " + DbHelper.KEY_JUMLAH_OBAT + " = ?, " +
+                    DbHelper.KEY_TIPE_JADWAL + " = ?, " + DbHelper.KEY_OBAT_IS_AKTIF + " = ?" + SET_TANGGAL_DIPERBARUI +
+                    "WHERE " + DbHelper.KEY_OBAT_ID + " = ?";
+
+    // 🔑 Query obat aktif memakai literal is_aktif = 1 supaya index parsial idx_obat_aktif_* bisa dipakai
+    private static final String SQL_SELECT_ACTIVE_OBAT =
+            "SELECT * FROM " + DbHelper.TABLE_OBAT + " WHERE " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1" +
+                    " ORDER BY " + DbHelper.KEY_OBAT_TANGGAL_DIBUAT + " DESC";
+
+    // Keyset paging obat aktif urut nama lalu id (idx_obat_aktif_nama); args: nama terakhir, id terakhir, jumlah baris
+    private static final String SQL_SELECT_ACTIVE_OBAT_PAGE =
+            "SELECT * FROM " + DbHelper.TABLE_OBAT + " WHERE " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1" +
+                    " AND (" + DbHelper.KEY_NAMA_OBAT + ", " + DbHelper.KEY_OBAT_ID + ") > (?, CAST(? AS INTEGER))" +
+                    " ORDER BY " + DbHelper.KEY_NAMA_OBAT + " ASC, " + DbHelper.KEY_OBAT_ID + " ASC LIMIT ?";
+
+    // Termasuk obat nonaktif: memang membaca seluruh tabel
+    private static final String SQL_SELECT_ALL_OBAT =
+            "SELECT * FROM " + DbHelper.TABLE_OBAT + " ORDER BY " + DbHelper.KEY_OBAT_TANGGAL_DIBUAT + " DESC";
+
+    // args: batas stok
+    private static final String SQL_SELECT_LOW_STOCK =
+            "SELECT * FROM " + DbHelper.TABLE_OBAT +
+                    " WHERE " + DbHelper.KEY_JUMLAH_OBAT + " < ? AND " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1" +
+                    " ORDER BY " + DbHelper.KEY_JUMLAH_OBAT + " ASC";
+
+    // args: pola LIKE
+    private static final String SQL_SEARCH_BY_NAME =
+            "SELECT * FROM " + DbHelper.TABLE_OBAT +
+                    " WHERE " + DbHelper.KEY_NAMA_OBAT + " LIKE ? AND " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1" +
+                    " ORDER BY " + DbHelper.KEY_NAMA_OBAT + " ASC";
+
+    private static final String SQL_COUNT_ACTIVE_OBAT =
+            "SELECT COUNT(*) FROM " + DbHelper.TABLE_OBAT + " WHERE " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1";
+
     private SQLiteDatabase database;
-    private DbHelper dbHelper;
+    private DatabaseManager databaseManager;
     private Context context;
     private boolean isOpen = false;
 
     public ObatHelper(@NonNull Context context) {
         this.context = context.getApplicationContext(); // Prevent memory leaks
-        this.dbHelper = new DbHelper(this.context);
+        this.databaseManager = DatabaseManager.getInstance(this.context);
     }
 
     /**
@@ -35,7 +103,7 @@ public class ObatHelper {
     public synchronized void open() throws SQLiteException {
         if (!isOpen) {
             try {
-                database = dbHelper.getWritableDatabase();
+                database = databaseManager.openDatabase();
                 isOpen = true;
                 Log.d(TAG, "Database opened successfully");
             } catch (SQLiteException e) {
@@ -51,7 +119,8 @@ public class ObatHelper {
     public synchronized void close() {
         if (isOpen && database != null) {
             try {
-                database.close();
+                databaseManager.closeDatabase();
+                database = null;
                 isOpen = false;
                 Log.d(TAG, "Database closed successfully");
             } catch (Exception e) {
@@ -69,6 +138,22 @@ public class ObatHelper {
         }
     }
 
+    /**
+     * Jalankan UPDATE dengan statement dari cache DatabaseManager
+     * @return Jumlah row yang teraffect
+     */
+    private int executeUpdateDelete(@NonNull String sql, Object... args) {
+        ensureDatabaseOpen();
+        return databaseManager.executeUpdateDelete(sql, args);
+    }
+
+    /**
+     * Umumkan perubahan ke observer lewat {@link DataChangeNotifier} (ditahan jika masih di dalam transaksi luar)
+     */
+    private void notifyChanged(@NonNull String... tables) {
+        DataChangeNotifier.getInstance().notifyChanged(database, tables);
+    }
+
     /**
      * Insert obat baru ke database
      * @param obat Objek obat yang akan disimpan
@@ -88,18 +173,17 @@ public class ObatHelper {
         ensureDatabaseOpen();
 
         try {
-            ContentValues values = new ContentValues();
-            values.put(DbHelper.KEY_NAMA_OBAT, obat.getNamaObat().trim());
-            values.put(DbHelper.KEY_JENIS_OBAT, obat.getJenisObat().trim());
-            values.put(DbHelper.KEY_DOSIS_OBAT, obat.getDosisObat().trim());
-            values.put(DbHelper.KEY_ATURAN_MINUM, obat.getAturanMinum().trim());
-            values.put(DbHelper.KEY_JUMLAH_OBAT, obat.getJumlahObat());
-            values.put(DbHelper.KEY_TIPE_JADWAL, obat.getTipeJadwal());
-            values.put(DbHelper.KEY_OBAT_IS_AKTIF, obat.isAktif() ? 1 : 0);
-
-            long result = database.insert(DbHelper.TABLE_OBAT, null, values);
+            long result = databaseManager.executeInsert(SQL_INSERT_OBAT,
+                    obat.getNamaObat().trim(),
+                    obat.getJenisObat().trim(),
+                    obat.getDosisObat().trim(),
+                    obat.getAturanMinum().trim(),
+                    obat.getJumlahObat(),
+                    obat.getTipeJadwal(),
+                    obat.isAktif());
 
             if (result != -1) {
+                notifyChanged(DbHelper.TABLE_OBAT);
                 Log.d(TAG, "Obat inserted successfully with ID: " + result);
                 obat.setId((int) result); // Set ID ke objek obat
             } else {
@@ -126,6 +210,37 @@ public class ObatHelper {
         return getAllObat(true); // Default: hanya obat aktif
     }
 
+    /**
+     * Satu halaman obat aktif urut nama lalu ID. Halaman berikutnya dimulai setelah obat terakhir
+     * halaman sebelumnya (keyset), jadi biayanya sama di halaman mana pun
+     * @param after Obat terakhir halaman sebelumnya, atau null untuk halaman pertama
+     * @param limit Jumlah obat per halaman
+     * @return List obat (kurang dari limit berarti halaman terakhir) atau empty list jika gagal
+     */
+    @NonNull
+    public List<Obat> getActiveObatPage(@Nullable Obat after, int limit) {
+        ensureDatabaseOpen();
+
+        try {
+            Cursor cursor = database.rawQuery(SQL_SELECT_ACTIVE_OBAT_PAGE, new String[]{
+                    after != null ? after.getNamaObat() : "",
+                    String.valueOf(after != null ? after.getId() : 0),
+                    String.valueOf(limit)
+            });
+            List<Obat> result = CursorHelper.cursorToObatList(cursor);
+
+            Log.d(TAG, "Retrieved page of " + result.size() + " obat records");
+            return result;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting obat page: " + e.getMessage(), e);
+            return new java.util.ArrayList<>();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error getting obat page: " + e.getMessage(), e);
+            return new java.util.ArrayList<>();
+        }
+    }
+
     /**
      * Mendapatkan semua obat berdasarkan status aktif
      * @param activeOnly true untuk hanya obat aktif, false untuk semua
@@ -136,13 +251,7 @@ public class ObatHelper {
         ensureDatabaseOpen();
 
         try {
-            String selectQuery = "SELECT * FROM " + DbHelper.TABLE_OBAT;
-            if (activeOnly) {
-                selectQuery += " WHERE " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1";
-            }
-            selectQuery += " ORDER BY " + DbHelper.KEY_OBAT_TANGGAL_DIBUAT + " DESC";
-
-            Cursor cursor = database.rawQuery(selectQuery, null);
+            Cursor cursor = database.rawQuery(activeOnly ? SQL_SELECT_ACTIVE_OBAT : SQL_SELECT_ALL_OBAT, null);
             List<Obat> result = CursorHelper.cursorToObatList(cursor);
 
             Log.d(TAG, "Retrieved " + result.size() + " obat records");
@@ -227,22 +336,20 @@ public class ObatHelper {
         ensureDatabaseOpen();
 
         try {
-            ContentValues values = new ContentValues();
-            values.put(DbHelper.KEY_NAMA_OBAT, obat.getNamaObat().trim());
-            values.put(DbHelper.KEY_JENIS_OBAT, obat.getJenisObat().trim());
-            values.put(DbHelper.KEY_DOSIS_OBAT, obat.getDosisObat().trim());
-            values.put(DbHelper.KEY_ATURAN_MINUM, obat.getAturanMinum().trim());
-            values.put(DbHelper.KEY_JUMLAH_OBAT, obat.getJumlahObat());
-            values.put(DbHelper.KEY_TIPE_JADWAL, obat.getTipeJadwal());
-            values.put(DbHelper.KEY_OBAT_IS_AKTIF, obat.isAktif() ? 1 : 0);
-
-            int rowsAffected = database.update(
-                    DbHelper.TABLE_OBAT,
-                    values,
-                    DbHelper.KEY_OBAT_ID + " = ?",
-                    new String[]{String.valueOf(obat.getId())});
+            int rowsAffected = databaseManager.executeUpdateDelete(SQL_UPDATE_OBAT,
+                    obat.getNamaObat().trim(),
+                    obat.getJenisObat().trim(),
+                    obat.getDosisObat().trim(),
+                    obat.getAturanMinum().trim(),
+                    obat.getJumlahObat(),
+                    obat.getTipeJadwal(),
+                    obat.isAktif(),
+                    obat.getId());
 
             if (rowsAffected > 0) {
+                // Nama/dosis/status aktif obat ikut di setiap baris jadwal yang di-cache
+                TodayScheduleCache.getInstance().invalidate(database, obat.getId());
+                notifyChanged(DbHelper.TABLE_OBAT);
                 Log.d(TAG, "Obat updated successfully. ID: " + obat.getId());
             } else {
                 Log.w(TAG, "No rows updated for obat ID: " + obat.getId());
@@ -298,6 +405,7 @@ public class ObatHelper {
                 // Soft delete: ubah status menjadi tidak aktif
                 ContentValues values = new ContentValues();
                 values.put(DbHelper.KEY_OBAT_IS_AKTIF, 0);
+                values.put(DbHelper.KEY_OBAT_TANGGAL_DIPERBARUI, System.currentTimeMillis() / 1000);
 
                 rowsAffected = database.update(
                         DbHelper.TABLE_OBAT,
@@ -308,6 +416,11 @@ public class ObatHelper {
                 Log.d(TAG, "Soft delete obat. Rows affected: " + rowsAffected);
             }
 
+            if (rowsAffected > 0) {
+                TodayScheduleCache.getInstance().invalidate(database, obatId);
+                // Hard delete ikut menghapus jadwal dan dose_event (ON DELETE CASCADE)
+                notifyChanged(DbHelper.TABLE_OBAT, DbHelper.TABLE_JADWAL, DbHelper.TABLE_DOSE_EVENT);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -332,6 +445,8 @@ public class ObatHelper {
                     null,  // null akan menghapus semua data
                     null);
 
+            TodayScheduleCache.getInstance().invalidateAll(database);
+            notifyChanged(DbHelper.TABLE_OBAT, DbHelper.TABLE_JADWAL, DbHelper.TABLE_DOSE_EVENT);
             Log.d(TAG, "Deleted all obat permanently. Rows affected: " + rowsAffected);
             return true;
         } catch (SQLException e) {
@@ -344,57 +459,86 @@ public class ObatHelper {
     }
 
     /**
-     * Mengurangi jumlah obat ketika diminum
+     * Mengurangi jumlah obat sebanyak satu dosis ketika diminum
      * @param obatId ID obat yang dikurangi
      * @return true jika berhasil, false jika gagal atau stok habis
      */
     public boolean kurangiJumlahObat(long obatId) {
-        Obat obat = getObatById(obatId);
-        return kurangiJumlahObat(obatId, obat.getDosisObatInt());
+        if (obatId <= 0) {
+            Log.e(TAG, "Invalid obat ID for reducing stock: " + obatId);
+            return false;
+        }
+
+        try {
+            if (executeUpdateDelete(SQL_KURANGI_STOK_SATU_DOSIS, obatId) > 0) {
+                notifyChanged(DbHelper.TABLE_OBAT);
+                Log.d(TAG, "Stock reduced by one dose. Obat ID: " + obatId);
+                return true;
+            }
+            Log.w(TAG, "Stock not reduced (not found, invalid dose or insufficient stock). Obat ID: " + obatId);
+            return false;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error reducing obat stock: " + e.getMessage(), e);
+            return false;
+        }
     }
 
     /**
-     * Mengurangi jumlah obat dengan jumlah tertentu
+     * Mengurangi jumlah obat sebanyak satu dosis yang sudah diminum; stok yang kurang dijadikan 0, bukan ditolak
      * @param obatId ID obat yang dikurangi
-     * @param jumlah Jumlah yang akan dikurangi
-     * @return true jika berhasil, false jika gagal atau stok tidak cukup
+     * @return true jika stok diubah, false jika obat tidak ditemukan, dosis tidak valid atau gagal
      */
-    public boolean kurangiJumlahObat(long obatId, int jumlah) {
+    public boolean kurangiJumlahObatMinNol(long obatId) {
         if (obatId <= 0) {
             Log.e(TAG, "Invalid obat ID for reducing stock: " + obatId);
             return false;
         }
 
-        if (jumlah <= 0) {
-            Log.e(TAG, "Invalid quantity for reducing stock: " + jumlah);
+        try {
+            if (executeUpdateDelete(SQL_KURANGI_STOK_SATU_DOSIS_MIN_NOL, obatId) > 0) {
+                notifyChanged(DbHelper.TABLE_OBAT);
+                Log.d(TAG, "Stock reduced by one dose (min 0). Obat ID: " + obatId);
+                return true;
+            }
+            Log.w(TAG, "Stock not reduced (not found or invalid dose). Obat ID: " + obatId);
+            return false;
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error reducing obat stock: " + e.getMessage(), e);
             return false;
         }
+    }
 
-        Obat obat = getObatById(obatId);
-        if (obat == null) {
-            Log.e(TAG, "Obat not found for reducing stock. ID: " + obatId);
+    /**
+     * Mengurangi jumlah obat dengan jumlah tertentu
+     * @param obatId ID obat yang dikurangi
+     * @param jumlah Jumlah yang akan dikurangi
+     * @return true jika berhasil, false jika gagal atau stok tidak cukup
+     */
+    public boolean kurangiJumlahObat(long obatId, int jumlah) {
+        if (obatId <= 0) {
+            Log.e(TAG, "Invalid obat ID for reducing stock: " + obatId);
             return false;
         }
 
-        if (obat.getJumlahObat() < jumlah) {
-            Log.w(TAG, "Insufficient stock. Current: " + obat.getJumlahObat() + ", Required: " + jumlah);
+        if (jumlah <= 0) {
+            Log.e(TAG, "Invalid quantity for reducing stock: " + jumlah);
             return false;
         }
 
         try {
-            obat.setJumlahObat(obat.getJumlahObat() - jumlah);
-            int result = updateObat(obat);
-
-            if (result > 0) {
+            // Cek stok dan pengurangan dalam satu statement, jadi dua "Sudah Minum" bersamaan tidak saling menimpa
+            if (executeUpdateDelete(SQL_KURANGI_STOK, jumlah, obatId, jumlah) > 0) {
+                notifyChanged(DbHelper.TABLE_OBAT);
                 Log.d(TAG, "Stock reduced successfully. Obat ID: " + obatId + ", Reduced by: " + jumlah);
                 return true;
-            } else {
-                Log.e(TAG, "Failed to update stock for obat ID: " + obatId);
-                return false;
             }
+            Log.w(TAG, "Stock not reduced (not found or insufficient stock). Obat ID: " + obatId + ", Required: " + jumlah);
+            return false;
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error reducing obat stock: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error reducing obat stock: " + e.getMessage(), e);
             return false;
         }
     }
@@ -416,26 +560,17 @@ public class ObatHelper {
             return false;
         }
 
-        Obat obat = getObatById(obatId);
-        if (obat == null) {
-            Log.e(TAG, "Obat not found for adding stock. ID: " + obatId);
-            return false;
-        }
-
         try {
-            obat.setJumlahObat(obat.getJumlahObat() + jumlah);
-            int result = updateObat(obat);
-
-            if (result > 0) {
+            if (executeUpdateDelete(SQL_TAMBAH_STOK, jumlah, obatId) > 0) {
+                notifyChanged(DbHelper.TABLE_OBAT);
                 Log.d(TAG, "Stock added successfully. Obat ID: " + obatId + ", Added: " + jumlah);
                 return true;
-            } else {
-                Log.e(TAG, "Failed to update stock for obat ID: " + obatId);
-                return false;
             }
+            Log.e(TAG, "Obat not found for adding stock. ID: " + obatId);
+            return false;
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error adding obat stock: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error adding obat stock: " + e.getMessage(), e);
             return false;
         }
     }
@@ -460,12 +595,7 @@ public class ObatHelper {
         ensureDatabaseOpen();
 
         try {
-            String selectQuery = "SELECT * FROM " + DbHelper.TABLE_OBAT +
-                    " WHERE " + DbHelper.KEY_JUMLAH_OBAT + " < ? AND " +
-                    DbHelper.KEY_OBAT_IS_AKTIF + " = 1" +
-                    " ORDER BY " + DbHelper.KEY_JUMLAH_OBAT + " ASC";
-
-            Cursor cursor = database.rawQuery(selectQuery, new String[]{String.valueOf(minimumStock)});
+            Cursor cursor = database.rawQuery(SQL_SELECT_LOW_STOCK, new String[]{String.valueOf(minimumStock)});
             List<Obat> result = CursorHelper.cursorToObatList(cursor);
 
             Log.d(TAG, "Found " + result.size() + " obat with low stock (< " + minimumStock + ")");
@@ -494,13 +624,8 @@ public class ObatHelper {
         ensureDatabaseOpen();
 
         try {
-            String selectQuery = "SELECT * FROM " + DbHelper.TABLE_OBAT +
-                    " WHERE " + DbHelper.KEY_NAMA_OBAT + " LIKE ? AND " +
-                    DbHelper.KEY_OBAT_IS_AKTIF + " = 1" +
-                    " ORDER BY " + DbHelper.KEY_NAMA_OBAT + " ASC";
-
             String searchPattern = "%" + searchQuery.trim() + "%";
-            Cursor cursor = database.rawQuery(selectQuery, new String[]{searchPattern});
+            Cursor cursor = database.rawQuery(SQL_SEARCH_BY_NAME, new String[]{searchPattern});
             List<Obat> result = CursorHelper.cursorToObatList(cursor);
 
             Log.d(TAG, "Found " + result.size() + " obat matching search: " + searchQuery);
@@ -531,10 +656,7 @@ public class ObatHelper {
         ensureDatabaseOpen();
 
         try {
-            String countQuery = "SELECT COUNT(*) FROM " + DbHelper.TABLE_OBAT +
-                    " WHERE " + DbHelper.KEY_OBAT_IS_AKTIF + " = 1";
-
-            Cursor cursor = database.rawQuery(countQuery, null);
+            Cursor cursor = database.rawQuery(SQL_COUNT_ACTIVE_OBAT, null);
             int count = 0;
 
             if (cursor != null && cursor.moveToFirst()) {
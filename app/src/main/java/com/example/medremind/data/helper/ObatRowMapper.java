@@ -0,0 +1,92 @@
+package com.example.medremind.data.helper;
+
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.medremind.data.model.Obat;
+
+import java.util.Date;
+
+/**
+ * RowMapper untuk tabel obat. Index kolom dicari sekali per cursor;
+ * kolom yang tidak ada di projection query dilewati (index -1).
+ */
+public class ObatRowMapper implements RowMapper<Obat> {
+    private static final String TAG = "ObatRowMapper";
+
+    private final int idxId;
+    private final int idxNamaObat;
+    private final int idxJenisObat;
+    private final int idxDosisObat;
+    private final int idxAturanMinum;
+    private final int idxJumlahObat;
+    private final int idxTipeJadwal;
+    private final int idxTanggalDibuat;
+    private final int idxTanggalDiperbarui;
+    private final int idxIsAktif;
+
+    public ObatRowMapper(@NonNull Cursor cursor) {
+        idxId = cursor.getColumnIndex(DbHelper.KEY_OBAT_ID);
+        idxNamaObat = cursor.getColumnIndex(DbHelper.KEY_NAMA_OBAT);
+        idxJenisObat = cursor.getColumnIndex(DbHelper.KEY_JENIS_OBAT);
+        idxDosisObat = cursor.getColumnIndex(DbHelper.KEY_DOSIS_OBAT);
+        idxAturanMinum = cursor.getColumnIndex(DbHelper.KEY_ATURAN_MINUM);
+        idxJumlahObat = cursor.getColumnIndex(DbHelper.KEY_JUMLAH_OBAT);
+        idxTipeJadwal = cursor.getColumnIndex(DbHelper.KEY_TIPE_JADWAL);
+        idxTanggalDibuat = cursor.getColumnIndex(DbHelper.KEY_OBAT_TANGGAL_DIBUAT);
+        idxTanggalDiperbarui = cursor.getColumnIndex(DbHelper.KEY_OBAT_TANGGAL_DIPERBARUI);
+        idxIsAktif = cursor.getColumnIndex(DbHelper.KEY_OBAT_IS_AKTIF);
+    }
+
+    @Nullable
+    @Override
+    public Obat mapRow(@NonNull Cursor cursor) {
+        try {
+            Obat obat = new Obat();
+
+            if (idxId != -1) {
+                obat.setId(CursorHelper.getInt(cursor, idxId, 0));
+            }
+            if (idxNamaObat != -1) {
+                obat.setNamaObat(CursorHelper.getString(cursor, idxNamaObat, ""));
+            }
+            if (idxJenisObat != -1) {
+                obat.setJenisObat(CursorHelper.getString(cursor, idxJenisObat, ""));
+            }
+            if (idxDosisObat != -1) {
+                obat.setDosisObat(CursorHelper.getString(cursor, idxDosisObat, ""));
+            }
+            if (idxAturanMinum != -1) {
+                obat.setAturanMinum(CursorHelper.getString(cursor, idxAturanMinum, ""));
+            }
+            if (idxJumlahObat != -1) {
+                obat.setJumlahObat(CursorHelper.getInt(cursor, idxJumlahObat, 0));
+            }
+            if (idxTipeJadwal != -1) {
+                obat.setTipeJadwal(CursorHelper.getString(cursor, idxTipeJadwal, "harian"));
+            }
+
+            // Set timestamp jika ada
+            long tanggalDibuat = CursorHelper.getLong(cursor, idxTanggalDibuat, 0);
+            if (tanggalDibuat > 0) {
+                obat.setTanggalDibuat(new Date(tanggalDibuat * 1000));
+            }
+
+            long tanggalDiperbarui = CursorHelper.getLong(cursor, idxTanggalDiperbarui, 0);
+            if (tanggalDiperbarui > 0) {
+                obat.setTanggalDiperbarui(new Date(tanggalDiperbarui * 1000));
+            }
+
+            obat.setAktif(CursorHelper.getInt(cursor, idxIsAktif, 1) == 1);
+
+            return obat;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error mapping row to Obat: " + e.getMessage(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.medremind.data.helper;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Memetakan satu baris cursor ke objek model.
+ * Implementasi menyelesaikan index kolom sekali saat dibuat untuk sebuah cursor,
+ * lalu {@link #mapRow(Cursor)} hanya membaca lewat index tersebut.
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Memetakan baris cursor saat ini
+     * @param cursor Cursor yang sudah diposisikan pada baris yang akan dipetakan
+     * @return Objek hasil pemetaan, atau null jika baris tidak valid
+     */
+    @Nullable
+    T mapRow(@NonNull Cursor cursor);
+}
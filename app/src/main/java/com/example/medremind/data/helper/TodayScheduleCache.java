@@ -0,0 +1,186 @@
+package com.example.medremind.data.helper;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.medremind.data.model.Jadwal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache seluruh proses untuk jadwal per obat dengan status hari ini (lihat {@link JadwalHelper#getJadwalObatHariIni}).
+ * Baca tanpa lock: satu snapshot immutable dibaca lewat AtomicReference; tulis menyalin snapshot (copy-on-write).
+ * JadwalHelper/ObatHelper meng-invalidate setelah setiap tulisan ter-commit (ditahan sampai transaksi luar selesai,
+ * seperti {@link DataChangeNotifier}), dan seluruh isi dibuang saat tanggal berganti.
+ * List dan objek Jadwal di dalamnya dipakai bersama: jangan diubah.
+ */
+public final class TodayScheduleCache {
+
+    private static final TodayScheduleCache INSTANCE = new TodayScheduleCache();
+
+    // Penanda "semua obat" di antrian invalidasi (ID obat selalu > 0)
+    private static final long ALL_OBAT = -1;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    // Invalidasi di dalam transaksi luar (mis. ObatRepository) ditahan sampai transaksi itu selesai,
+    // supaya pembaca tidak mengisi ulang cache dengan data sebelum commit
+    private final ThreadLocal<Set<Long>> pending = ThreadLocal.withInitial(HashSet::new);
+
+    private TodayScheduleCache() {
+    }
+
+    @NonNull
+    public static TodayScheduleCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param tanggal Tanggal hari ini (YYYY-MM-DD)
+     * @param currentMinute Menit sejak tengah malam; entri kedaluwarsa saat sweep terlewat akan mengubah statusnya
+     * @return List read-only, atau null jika belum ada / sudah tidak berlaku
+     */
+    @Nullable
+    public List<Jadwal> get(@NonNull String tanggal, long obatId, int currentMinute) {
+        Snapshot current = snapshot.get();
+        if (!tanggal.equals(current.tanggal)) {
+            return null;
+        }
+
+        Entry entry = current.entries.get(obatId);
+        return entry != null && currentMinute < entry.validUntilMinute ? entry.jadwal : null;
+    }
+
+    /**
+     * Versi isi cache; ambil sebelum query lalu berikan ke {@link #put}.
+     * Setiap invalidasi menaikkan versi, sehingga hasil query yang dimulai sebelum tulisan tidak disimpan.
+     */
+    public long version() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * Simpan hasil query. Entri untuk tanggal lain ikut dibuang.
+     * @param version Nilai {@link #version()} sebelum query dijalankan
+     * @param validUntilMinute Menit pertama saat entri tidak lagi berlaku (Integer.MAX_VALUE: sampai ganti hari)
+     * @return List read-only yang disimpan, atau null jika ada tulisan sejak version diambil
+     */
+    @Nullable
+    public List<Jadwal> put(long version, @NonNull String tanggal, long obatId,
+                            @NonNull List<Jadwal> jadwal, int validUntilMinute) {
+        Entry entry = new Entry(Collections.unmodifiableList(new ArrayList<>(jadwal)), validUntilMinute);
+
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current.version != version) {
+                return null;
+            }
+
+            Map<Long, Entry> entries = tanggal.equals(current.tanggal)
+                    ? new HashMap<>(current.entries)
+                    : new HashMap<>();
+            entries.put(obatId, entry);
+
+            if (snapshot.compareAndSet(current, new Snapshot(tanggal, version, entries))) {
+                return entry.jadwal;
+            }
+        }
+    }
+
+    /**
+     * Buang entri satu obat (jadwal atau status dosisnya berubah)
+     */
+    public void invalidate(long obatId) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Map<Long, Entry> entries = new HashMap<>(current.entries);
+            entries.remove(obatId);
+
+            if (snapshot.compareAndSet(current, new Snapshot(current.tanggal, current.version + 1, entries))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Buang semua entri (ganti hari, atau tulisan yang obatnya tidak diketahui)
+     */
+    public void invalidateAll() {
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (snapshot.compareAndSet(current, new Snapshot(null, current.version + 1, Collections.emptyMap()))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Buang entri satu obat setelah tulisan di {@code database} ter-commit.
+     * Jika thread ini masih di dalam transaksi, invalidasi ditahan sampai {@link #flush} setelah endTransaction.
+     */
+    public void invalidate(@NonNull SQLiteDatabase database, long obatId) {
+        pending.get().add(obatId);
+        flush(database);
+    }
+
+    /**
+     * Seperti {@link #invalidate(SQLiteDatabase, long)} untuk semua obat
+     */
+    public void invalidateAll(@NonNull SQLiteDatabase database) {
+        pending.get().add(ALL_OBAT);
+        flush(database);
+    }
+
+    /**
+     * Jalankan invalidasi yang ditahan thread ini jika transaksi sudah selesai (dipanggil pemilik transaksi
+     * setelah endTransaction; commit maupun rollback, membuang entri berlebih tetap aman)
+     */
+    public void flush(@NonNull SQLiteDatabase database) {
+        Set<Long> obatIds = pending.get();
+        if (obatIds.isEmpty() || database.inTransaction()) {
+            return;
+        }
+        pending.remove();
+
+        if (obatIds.contains(ALL_OBAT)) {
+            invalidateAll();
+            return;
+        }
+        for (long obatId : obatIds) {
+            invalidate(obatId);
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(null, 0, Collections.emptyMap());
+
+        @Nullable final String tanggal;
+        final long version;
+        final Map<Long, Entry> entries;
+
+        Snapshot(@Nullable String tanggal, long version, @NonNull Map<Long, Entry> entries) {
+            this.tanggal = tanggal;
+            this.version = version;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Entry {
+        final List<Jadwal> jadwal;
+        final int validUntilMinute;
+
+        Entry(@NonNull List<Jadwal> jadwal, int validUntilMinute) {
+            this.jadwal = jadwal;
+            this.validUntilMinute = validUntilMinute;
+        }
+    }
+}
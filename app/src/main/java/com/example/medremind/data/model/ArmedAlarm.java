@@ -0,0 +1,56 @@
+package com.example.medremind.data.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Catatan satu alarm yang sedang terpasang di AlarmManager (immutable).
+ * Dipakai AlarmScheduler untuk menghitung selisih saat reschedule.
+ */
+public final class ArmedAlarm {
+    private final int requestCode;
+    private final String action;
+    private final long triggerAt; // epoch millis
+
+    public ArmedAlarm(int requestCode, @NonNull String action, long triggerAt) {
+        this.requestCode = requestCode;
+        this.action = action;
+        this.triggerAt = triggerAt;
+    }
+
+    public int getRequestCode() {
+        return requestCode;
+    }
+
+    @NonNull
+    public String getAction() {
+        return action;
+    }
+
+    public long getTriggerAt() {
+        return triggerAt;
+    }
+
+    // Untuk debugging
+    @NonNull
+    @Override
+    public String toString() {
+        return "ArmedAlarm{requestCode=" + requestCode + ", action='" + action + "', triggerAt=" + triggerAt + '}';
+    }
+
+    // Untuk membandingkan objek
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        ArmedAlarm that = (ArmedAlarm) obj;
+        return requestCode == that.requestCode && triggerAt == that.triggerAt && action.equals(that.action);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = requestCode;
+        result = 31 * result + action.hashCode();
+        result = 31 * result + Long.hashCode(triggerAt);
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.medremind.data.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Snapshot progress minum obat untuk hari ini (immutable).
+ * Dihitung di background lalu diteruskan ke UI apa adanya.
+ */
+public final class DailyProgress {
+    public static final DailyProgress EMPTY = new DailyProgress(0, 0);
+
+    private final int done;
+    private final int total;
+
+    public DailyProgress(int done, int total) {
+        this.done = done;
+        this.total = total;
+    }
+
+    public int getDone() {
+        return done;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    // Format progress yang dipakai di UI, contoh "1/3"
+    @NonNull
+    public String getText() {
+        return done + "/" + total;
+    }
+
+    // Untuk debugging
+    @NonNull
+    @Override
+    public String toString() {
+        return "DailyProgress{" + getText() + '}';
+    }
+
+    // Untuk membandingkan objek
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        DailyProgress that = (DailyProgress) obj;
+        return done == that.done && total == that.total;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * done + total;
+    }
+}
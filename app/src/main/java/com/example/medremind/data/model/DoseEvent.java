@@ -0,0 +1,62 @@
+package com.example.medremind.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Date;
+
+/**
+ * Satu kejadian dosis terjadwal pada tanggal tertentu (riwayat kepatuhan).
+ * Hanya ditulis saat sesuatu terjadi: diminum, terlewat, atau diubah manual.
+ */
+public final class DoseEvent {
+    private final int id;
+    private final int jadwalId;
+    private final String tanggal; // Format: YYYY-MM-DD
+    private final int status; // Sama dengan Jadwal.STATUS_*
+    private final Date tanggalDiminum;
+    private final String catatan;
+
+    public DoseEvent(int id, int jadwalId, @NonNull String tanggal, int status,
+                     @Nullable Date tanggalDiminum, @Nullable String catatan) {
+        this.id = id;
+        this.jadwalId = jadwalId;
+        this.tanggal = tanggal;
+        this.status = status;
+        this.tanggalDiminum = tanggalDiminum;
+        this.catatan = catatan;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getJadwalId() {
+        return jadwalId;
+    }
+
+    @NonNull
+    public String getTanggal() {
+        return tanggal;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    @Nullable
+    public Date getTanggalDiminum() {
+        return tanggalDiminum;
+    }
+
+    @Nullable
+    public String getCatatan() {
+        return catatan;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DoseEvent{jadwalId=" + jadwalId + ", tanggal='" + tanggal + "', status=" + status + "}";
+    }
+}
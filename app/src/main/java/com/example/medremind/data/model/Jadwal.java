@@ -23,6 +23,8 @@ public class Jadwal {
     private int obatId;
     private String hari; // "daily" untuk jadwal harian, atau nama hari untuk jadwal mingguan
     private String waktu; // format "HH:MM"
+    private int minuteOfDay = ScheduleEncoding.INVALID_MINUTE; // 🔑 waktu sebagai menit sejak tengah malam
+    private int dayMask = ScheduleEncoding.MASK_NONE; // 🔑 hari sebagai bitmask (lihat ScheduleEncoding)
     private int status; // 0: belum diminum, 1: sudah diminum, 2: terlewat
     private Date tanggalDibuat;
     private Date tanggalDiperbarui;
@@ -46,6 +48,7 @@ public class Jadwal {
         this.obatId = obatId;
         this.hari = hari;
         this.waktu = waktu;
+        encodeSchedule();
     }
 
     // Constructor tanpa ID (untuk insert baru)
@@ -54,6 +57,7 @@ public class Jadwal {
         this.obatId = obatId;
         this.hari = hari;
         this.waktu = waktu;
+        encodeSchedule();
     }
 
     // Constructor minimal (untuk compatibility)
@@ -61,6 +65,7 @@ public class Jadwal {
         this();
         this.hari = hari;
         this.waktu = waktu;
+        encodeSchedule();
     }
 
     // Getters and Setters dengan validasi
@@ -100,6 +105,7 @@ public class Jadwal {
         }
 
         this.hari = hari.trim();
+        this.dayMask = ScheduleEncoding.dayMaskOf(this.hari);
         updateTanggalDiperbarui();
     }
 
@@ -119,9 +125,36 @@ public class Jadwal {
         }
 
         this.waktu = waktu.trim();
+        this.minuteOfDay = ScheduleEncoding.minuteOfDay(this.waktu);
         updateTanggalDiperbarui();
     }
 
+    /**
+     * Set hari dan waktu beserta encoding yang sudah tersimpan di database, tanpa parsing/validasi ulang
+     * (dipakai row mapper; nilai sudah divalidasi saat ditulis)
+     */
+    public void setStoredSchedule(@NonNull String hari, @NonNull String waktu, int dayMask, int minuteOfDay) {
+        this.hari = hari;
+        this.waktu = waktu;
+        this.dayMask = dayMask;
+        this.minuteOfDay = minuteOfDay;
+    }
+
+    public int getMinuteOfDay() {
+        return minuteOfDay;
+    }
+
+    public int getDayMask() {
+        return dayMask;
+    }
+
+    /**
+     * Jadwal harian (berlaku setiap hari)
+     */
+    public boolean isDaily() {
+        return dayMask == ScheduleEncoding.MASK_EVERY_DAY;
+    }
+
     public int getStatus() {
         return status;
     }
@@ -209,6 +242,11 @@ public class Jadwal {
     }
 
     // Helper methods
+    private void encodeSchedule() {
+        this.dayMask = ScheduleEncoding.dayMaskOf(hari);
+        this.minuteOfDay = ScheduleEncoding.minuteOfDay(waktu);
+    }
+
     private void updateTanggalDiperbarui() {
         this.tanggalDiperbarui = new Date();
     }
@@ -241,6 +279,14 @@ public class Jadwal {
                 status >= STATUS_BELUM_DIMINUM && status <= STATUS_TERLEWAT;
     }
 
+    /**
+     * Apakah jadwal berlaku pada hari tertentu (jadwal harian berlaku setiap hari)
+     * @param calendarDayOfWeek Calendar.SUNDAY .. Calendar.SATURDAY
+     */
+    public boolean isScheduledOn(int calendarDayOfWeek) {
+        return ScheduleEncoding.isScheduledOn(dayMask, calendarDayOfWeek);
+    }
+
     // Method untuk menandai sudah diminum
     public void markAsSudahDiminum() {
         setStatus(STATUS_SUDAH_DIMINUM);
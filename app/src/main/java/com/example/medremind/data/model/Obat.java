@@ -156,6 +156,13 @@ public class Obat {
         updateTanggalDiperbarui();
     }
 
+    /**
+     * Obat dengan jadwal harian (tipe_jadwal hanya 'harian' atau 'mingguan')
+     */
+    public boolean isHarian() {
+        return "harian".equals(tipeJadwal);
+    }
+
     @Nullable
     public Date getTanggalDibuat() {
         return tanggalDibuat;
@@ -0,0 +1,43 @@
+package com.example.medremind.data.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Ringkasan satu obat untuk halaman Home: data obat, jumlah jadwal,
+ * dan progress hari ini (sudah diminum / total jadwal hari ini).
+ */
+public class ObatSummary {
+    private final Obat obat;
+    private final int jumlahJadwal;
+    private final DailyProgress dailyProgress;
+
+    public ObatSummary(@NonNull Obat obat, int jumlahJadwal, @NonNull DailyProgress dailyProgress) {
+        this.obat = obat;
+        this.jumlahJadwal = jumlahJadwal;
+        this.dailyProgress = dailyProgress;
+    }
+
+    @NonNull
+    public Obat getObat() {
+        return obat;
+    }
+
+    public int getJumlahJadwal() {
+        return jumlahJadwal;
+    }
+
+    @NonNull
+    public DailyProgress getDailyProgress() {
+        return dailyProgress;
+    }
+
+    // Untuk debugging
+    @Override
+    public String toString() {
+        return "ObatSummary{" +
+                "obatId=" + obat.getId() +
+                ", jumlahJadwal=" + jumlahJadwal +
+                ", dailyProgress=" + dailyProgress.getText() +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.medremind.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Encoding ringkas jadwal yang disimpan di tabel jadwal:
+ * waktu sebagai menit sejak tengah malam (minute_of_day) dan hari sebagai bitmask 7 bit (day_mask),
+ * bit 0 = Minggu ... bit 6 = Sabtu (urutan Calendar.DAY_OF_WEEK).
+ * Teks "HH:mm" dan nama hari hanya di-parse sekali saat jadwal ditulis.
+ */
+public final class ScheduleEncoding {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int INVALID_MINUTE = -1;
+
+    public static final int MASK_NONE = 0;
+    public static final int MASK_EVERY_DAY = 0x7F;
+
+    // Index = Calendar.DAY_OF_WEEK - 1
+    private static final String[] NAMA_HARI = {"Minggu", "Senin", "Selasa", "Rabu", "Kamis", "Jumat", "Sabtu"};
+
+    private ScheduleEncoding() {
+    }
+
+    /**
+     * Bit untuk satu hari
+     * @param calendarDayOfWeek Calendar.SUNDAY .. Calendar.SATURDAY
+     */
+    public static int dayBit(int calendarDayOfWeek) {
+        return 1 << (calendarDayOfWeek - Calendar.SUNDAY);
+    }
+
+    /**
+     * Bit untuk hari ini (zona waktu perangkat)
+     */
+    public static int todayBit() {
+        return dayBit(Calendar.getInstance().get(Calendar.DAY_OF_WEEK));
+    }
+
+    public static boolean isScheduledOn(int dayMask, int calendarDayOfWeek) {
+        return (dayMask & dayBit(calendarDayOfWeek)) != 0;
+    }
+
+    /**
+     * Nama hari bahasa Indonesia untuk Calendar.DAY_OF_WEEK
+     */
+    @NonNull
+    public static String dayName(int calendarDayOfWeek) {
+        return NAMA_HARI[calendarDayOfWeek - Calendar.SUNDAY];
+    }
+
+    /**
+     * Jumlah hari (1..7) dari hari tertentu sampai hari berikutnya yang ada di mask
+     * @return Selisih hari, atau 0 jika mask kosong
+     */
+    public static int daysUntilNext(int dayMask, int fromCalendarDayOfWeek) {
+        for (int offset = 1; offset <= 7; offset++) {
+            int day = (fromCalendarDayOfWeek - Calendar.SUNDAY + offset) % 7 + Calendar.SUNDAY;
+            if (isScheduledOn(dayMask, day)) {
+                return offset;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Mask dari teks hari ("daily", "setiap hari", "harian" atau nama hari). Hanya untuk jalur tulis.
+     * @return Bitmask hari, atau {@link #MASK_NONE} jika tidak dikenal
+     */
+    public static int dayMaskOf(@Nullable String hari) {
+        if (hari == null) {
+            return MASK_NONE;
+        }
+
+        String value = hari.trim();
+        if (value.equalsIgnoreCase(Jadwal.HARI_DAILY) ||
+                value.equalsIgnoreCase("setiap hari") ||
+                value.equalsIgnoreCase("harian")) {
+            return MASK_EVERY_DAY;
+        }
+
+        for (int i = 0; i < NAMA_HARI.length; i++) {
+            if (NAMA_HARI[i].equalsIgnoreCase(value)) {
+                return dayBit(Calendar.SUNDAY + i);
+            }
+        }
+        return MASK_NONE;
+    }
+
+    /**
+     * Menit sejak tengah malam dari "HH:mm". Hanya untuk jalur tulis.
+     * @return 0..1439, atau {@link #INVALID_MINUTE} jika format tidak valid
+     */
+    public static int minuteOfDay(@Nullable String waktu) {
+        if (waktu == null) {
+            return INVALID_MINUTE;
+        }
+
+        String value = waktu.trim();
+        int separator = value.indexOf(':');
+        if (separator <= 0 || separator == value.length() - 1) {
+            return INVALID_MINUTE;
+        }
+
+        try {
+            int hour = Integer.parseInt(value.substring(0, separator));
+            int minute = Integer.parseInt(value.substring(separator + 1));
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                return INVALID_MINUTE;
+            }
+            return hour * 60 + minute;
+        } catch (NumberFormatException e) {
+            return INVALID_MINUTE;
+        }
+    }
+
+    /**
+     * Format menit sejak tengah malam sebagai "HH:mm"
+     */
+    @NonNull
+    public static String formatMinuteOfDay(int minuteOfDay) {
+        return String.format(Locale.US, "%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
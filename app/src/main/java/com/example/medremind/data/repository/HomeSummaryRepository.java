@@ -0,0 +1,158 @@
+package com.example.medremind.data.repository;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.helper.JadwalHelper;
+import com.example.medremind.data.helper.ObatRowMapper;
+import com.example.medremind.data.model.DailyProgress;
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ObatSummary;
+import com.example.medremind.data.model.ScheduleEncoding;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Memuat data halaman Home dengan satu query agregat per halaman:
+ * setiap obat aktif beserta jumlah jadwal dan progress hari ini (dari dose_event).
+ * Halaman diurutkan nama lalu ID dan dilanjutkan dengan keyset, sehingga biaya halaman pertama
+ * tetap sama berapapun banyaknya obat.
+ */
+public class HomeSummaryRepository {
+    private static final String TAG = "HomeSummaryRepository";
+
+    public static final int PAGE_SIZE = 20;
+
+    private static final String COL_JUMLAH_JADWAL = "jumlah_jadwal";
+    private static final String COL_TODAY_TOTAL = "today_total";
+    private static final String COL_TODAY_DONE = "today_done";
+
+    // Jadwal berlaku hari ini: bit hari ini ada di day_mask (arg: ScheduleEncoding.todayBit())
+    private static final String TODAY_PREDICATE =
+            "(j." + DbHelper.KEY_DAY_MASK + " & CAST(? AS INTEGER)) != 0";
+
+    // args: bit hari ini, bit hari ini, tanggal, nama terakhir, id terakhir, jumlah baris
+    private static final String SQL_SUMMARY_PAGE =
+            "SELECT o.*, " +
+                    "COUNT(j." + DbHelper.KEY_JADWAL_ID + ") AS " + COL_JUMLAH_JADWAL + ", " +
+                    "SUM(CASE WHEN " + TODAY_PREDICATE + " THEN 1 ELSE 0 END) AS " + COL_TODAY_TOTAL + ", " +
+                    "SUM(CASE WHEN " + TODAY_PREDICATE + " AND e." + DbHelper.KEY_EVENT_STATUS + " = " +
+                    Jadwal.STATUS_SUDAH_DIMINUM + " THEN 1 ELSE 0 END) AS " + COL_TODAY_DONE + " " +
+                    "FROM " + DbHelper.TABLE_OBAT + " o " +
+                    "LEFT JOIN " + DbHelper.TABLE_JADWAL + " j ON j." + DbHelper.KEY_OBAT_ID_FK +
+                    " = o." + DbHelper.KEY_OBAT_ID + " " +
+                    "LEFT JOIN " + DbHelper.TABLE_DOSE_EVENT + " e ON e." + DbHelper.KEY_EVENT_JADWAL_ID +
+                    " = j." + DbHelper.KEY_JADWAL_ID + " AND e." + DbHelper.KEY_EVENT_TANGGAL + " = ? " +
+                    "WHERE o." + DbHelper.KEY_OBAT_IS_AKTIF + " = 1 " +
+                    "AND (o." + DbHelper.KEY_NAMA_OBAT + ", o." + DbHelper.KEY_OBAT_ID + ") > (?, CAST(? AS INTEGER)) " +
+                    // Kelompok mengikuti urutan idx_obat_aktif_nama sehingga GROUP BY/ORDER BY tanpa sort tambahan
+                    "GROUP BY o." + DbHelper.KEY_NAMA_OBAT + ", o." + DbHelper.KEY_OBAT_ID + " " +
+                    "ORDER BY o." + DbHelper.KEY_NAMA_OBAT + " ASC, o." + DbHelper.KEY_OBAT_ID + " ASC " +
+                    "LIMIT ?";
+
+    private final Context context;
+    private final DatabaseManager databaseManager;
+
+    public HomeSummaryRepository(@NonNull Context context) {
+        this.context = context.getApplicationContext(); // Prevent memory leaks
+        this.databaseManager = DatabaseManager.getInstance(this.context);
+    }
+
+    /**
+     * Mendapatkan satu halaman ringkasan obat aktif untuk halaman Home
+     * @param after Item terakhir halaman sebelumnya, atau null untuk mulai dari awal
+     * @param limit Jumlah item (boleh lebih dari PAGE_SIZE untuk memuat ulang halaman yang sudah tampil)
+     * @return List ringkasan obat (kurang dari limit berarti tidak ada halaman lagi) atau empty list jika tidak ada
+     */
+    @NonNull
+    public List<ObatSummary> getActiveObatSummaryPage(@Nullable ObatSummary after, int limit) {
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        Cursor cursor = null;
+
+        try {
+            jadwalHelper.open();
+
+            // Status hari ini harus konsisten sebelum dihitung
+            jadwalHelper.checkAndPerformDailyReset();
+            jadwalHelper.autoMarkTerlewatJadwal();
+
+            SQLiteDatabase database = databaseManager.openDatabase();
+            try {
+                String todayBit = String.valueOf(ScheduleEncoding.todayBit());
+                Obat lastObat = after != null ? after.getObat() : null;
+                cursor = database.rawQuery(SQL_SUMMARY_PAGE, new String[]{
+                        todayBit,
+                        todayBit,
+                        getCurrentDate(),
+                        lastObat != null ? lastObat.getNamaObat() : "",
+                        String.valueOf(lastObat != null ? lastObat.getId() : 0),
+                        String.valueOf(limit)
+                });
+                List<ObatSummary> result = cursorToSummaryList(cursor);
+
+                Log.d(TAG, "Retrieved " + result.size() + " obat summaries");
+                return result;
+            } finally {
+                databaseManager.closeDatabase();
+            }
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error getting obat summaries: " + e.getMessage(), e);
+            return new ArrayList<>();
+        } catch (Exception e) {
+            Log.e(TAG, "Unexpected error getting obat summaries: " + e.getMessage(), e);
+            return new ArrayList<>();
+        } finally {
+            if (cursor != null && !cursor.isClosed()) {
+                cursor.close();
+            }
+            jadwalHelper.close();
+        }
+    }
+
+    @NonNull
+    private List<ObatSummary> cursorToSummaryList(@NonNull Cursor cursor) {
+        List<ObatSummary> result = new ArrayList<>();
+
+        ObatRowMapper obatMapper = new ObatRowMapper(cursor);
+        int idxJumlahJadwal = cursor.getColumnIndexOrThrow(COL_JUMLAH_JADWAL);
+        int idxTodayTotal = cursor.getColumnIndexOrThrow(COL_TODAY_TOTAL);
+        int idxTodayDone = cursor.getColumnIndexOrThrow(COL_TODAY_DONE);
+
+        if (cursor.moveToFirst()) {
+            do {
+                Obat obat = obatMapper.mapRow(cursor);
+                if (obat != null) {
+                    result.add(new ObatSummary(
+                            obat,
+                            cursor.getInt(idxJumlahJadwal),
+                            new DailyProgress(cursor.getInt(idxTodayDone), cursor.getInt(idxTodayTotal))));
+                }
+            } while (cursor.moveToNext());
+        }
+
+        return result;
+    }
+
+    /**
+     * Get current date in YYYY-MM-DD format
+     */
+    @NonNull
+    private String getCurrentDate() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        return dateFormat.format(new Date());
+    }
+}
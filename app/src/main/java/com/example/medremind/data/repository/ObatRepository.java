@@ -0,0 +1,126 @@
+package com.example.medremind.data.repository;
+
+import android.content.Context;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.medremind.data.helper.DataChangeNotifier;
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.JadwalHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.helper.TodayScheduleCache;
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+import com.example.medremind.notification.AlarmScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Operasi tulis obat yang melibatkan beberapa tabel sekaligus.
+ */
+public class ObatRepository {
+    private static final String TAG = "ObatRepository";
+
+    private final Context context;
+    private final DatabaseManager databaseManager;
+
+    public ObatRepository(@NonNull Context context) {
+        this.context = context.getApplicationContext(); // Prevent memory leaks
+        this.databaseManager = DatabaseManager.getInstance(this.context);
+    }
+
+    /**
+     * Simpan obat baru beserta semua jadwalnya dalam satu transaksi (semua tersimpan atau tidak sama sekali),
+     * lalu pasang alarm untuk jadwal baru tanpa memuat ulang jadwal dari database
+     * @param obat Obat baru; ID-nya diisi setelah tersimpan
+     * @param jadwalList Jadwal obat; obat ID dan ID jadwal diisi setelah tersimpan
+     * @return ID jadwal yang dibuat sesuai urutan input, atau empty list jika gagal
+     */
+    @NonNull
+    public List<Integer> createObatWithSchedules(@NonNull Obat obat, @NonNull List<Jadwal> jadwalList) {
+        if (jadwalList.isEmpty()) {
+            Log.e(TAG, "Cannot create obat without schedules");
+            return Collections.emptyList();
+        }
+
+        ObatHelper obatHelper = new ObatHelper(context);
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        SQLiteDatabase database = null;
+        List<Integer> jadwalIds = new ArrayList<>(jadwalList.size());
+        boolean committed = false;
+
+        try {
+            database = databaseManager.openDatabase();
+            obatHelper.open();
+            jadwalHelper.open();
+
+            database.beginTransaction();
+            try {
+                long obatId = obatHelper.insertObat(obat);
+                if (obatId == -1) {
+                    Log.e(TAG, "Failed to insert obat: " + obat.getNamaObat());
+                    return Collections.emptyList();
+                }
+
+                for (Jadwal jadwal : jadwalList) {
+                    jadwal.setObatId((int) obatId);
+                }
+
+                // Satu prepared statement untuk semua jadwal
+                int inserted = jadwalHelper.insertMultipleJadwal(jadwalList);
+                if (inserted != jadwalList.size()) {
+                    Log.e(TAG, "Only " + inserted + "/" + jadwalList.size() + " schedules inserted, rolling back");
+                    return Collections.emptyList();
+                }
+
+                database.setTransactionSuccessful();
+                committed = true;
+            } finally {
+                database.endTransaction();
+                // Perubahan obat/jadwal yang ditahan helper selama transaksi diumumkan setelah commit
+                TodayScheduleCache.getInstance().flush(database);
+                DataChangeNotifier.getInstance().notifyChanged(database);
+            }
+
+            for (Jadwal jadwal : jadwalList) {
+                jadwalIds.add(jadwal.getId());
+            }
+            Log.d(TAG, "Created obat " + obat.getId() + " with schedules " + jadwalIds);
+
+        } catch (SQLException e) {
+            Log.e(TAG, "SQL error creating obat with schedules: " + e.getMessage(), e);
+            return Collections.emptyList();
+        } finally {
+            if (!committed) {
+                clearGeneratedIds(obat, jadwalList);
+            }
+            jadwalHelper.close();
+            obatHelper.close();
+            if (database != null) {
+                databaseManager.closeDatabase();
+            }
+        }
+
+        // 🔑 Jadwal yang baru dibuat langsung diteruskan ke scheduler
+        new AlarmScheduler(context).scheduleNewJadwal(jadwalList, obat.getNamaObat());
+
+        return jadwalIds;
+    }
+
+    /**
+     * ID yang diisi insert sebelum rollback tidak pernah tersimpan; kembalikan ke 0 supaya objek bisa disimpan ulang
+     */
+    private void clearGeneratedIds(@NonNull Obat obat, @NonNull List<Jadwal> jadwalList) {
+        obat.setId(0);
+        for (Jadwal jadwal : jadwalList) {
+            if (jadwal != null) {
+                jadwal.setId(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.medremind.data.repository;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+
+import com.example.medremind.data.helper.DataChangeNotifier;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hasil query yang bisa di-observe. Query dijalankan di executor hanya jika salah satu tabel
+ * yang dipakai berubah (lihat {@link DataChangeNotifier}) atau tanggal berganti sejak hasil terakhir dimuat;
+ * observer yang kembali aktif tanpa perubahan data langsung memakai nilai lama tanpa query.
+ */
+public class ObservableQuery<T> extends LiveData<T> implements DataChangeNotifier.OnTablesChangedListener {
+    private static final String TAG = "ObservableQuery";
+
+    public interface Loader<T> {
+        /**
+         * Dijalankan di executor; kembalikan nilai default (bukan exception) jika gagal, sesuai helper
+         */
+        @Nullable
+        T load();
+    }
+
+    private final Executor executor;
+    private final Loader<T> loader;
+    private final Set<String> tables;
+    private final DataChangeNotifier notifier = DataChangeNotifier.getInstance();
+
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    // Tanggal + versi tabel saat hasil terakhir dimuat; null = belum pernah dimuat atau dipaksa muat ulang
+    @Nullable
+    private volatile String loadedKey;
+
+    /**
+     * @param executor Executor background milik layar (boleh single thread)
+     * @param tables Tabel yang dibaca loader (DbHelper.TABLE_*)
+     */
+    public ObservableQuery(@NonNull Executor executor, @NonNull Loader<T> loader, @NonNull String... tables) {
+        this.executor = executor;
+        this.loader = loader;
+        this.tables = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(tables)));
+    }
+
+    @Override
+    protected void onActive() {
+        notifier.addListener(this);
+        refreshIfStale();
+    }
+
+    @Override
+    protected void onInactive() {
+        // Perubahan selama tidak aktif terlihat dari versi tabel saat aktif kembali
+        notifier.removeListener(this);
+    }
+
+    @Override
+    public void onTablesChanged(@NonNull Set<String> changed) {
+        if (!Collections.disjoint(tables, changed)) {
+            refreshIfStale();
+        }
+    }
+
+    /**
+     * Muat ulang walaupun tabel tidak berubah (pull-to-refresh, atau data yang bergantung pada waktu)
+     */
+    public void refresh() {
+        loadedKey = null;
+        refreshIfStale();
+    }
+
+    private void refreshIfStale() {
+        if (currentKey().equals(loadedKey)) {
+            return;
+        }
+
+        // Query yang sedang berjalan mengecek ulang versi setelah selesai
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this::load);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Executor shut down, skipping query for " + tables);
+            loading.set(false);
+        }
+    }
+
+    private void load() {
+        try {
+            String key;
+            T result;
+            do {
+                // Versi diambil sebelum query: tulisan selama query berjalan membuat query diulang
+                key = currentKey();
+                result = loader.load();
+            } while (!key.equals(currentKey()));
+
+            loadedKey = key;
+            postValue(result);
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error running query for " + tables + ": " + e.getMessage(), e);
+        } finally {
+            loading.set(false);
+        }
+
+        // Perubahan yang datang tepat sebelum flag dilepas
+        if (hasActiveObservers() && loadedKey != null && !currentKey().equals(loadedKey)) {
+            refreshIfStale();
+        }
+    }
+
+    @NonNull
+    private String currentKey() {
+        StringBuilder key = new StringBuilder(getCurrentDate());
+        for (String table : tables) {
+            key.append(':').append(notifier.getVersion(table));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get current date in YYYY-MM-DD format
+     */
+    @NonNull
+    private String getCurrentDate() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        return dateFormat.format(new Date());
+    }
+}
@@ -8,97 +8,325 @@ import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.example.medremind.data.helper.ArmedAlarmHelper;
 import com.example.medremind.data.helper.JadwalHelper;
-import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.ArmedAlarm;
 import com.example.medremind.data.model.Jadwal;
-import com.example.medremind.data.model.Obat;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Memasang alarm pengingat obat. Alarm yang terpasang dicatat di tabel armed_alarm,
+ * sehingga reschedule hanya memasang dan membatalkan alarm yang berbeda;
+ * reschedule tanpa perubahan tidak memanggil AlarmManager sama sekali.
+ */
 public class AlarmScheduler {
     private static final String TAG = "AlarmScheduler";
 
+    // Satu alarm exact per dosis yang masih menunggu hari ini
+    public static final int MODE_PER_DOSE = 0;
+    // Satu alarm exact untuk dosis paling awal; NotificationReceiver memasang alarm berikutnya
+    public static final int MODE_NEXT_DUE = 1;
+
+    // Request code tetap untuk rantai next-due (kode per dosis selalu >= DbHelper.FIRST_ALLOCATED_REQUEST_CODE)
+    private static final int REQUEST_CODE_NEXT_DUE = 1;
+
+    private static final int LAST_MINUTE_OF_DAY = 23 * 60 + 59;
+
+    // Catatan armed_alarm dicocokkan sekali per proses dengan PendingIntent yang masih ada,
+    // karena force stop menghapus alarm tanpa memberi tahu aplikasi
+    private static volatile boolean armedRecordsVerified = false;
+
     private Context context;
     private AlarmManager alarmManager;
+    private final int schedulingMode;
 
     public AlarmScheduler(@NonNull Context context) {
+        this(context, MODE_NEXT_DUE);
+    }
+
+    public AlarmScheduler(@NonNull Context context, int schedulingMode) {
         this.context = context.getApplicationContext();
         this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        this.schedulingMode = schedulingMode;
     }
 
     /**
      * Schedule all medication reminders for today
      */
     public void scheduleAllMedicationReminders() {
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
         try {
-            JadwalHelper jadwalHelper = new JadwalHelper(context);
-            ObatHelper obatHelper = new ObatHelper(context);
-
             jadwalHelper.open();
-            obatHelper.open();
 
             // Perform daily reset
             jadwalHelper.checkAndPerformDailyReset();
             jadwalHelper.autoMarkTerlewatJadwal();
 
-            // Get all active obat
-            List<Obat> activeObatList = obatHelper.getAllObat(true);
+            int currentMinute = getCurrentMinuteOfDay();
+            Map<Integer, PlannedAlarm> plan = schedulingMode == MODE_NEXT_DUE
+                    ? planNextDue(jadwalHelper, currentMinute)
+                    : planPerDose(jadwalHelper, currentMinute);
 
-            int totalScheduled = 0;
-            for (Obat obat : activeObatList) {
-                if (obat.getJumlahObat() > 0) { // Only schedule if stock available
-                    int scheduled = scheduleRemindersForObat(jadwalHelper, obat);
-                    totalScheduled += scheduled;
-                }
-            }
+            applyPlan(plan);
 
+        } catch (Exception e) {
+            Log.e(TAG, "Error scheduling all medication reminders: " + e.getMessage(), e);
+        } finally {
             jadwalHelper.close();
-            obatHelper.close();
+        }
+    }
 
-            Log.d(TAG, "Scheduled " + totalScheduled + " medication reminders for " +
-                    activeObatList.size() + " active medications");
+    /**
+     * Pasang (atau ganti) alarm rantai next-due ke dosis berikutnya setelah menit tertentu.
+     * Jika tidak ada dosis lagi hari ini, alarm rantai dibatalkan.
+     * @param jadwalHelper Helper yang sudah terbuka
+     * @param afterMinute Menit sejak tengah malam; dosis pada menit ini sudah ditangani
+     * @return true jika alarm terpasang
+     */
+    public boolean scheduleNextDue(@NonNull JadwalHelper jadwalHelper, int afterMinute) {
+        try {
+            Map<Integer, PlannedAlarm> plan = planNextDue(jadwalHelper, afterMinute);
+            applyPlan(plan);
+            return !plan.isEmpty();
 
         } catch (Exception e) {
-            Log.e(TAG, "Error scheduling all medication reminders: " + e.getMessage(), e);
+            Log.e(TAG, "Error scheduling next due reminder: " + e.getMessage(), e);
+            return false;
         }
     }
 
     /**
-     * Schedule reminders untuk obat tertentu
+     * Rencana mode next-due: satu alarm untuk menit dosis berikutnya
      */
-    private int scheduleRemindersForObat(@NonNull JadwalHelper jadwalHelper, @NonNull Obat obat) {
-        try {
-            // Get jadwal untuk obat ini
-            List<Jadwal> allJadwal = jadwalHelper.getJadwalByObatId(obat.getId());
+    @NonNull
+    private Map<Integer, PlannedAlarm> planNextDue(@NonNull JadwalHelper jadwalHelper, int afterMinute) {
+        Map<Integer, PlannedAlarm> plan = new HashMap<>();
+
+        int nextMinute = jadwalHelper.getNextPendingMinuteOfDay(afterMinute);
+        if (nextMinute < 0) {
+            Log.d(TAG, "No more pending doses today after minute " + afterMinute);
+            return plan;
+        }
+
+        plan.put(REQUEST_CODE_NEXT_DUE, planNextDueAt(nextMinute));
+        return plan;
+    }
 
-            if (allJadwal.isEmpty()) {
-                Log.d(TAG, "No jadwal found for obat: " + obat.getNamaObat());
-                return 0;
+    @NonNull
+    private PlannedAlarm planNextDueAt(int minuteOfDay) {
+        Intent intent = createReminderIntent(NotificationReceiver.ACTION_NEXT_DUE_REMINDER);
+        intent.putExtra(NotificationReceiver.EXTRA_MINUTE_OF_DAY, minuteOfDay);
+
+        return new PlannedAlarm(
+                new ArmedAlarm(REQUEST_CODE_NEXT_DUE, NotificationReceiver.ACTION_NEXT_DUE_REMINDER, getTodayTriggerTime(minuteOfDay)),
+                intent);
+    }
+
+    /**
+     * Pasang alarm untuk jadwal yang baru dibuat tanpa memuat ulang jadwal dari database.
+     * Alarm lain tidak dibatalkan; pada mode next-due alarm rantai hanya dimajukan
+     * jika jadwal baru lebih awal dari alarm yang terpasang.
+     * @param jadwalList Jadwal yang sudah tersimpan (ID terisi)
+     * @param obatNama Nama obat untuk intent pengingat
+     */
+    public void scheduleNewJadwal(@NonNull List<Jadwal> jadwalList, @Nullable String obatNama) {
+        int currentMinute = getCurrentMinuteOfDay();
+        int today = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
+
+        // Hanya dosis hari ini yang belum lewat; hari lain dipasang oleh reschedule harian
+        List<Jadwal> dueToday = new ArrayList<>();
+        int earliestMinute = -1;
+        for (Jadwal jadwal : jadwalList) {
+            int minuteOfDay = jadwal.getMinuteOfDay();
+            if (jadwal.getId() > 0 && minuteOfDay > currentMinute && jadwal.isScheduledOn(today)) {
+                dueToday.add(jadwal);
+                if (earliestMinute < 0 || minuteOfDay < earliestMinute) {
+                    earliestMinute = minuteOfDay;
+                }
             }
+        }
+        if (dueToday.isEmpty()) {
+            Log.d(TAG, "No new jadwal due later today");
+            return;
+        }
 
-            // Filter untuk jadwal hari ini
-            List<Jadwal> todayJadwal = filterJadwalForToday(allJadwal);
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
+        try {
+            armedAlarmHelper.open();
+            List<PlannedAlarm> toArm = new ArrayList<>();
+
+            if (schedulingMode == MODE_NEXT_DUE) {
+                PlannedAlarm planned = planNextDueAt(earliestMinute);
+                ArmedAlarm current = armedAlarmHelper.getArmedAlarms().get(REQUEST_CODE_NEXT_DUE);
+                // 🔑 Catatan yang waktunya sudah lewat = alarm sudah berbunyi (atau receiver mati sebelum
+                // memasang alarm berikutnya); PendingIntent-nya masih ada, jadi anggap tidak terpasang
+                boolean currentStale = current != null && current.getTriggerAt() <= System.currentTimeMillis();
+                if (current == null || currentStale || current.getTriggerAt() > planned.alarm.getTriggerAt()) {
+                    toArm.add(planned);
+                }
+            } else {
+                jadwalHelper.open();
+                List<Integer> jadwalIds = new ArrayList<>(dueToday.size());
+                for (Jadwal jadwal : dueToday) {
+                    jadwalIds.add(jadwal.getId());
+                }
+                Map<Integer, Integer> requestCodes = jadwalHelper.getOrAllocateRequestCodes(jadwalIds);
 
-            int scheduledCount = 0;
-            for (Jadwal jadwal : todayJadwal) {
-                // Only schedule for pending jadwal
-                if (jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM) {
-                    if (scheduleReminder(jadwal, obat.getNamaObat())) {
-                        scheduledCount++;
+                for (Jadwal jadwal : dueToday) {
+                    Integer requestCode = requestCodes.get(jadwal.getId());
+                    PlannedAlarm planned = requestCode != null ? planDoseReminder(jadwal, obatNama, requestCode) : null;
+                    if (planned != null) {
+                        toArm.add(planned);
                     }
                 }
             }
 
-            Log.d(TAG, "Scheduled " + scheduledCount + " reminders for obat: " + obat.getNamaObat());
-            return scheduledCount;
+            List<ArmedAlarm> armedNow = new ArrayList<>(toArm.size());
+            for (PlannedAlarm planned : toArm) {
+                setExactAlarm(planned.alarm.getTriggerAt(), createPendingIntent(planned.intent, planned.alarm.getRequestCode()));
+                armedNow.add(planned.alarm);
+            }
+            armedAlarmHelper.applyChanges(armedNow, Collections.emptyList());
+
+            Log.d(TAG, "Armed " + armedNow.size() + " alarms for " + dueToday.size() + " new jadwal");
 
         } catch (Exception e) {
-            Log.e(TAG, "Error scheduling reminders for obat " + obat.getNamaObat() + ": " + e.getMessage(), e);
-            return 0;
+            Log.e(TAG, "Error scheduling new jadwal: " + e.getMessage(), e);
+        } finally {
+            armedAlarmHelper.close();
+            jadwalHelper.close();
+        }
+    }
+
+    /**
+     * Rencana mode per dosis: satu alarm untuk setiap dosis hari ini yang belum lewat
+     */
+    @NonNull
+    private Map<Integer, PlannedAlarm> planPerDose(@NonNull JadwalHelper jadwalHelper, int currentMinute) {
+        Map<Integer, PlannedAlarm> plan = new HashMap<>();
+
+        // Only schedule for pending jadwal (obat aktif dengan stok) yang waktunya belum lewat
+        List<Jadwal> pendingJadwal = jadwalHelper.getPendingJadwalHariIni(currentMinute + 1, LAST_MINUTE_OF_DAY);
+
+        List<Integer> jadwalIds = new ArrayList<>(pendingJadwal.size());
+        for (Jadwal jadwal : pendingJadwal) {
+            jadwalIds.add(jadwal.getId());
+        }
+        Map<Integer, Integer> requestCodes = jadwalHelper.getOrAllocateRequestCodes(jadwalIds);
+
+        for (Jadwal jadwal : pendingJadwal) {
+            Integer requestCode = requestCodes.get(jadwal.getId());
+            if (requestCode == null) {
+                continue;
+            }
+
+            PlannedAlarm planned = planDoseReminder(jadwal, jadwal.getTambahan("namaObat"), requestCode);
+            if (planned != null) {
+                plan.put(requestCode, planned);
+            }
+        }
+
+        return plan;
+    }
+
+    @Nullable
+    private PlannedAlarm planDoseReminder(@NonNull Jadwal jadwal, @Nullable String obatNama, int requestCode) {
+        int minuteOfDay = jadwal.getMinuteOfDay();
+        if (minuteOfDay < 0) {
+            Log.e(TAG, "Invalid time format: " + jadwal.getWaktu());
+            return null;
+        }
+
+        Intent intent = createReminderIntent(NotificationReceiver.ACTION_MEDICATION_REMINDER);
+        intent.putExtra(NotificationReceiver.EXTRA_OBAT_ID, jadwal.getObatId());
+        intent.putExtra(NotificationReceiver.EXTRA_OBAT_NAMA, obatNama);
+        intent.putExtra(NotificationReceiver.EXTRA_WAKTU, jadwal.getWaktu());
+        intent.putExtra(NotificationReceiver.EXTRA_REQUEST_CODE, requestCode);
+
+        // Tanggal dosis ikut berubah bersama trigger time, jadi alarm berbeda hari selalu dipasang ulang
+        long triggerAt = getTodayTriggerTime(minuteOfDay);
+        intent.putExtra(NotificationReceiver.EXTRA_JADWAL_ID, jadwal.getId());
+        intent.putExtra(NotificationReceiver.EXTRA_TANGGAL, formatTanggal(triggerAt));
+
+        return new PlannedAlarm(
+                new ArmedAlarm(requestCode, NotificationReceiver.ACTION_MEDICATION_REMINDER, triggerAt),
+                intent);
+    }
+
+    /**
+     * Samakan alarm terpasang dengan rencana: hanya alarm baru/berubah yang dipasang
+     * dan hanya alarm yang tidak ada di rencana yang dibatalkan
+     */
+    private void applyPlan(@NonNull Map<Integer, PlannedAlarm> plan) {
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
+        try {
+            armedAlarmHelper.open();
+
+            Map<Integer, ArmedAlarm> armed = armedAlarmHelper.getArmedAlarms();
+            List<Integer> removed = new ArrayList<>();
+            List<ArmedAlarm> newlyArmed = new ArrayList<>();
+
+            if (!armedRecordsVerified) {
+                dropMissingAlarms(armed, removed);
+                armedRecordsVerified = true;
+            }
+
+            // Batalkan alarm yang tidak ada lagi di rencana
+            for (ArmedAlarm alarm : armed.values()) {
+                if (!plan.containsKey(alarm.getRequestCode())) {
+                    cancelPendingIntent(alarm.getAction(), alarm.getRequestCode());
+                    removed.add(alarm.getRequestCode());
+                }
+            }
+
+            // Pasang alarm yang baru atau waktunya berubah
+            for (PlannedAlarm planned : plan.values()) {
+                if (planned.alarm.equals(armed.get(planned.alarm.getRequestCode()))) {
+                    continue; // Sudah terpasang dengan waktu yang sama
+                }
+                setExactAlarm(planned.alarm.getTriggerAt(), createPendingIntent(planned.intent, planned.alarm.getRequestCode()));
+                newlyArmed.add(planned.alarm);
+            }
+
+            armedAlarmHelper.applyChanges(newlyArmed, removed);
+
+            Log.d(TAG, "Reschedule diff - Armed: " + newlyArmed.size() + ", Cancelled: " + removed.size() +
+                    ", Unchanged: " + (plan.size() - newlyArmed.size()));
+
+        } finally {
+            armedAlarmHelper.close();
+        }
+    }
+
+    /**
+     * Buang catatan yang PendingIntent-nya sudah tidak ada (contoh: setelah force stop)
+     */
+    private void dropMissingAlarms(@NonNull Map<Integer, ArmedAlarm> armed, @NonNull List<Integer> removed) {
+        List<Integer> missing = new ArrayList<>();
+        for (ArmedAlarm alarm : armed.values()) {
+            if (findPendingIntent(alarm.getAction(), alarm.getRequestCode()) == null) {
+                missing.add(alarm.getRequestCode());
+            }
+        }
+
+        for (Integer requestCode : missing) {
+            armed.remove(requestCode);
+            removed.add(requestCode);
+        }
+
+        if (!missing.isEmpty()) {
+            Log.w(TAG, "Dropped " + missing.size() + " armed alarm records without a live PendingIntent");
         }
     }
 
@@ -106,189 +334,208 @@ public class AlarmScheduler {
      * Schedule reminder untuk jadwal tertentu
      */
     public boolean scheduleReminder(@NonNull Jadwal jadwal, @NonNull String obatNama) {
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
         try {
-            Calendar now = Calendar.getInstance();
-            Calendar reminderTime = Calendar.getInstance();
-
-            // Parse waktu jadwal (format HH:mm)
-            String[] timeParts = jadwal.getWaktu().split(":");
-            if (timeParts.length != 2) {
-                Log.e(TAG, "Invalid time format: " + jadwal.getWaktu());
+            jadwalHelper.open();
+            int requestCode = jadwalHelper.getOrAllocateRequestCode(jadwal.getId());
+            if (requestCode == -1) {
+                Log.e(TAG, "No request code for jadwal ID: " + jadwal.getId());
                 return false;
             }
 
-            int hour = Integer.parseInt(timeParts[0]);
-            int minute = Integer.parseInt(timeParts[1]);
-
-            reminderTime.set(Calendar.HOUR_OF_DAY, hour);
-            reminderTime.set(Calendar.MINUTE, minute);
-            reminderTime.set(Calendar.SECOND, 0);
-            reminderTime.set(Calendar.MILLISECOND, 0);
+            PlannedAlarm planned = planDoseReminder(jadwal, obatNama, requestCode);
+            if (planned == null) {
+                return false;
+            }
 
             // Jika waktu sudah lewat hari ini, skip
-            if (reminderTime.before(now) || reminderTime.equals(now)) {
+            if (planned.alarm.getTriggerAt() <= System.currentTimeMillis()) {
                 Log.d(TAG, "Jadwal " + jadwal.getWaktu() + " sudah lewat, skip scheduling");
                 return false;
             }
 
-            // Check if exact alarms are allowed (Android 12+)
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
-                Log.w(TAG, "Exact alarms not allowed, using inexact alarm");
-            }
+            setExactAlarm(planned.alarm.getTriggerAt(), createPendingIntent(planned.intent, planned.alarm.getRequestCode()));
 
-            // Create intent
-            Intent intent = new Intent(context, NotificationReceiver.class);
-            intent.setAction(NotificationReceiver.ACTION_MEDICATION_REMINDER);
-            intent.putExtra(NotificationReceiver.EXTRA_OBAT_ID, jadwal.getObatId());
-            intent.putExtra(NotificationReceiver.EXTRA_OBAT_NAMA, obatNama);
-            intent.putExtra(NotificationReceiver.EXTRA_WAKTU, jadwal.getWaktu());
-
-            // Create PendingIntent dengan unique request code
-            int requestCode = generateRequestCode(jadwal.getObatId(), jadwal.getWaktu());
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                    context,
-                    requestCode,
-                    intent,
-                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-            );
-
-            // Schedule alarm based on Android version
-            long triggerTime = reminderTime.getTimeInMillis();
-
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                // Android 6.0+ - Use setExactAndAllowWhileIdle for doze mode compatibility
-                alarmManager.setExactAndAllowWhileIdle(
-                        AlarmManager.RTC_WAKEUP,
-                        triggerTime,
-                        pendingIntent
-                );
-            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-                // Android 4.4+ - Use setExact
-                alarmManager.setExact(
-                        AlarmManager.RTC_WAKEUP,
-                        triggerTime,
-                        pendingIntent
-                );
-            } else {
-                // Older versions - Use set (less precise)
-                alarmManager.set(
-                        AlarmManager.RTC_WAKEUP,
-                        triggerTime,
-                        pendingIntent
-                );
-            }
+            armedAlarmHelper.open();
+            armedAlarmHelper.applyChanges(Collections.singletonList(planned.alarm), Collections.emptyList());
 
             SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
             Log.d(TAG, "Scheduled reminder for " + obatNama + " at " +
-                    dateFormat.format(reminderTime.getTime()) + " (RequestCode: " + requestCode + ")");
+                    dateFormat.format(planned.alarm.getTriggerAt()) + " (RequestCode: " + planned.alarm.getRequestCode() + ")");
 
             return true;
 
         } catch (Exception e) {
             Log.e(TAG, "Error scheduling reminder for " + obatNama + ": " + e.getMessage(), e);
             return false;
+        } finally {
+            armedAlarmHelper.close();
+            jadwalHelper.close();
         }
     }
 
     /**
-     * Cancel reminder untuk jadwal tertentu
+     * Schedule alarm based on Android version
      */
-    public void cancelReminder(int obatId, @NonNull String waktu) {
-        try {
-            Intent intent = new Intent(context, NotificationReceiver.class);
-            intent.setAction(NotificationReceiver.ACTION_MEDICATION_REMINDER);
-
-            int requestCode = generateRequestCode(obatId, waktu);
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                    context,
-                    requestCode,
-                    intent,
-                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+    private void setExactAlarm(long triggerTime, @NonNull PendingIntent pendingIntent) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            // Android 6.0+ - Use setExactAndAllowWhileIdle for doze mode compatibility
+            alarmManager.setExactAndAllowWhileIdle(
+                    AlarmManager.RTC_WAKEUP,
+                    triggerTime,
+                    pendingIntent
+            );
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // Android 4.4+ - Use setExact
+            alarmManager.setExact(
+                    AlarmManager.RTC_WAKEUP,
+                    triggerTime,
+                    pendingIntent
             );
+        } else {
+            // Older versions - Use set (less precise)
+            alarmManager.set(
+                    AlarmManager.RTC_WAKEUP,
+                    triggerTime,
+                    pendingIntent
+            );
+        }
+    }
 
-            alarmManager.cancel(pendingIntent);
-            Log.d(TAG, "Cancelled reminder for obat " + obatId + " at " + waktu + " (RequestCode: " + requestCode + ")");
+    @NonNull
+    private Intent createReminderIntent(@NonNull String action) {
+        Intent intent = new Intent(context, NotificationReceiver.class);
+        intent.setAction(action);
+        return intent;
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error cancelling reminder: " + e.getMessage(), e);
+    @NonNull
+    private PendingIntent createPendingIntent(@NonNull Intent intent, int requestCode) {
+        return PendingIntent.getBroadcast(
+                context,
+                requestCode,
+                intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+    }
+
+    @Nullable
+    private PendingIntent findPendingIntent(@NonNull String action, int requestCode) {
+        return PendingIntent.getBroadcast(
+                context,
+                requestCode,
+                createReminderIntent(action),
+                PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE
+        );
+    }
+
+    /**
+     * Batalkan alarm sekaligus PendingIntent-nya, sehingga keberadaan PendingIntent
+     * selalu berarti alarm masih terpasang
+     */
+    private void cancelPendingIntent(@NonNull String action, int requestCode) {
+        PendingIntent pendingIntent = findPendingIntent(action, requestCode);
+        if (pendingIntent != null) {
+            alarmManager.cancel(pendingIntent);
+            pendingIntent.cancel();
         }
     }
 
     /**
-     * Cancel all scheduled reminders
+     * Cancel reminder untuk jadwal tertentu
      */
-    public void cancelAllReminders() {
+    public void cancelReminder(int jadwalId) {
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
         try {
-            JadwalHelper jadwalHelper = new JadwalHelper(context);
             jadwalHelper.open();
+            int requestCode = jadwalHelper.getRequestCode(jadwalId);
+            if (requestCode == -1) {
+                Log.d(TAG, "No alarm was ever scheduled for jadwal ID: " + jadwalId);
+                return;
+            }
 
-            List<Jadwal> allJadwal = jadwalHelper.getAllJadwal();
+            cancelPendingIntent(NotificationReceiver.ACTION_MEDICATION_REMINDER, requestCode);
 
-            int cancelledCount = 0;
-            for (Jadwal jadwal : allJadwal) {
-                cancelReminder(jadwal.getObatId(), jadwal.getWaktu());
-                cancelledCount++;
-            }
+            armedAlarmHelper.open();
+            armedAlarmHelper.applyChanges(Collections.emptyList(), Collections.singletonList(requestCode));
 
-            jadwalHelper.close();
-            Log.d(TAG, "Cancelled " + cancelledCount + " scheduled reminders");
+            Log.d(TAG, "Cancelled reminder for jadwal " + jadwalId + " (RequestCode: " + requestCode + ")");
 
         } catch (Exception e) {
-            Log.e(TAG, "Error cancelling all reminders: " + e.getMessage(), e);
+            Log.e(TAG, "Error cancelling reminder: " + e.getMessage(), e);
+        } finally {
+            armedAlarmHelper.close();
+            jadwalHelper.close();
         }
     }
 
     /**
-     * Filter jadwal untuk hari ini
+     * Cancel all scheduled reminders (hanya alarm yang tercatat terpasang)
      */
-    private List<Jadwal> filterJadwalForToday(@NonNull List<Jadwal> jadwalList) {
-        Calendar now = Calendar.getInstance();
-        String currentDay = getCurrentDayName(now);
+    public void cancelAllReminders() {
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
+        try {
+            armedAlarmHelper.open();
 
-        return jadwalList.stream()
-                .filter(jadwal -> {
-                    String jadwalHari = jadwal.getHari();
+            Map<Integer, ArmedAlarm> armed = armedAlarmHelper.getArmedAlarms();
+            for (ArmedAlarm alarm : armed.values()) {
+                cancelPendingIntent(alarm.getAction(), alarm.getRequestCode());
+            }
+            armedAlarmHelper.clearArmedAlarms();
 
-                    // Daily schedule
-                    if (jadwalHari.equalsIgnoreCase("daily") ||
-                            jadwalHari.equalsIgnoreCase("setiap hari") ||
-                            jadwalHari.equalsIgnoreCase("harian")) {
-                        return true;
-                    }
+            Log.d(TAG, "Cancelled " + armed.size() + " scheduled reminders");
 
-                    // Weekly schedule - check if today matches
-                    return jadwalHari.equalsIgnoreCase(currentDay);
-                })
-                .collect(java.util.stream.Collectors.toList());
+        } catch (Exception e) {
+            Log.e(TAG, "Error cancelling all reminders: " + e.getMessage(), e);
+        } finally {
+            armedAlarmHelper.close();
+        }
     }
 
     /**
-     * Get current day name in Indonesian
+     * Lupakan semua catatan alarm terpasang. Dipanggil setelah boot,
+     * saat AlarmManager sudah tidak menyimpan alarm apa pun.
      */
-    private String getCurrentDayName(Calendar calendar) {
-        SimpleDateFormat dayFormat = new SimpleDateFormat("EEEE", new Locale("id", "ID"));
-        return dayFormat.format(calendar.getTime());
+    public void clearArmedRecords() {
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
+        try {
+            armedAlarmHelper.open();
+            armedAlarmHelper.clearArmedAlarms();
+        } catch (Exception e) {
+            Log.e(TAG, "Error clearing armed alarm records: " + e.getMessage(), e);
+        } finally {
+            armedAlarmHelper.close();
+        }
     }
 
     /**
-     * Generate unique request code untuk alarm
+     * Waktu trigger hari ini untuk menit tertentu (epoch millis)
      */
-    private int generateRequestCode(int obatId, @NonNull String waktu) {
-        try {
-            // Combine obatId dan waktu untuk unique code
-            String[] timeParts = waktu.split(":");
-            int hour = Integer.parseInt(timeParts[0]);
-            int minute = Integer.parseInt(timeParts[1]);
+    private long getTodayTriggerTime(int minuteOfDay) {
+        Calendar reminderTime = Calendar.getInstance();
+        reminderTime.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+        reminderTime.set(Calendar.MINUTE, minuteOfDay % 60);
+        reminderTime.set(Calendar.SECOND, 0);
+        reminderTime.set(Calendar.MILLISECOND, 0);
+        return reminderTime.getTimeInMillis();
+    }
 
-            // Format: obatId (max 999) + hour (00-23) + minute (00-59)
-            // Example: obat_id=1, waktu=08:30 → 1 * 10000 + 8 * 100 + 30 = 10830
-            return (obatId * 10000) + (hour * 100) + minute;
+    /**
+     * Tanggal dosis (YYYY-MM-DD) dari waktu trigger
+     */
+    @NonNull
+    private String formatTanggal(long triggerAt) {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(triggerAt);
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error generating request code for obat " + obatId + " at " + waktu + ": " + e.getMessage(), e);
-            // Fallback to simple hash
-            return (obatId + waktu.hashCode()) % Integer.MAX_VALUE;
-        }
+    /**
+     * Get current time as minutes since midnight
+     */
+    private int getCurrentMinuteOfDay() {
+        Calendar now = Calendar.getInstance();
+        return now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE);
     }
 
     /**
@@ -308,4 +555,17 @@ public class AlarmScheduler {
         boolean canScheduleExact = canScheduleExactAlarms();
         Log.d(TAG, "AlarmScheduler Status - Can schedule exact alarms: " + canScheduleExact);
     }
-}
\ No newline at end of file
+
+    /**
+     * Alarm yang direncanakan: catatan yang akan disimpan + intent untuk PendingIntent
+     */
+    private static final class PlannedAlarm {
+        final ArmedAlarm alarm;
+        final Intent intent;
+
+        PlannedAlarm(@NonNull ArmedAlarm alarm, @NonNull Intent intent) {
+            this.alarm = alarm;
+            this.intent = intent;
+        }
+    }
+}
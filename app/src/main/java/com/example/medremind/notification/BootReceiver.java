@@ -17,7 +17,9 @@ public class BootReceiver extends BroadcastReceiver {
                 Intent.ACTION_MY_PACKAGE_REPLACED.equals(action) ||
                 Intent.ACTION_PACKAGE_REPLACED.equals(action)) {
 
-            rescheduleNotifications(context);
+            // Catatan alarm dibersihkan di background, reschedule lewat RescheduleWorker
+            Context appContext = context.getApplicationContext();
+            ReceiverExecutor.runAsync(this, appContext, TAG + ":reschedule", () -> rescheduleNotifications(appContext));
         }
     }
 
@@ -32,10 +34,13 @@ public class BootReceiver extends BroadcastReceiver {
             // Clear any existing notifications
             notificationHelper.cancelAllNotifications();
 
+            // AlarmManager kosong setelah boot, jadi catatan alarm terpasang harus dilupakan
+            alarmScheduler.clearArmedRecords();
+
             // Reschedule all reminders
-            alarmScheduler.scheduleAllMedicationReminders();
+            RescheduleWorker.enqueue(context);
 
-            Log.d(TAG, "Medication reminders rescheduled successfully");
+            Log.d(TAG, "Medication reminders reschedule requested");
 
         } catch (Exception e) {
             Log.e(TAG, "Error rescheduling notifications: " + e.getMessage(), e);
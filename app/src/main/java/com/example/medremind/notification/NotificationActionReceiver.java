@@ -8,12 +8,11 @@ import android.content.Intent;
 import android.util.Log;
 import android.widget.Toast;
 
+import androidx.annotation.Nullable;
+
 import com.example.medremind.data.helper.JadwalHelper;
-import com.example.medremind.data.helper.ObatHelper;
 import com.example.medremind.data.model.Jadwal;
 
-import java.util.List;
-
 public class NotificationActionReceiver extends BroadcastReceiver {
     private static final String TAG = "NotificationActionReceiver";
 
@@ -23,120 +22,126 @@ public class NotificationActionReceiver extends BroadcastReceiver {
     @Override
     public void onReceive(Context context, Intent intent) {
         String action = intent.getAction();
-        int obatId = intent.getIntExtra("obat_id", -1);
-        String obatNama = intent.getStringExtra("obat_nama");
+        int jadwalId = intent.getIntExtra(NotificationReceiver.EXTRA_JADWAL_ID, -1);
+        String tanggal = intent.getStringExtra(NotificationReceiver.EXTRA_TANGGAL);
+        int obatId = intent.getIntExtra(NotificationReceiver.EXTRA_OBAT_ID, -1);
+        String obatNama = intent.getStringExtra(NotificationReceiver.EXTRA_OBAT_NAMA);
 
-        Log.d(TAG, "Received action: " + action + " for obat: " + obatNama);
+        Log.d(TAG, "Received action: " + action + " for obat: " + obatNama + " (jadwal: " + jadwalId + ", tanggal: " + tanggal + ")");
 
         if (obatId == -1 || obatNama == null) {
             Log.e(TAG, "Invalid action data");
             return;
         }
 
-        if (ACTION_SUDAH_MINUM.equals(action)) {
-            handleSudahMinum(context, obatId, obatNama);
-        } else if (ACTION_LEWATI.equals(action)) {
-            handleLewati(context, obatId, obatNama);
-        }
-
         // Cancel notification after action
         NotificationHelper notificationHelper = new NotificationHelper(context);
         notificationHelper.cancelMedicationReminder(obatId);
+
+        // 🔑 Update status dan stok di background
+        Context appContext = context.getApplicationContext();
+        if (ACTION_SUDAH_MINUM.equals(action)) {
+            ReceiverExecutor.runAsync(this, appContext, TAG + ":sudah_minum", () -> handleSudahMinum(appContext, jadwalId, tanggal, obatNama));
+        } else if (ACTION_LEWATI.equals(action)) {
+            ReceiverExecutor.runAsync(this, appContext, TAG + ":lewati", () -> handleLewati(appContext, jadwalId, tanggal, obatNama));
+        }
     }
 
-    private void handleSudahMinum(Context context, int obatId, String obatNama) {
+    private void handleSudahMinum(Context context, int jadwalId, String tanggal, String obatNama) {
         JadwalHelper jadwalHelper = new JadwalHelper(context);
-        ObatHelper obatHelper = new ObatHelper(context);
 
         try {
             jadwalHelper.open();
-            obatHelper.open();
 
-            // Find current pending jadwal for this obat
-            List<Jadwal> todayJadwal = jadwalHelper.getJadwalHariIni();
-            Jadwal targetJadwal = null;
+            Jadwal targetJadwal = findJadwal(jadwalHelper, jadwalId, tanggal);
 
-            for (Jadwal jadwal : todayJadwal) {
-                if (jadwal.getObatId() == obatId &&
-                        jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM) {
-                    targetJadwal = jadwal;
-                    break;
-                }
-            }
+            if (targetJadwal != null && targetJadwal.getStatus() == Jadwal.STATUS_SUDAH_DIMINUM) {
+                // Aksi diketuk dua kali; jangan kurangi stok lagi
+                showToast(context, "✅ " + obatNama + " - Sudah diminum");
+            } else if (targetJadwal != null) {
+                // 🔑 Status, waktu minum dan stok dicatat dalam satu transaksi
+                int sisaStok = jadwalHelper.recordDoseTaken(targetJadwal.getId(), tanggal, "Via notification action");
 
-            if (targetJadwal != null) {
-                // 🔑 Update status menggunakan existing method (otomatis kurangi stok)
-                int rowsAffected = jadwalHelper.updateJadwalStatus(
-                        targetJadwal.getId(),
-                        Jadwal.STATUS_SUDAH_DIMINUM,
-                        "Via notification action"
-                );
+                if (sisaStok != JadwalHelper.RECORD_DOSE_GAGAL) {
+                    showToast(context,
+                            "✅ " + obatNama + " - Sudah diminum");
 
-                if (rowsAffected > 0) {
-                    Toast.makeText(context,
-                            "✅ " + obatNama + " - Sudah diminum",
-                            Toast.LENGTH_SHORT).show();
+                    // Stok tercatat kurang dari satu dosis: dosis tetap dicatat dan stok dijadikan 0
+                    boolean stokTidakCukup = sisaStok == JadwalHelper.RECORD_DOSE_STOK_TIDAK_CUKUP;
+                    int stokBaru = stokTidakCukup ? 0 : sisaStok;
 
-                    Log.d(TAG, "Successfully marked as taken: " + obatNama);
+                    // Stok baru sudah dikembalikan, tidak perlu membaca obat lagi
+                    if (stokTidakCukup || NotificationHelper.isLowStock(targetJadwal.getTambahan("jenisObat"), stokBaru)) {
+                        new NotificationHelper(context).showLowStockWarning(obatNama, stokBaru);
+                    }
+
+                    Log.d(TAG, "Successfully marked as taken: " + obatNama + " (jadwal: " + jadwalId + ", stok: " + stokBaru + ")");
                 } else {
-                    Toast.makeText(context, "Gagal mengupdate status", Toast.LENGTH_SHORT).show();
+                    showToast(context, "Gagal mengupdate status");
                 }
             } else {
-                Toast.makeText(context, "Jadwal tidak ditemukan", Toast.LENGTH_SHORT).show();
+                showToast(context, "Jadwal tidak ditemukan");
             }
 
         } catch (Exception e) {
             Log.e(TAG, "Error handling sudah minum: " + e.getMessage(), e);
-            Toast.makeText(context, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            showToast(context, "Error: " + e.getMessage());
         } finally {
             jadwalHelper.close();
-            obatHelper.close();
         }
     }
 
-    private void handleLewati(Context context, int obatId, String obatNama) {
+    private void handleLewati(Context context, int jadwalId, String tanggal, String obatNama) {
         JadwalHelper jadwalHelper = new JadwalHelper(context);
 
         try {
             jadwalHelper.open();
 
-            // Find current pending jadwal for this obat
-            List<Jadwal> todayJadwal = jadwalHelper.getJadwalHariIni();
-            Jadwal targetJadwal = null;
-
-            for (Jadwal jadwal : todayJadwal) {
-                if (jadwal.getObatId() == obatId &&
-                        jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM) {
-                    targetJadwal = jadwal;
-                    break;
-                }
-            }
+            Jadwal targetJadwal = findJadwal(jadwalHelper, jadwalId, tanggal);
 
-            if (targetJadwal != null) {
+            if (targetJadwal != null && targetJadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM) {
                 int rowsAffected = jadwalHelper.updateJadwalStatus(
                         targetJadwal.getId(),
                         Jadwal.STATUS_TERLEWAT,
-                        "Dilewati via notification"
+                        "Dilewati via notification",
+                        tanggal
                 );
 
                 if (rowsAffected > 0) {
-                    Toast.makeText(context,
-                            "⏭️ " + obatNama + " - Dilewati",
-                            Toast.LENGTH_SHORT).show();
+                    showToast(context,
+                            "⏭️ " + obatNama + " - Dilewati");
 
-                    Log.d(TAG, "Successfully marked as skipped: " + obatNama);
+                    Log.d(TAG, "Successfully marked as skipped: " + obatNama + " (jadwal: " + jadwalId + ")");
                 } else {
-                    Toast.makeText(context, "Gagal mengupdate status", Toast.LENGTH_SHORT).show();
+                    showToast(context, "Gagal mengupdate status");
                 }
             } else {
-                Toast.makeText(context, "Jadwal tidak ditemukan", Toast.LENGTH_SHORT).show();
+                showToast(context, "Jadwal tidak ditemukan");
             }
 
         } catch (Exception e) {
             Log.e(TAG, "Error handling lewati: " + e.getMessage(), e);
-            Toast.makeText(context, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            showToast(context, "Error: " + e.getMessage());
         } finally {
             jadwalHelper.close();
         }
     }
-}
\ No newline at end of file
+
+    // Toast harus dibuat di main thread
+    private void showToast(Context context, String message) {
+        ReceiverExecutor.postToMain(() -> Toast.makeText(context, message, Toast.LENGTH_SHORT).show());
+    }
+
+    /**
+     * Dosis yang dimaksud notifikasi: satu lookup primary key dengan status pada tanggal dosis
+     */
+    @Nullable
+    private Jadwal findJadwal(JadwalHelper jadwalHelper, int jadwalId, @Nullable String tanggal) {
+        if (jadwalId <= 0 || tanggal == null) {
+            // Notifikasi tanpa dosis terkait (test notifikasi atau versi lama)
+            Log.w(TAG, "Notification action without jadwal ID/tanggal");
+            return null;
+        }
+        return jadwalHelper.getJadwalById(jadwalId, tanggal);
+    }
+}
@@ -10,6 +10,7 @@ import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
@@ -71,10 +72,22 @@ public class NotificationHelper {
     }
 
     /**
-     * Show medication reminder notification
+     * Show medication reminder notification (tanpa dosis terkait, untuk test notifikasi)
      */
     public void showMedicationReminder(int obatId, @NonNull String obatNama,
                                        @NonNull String waktu, @NonNull String dosis) {
+        showMedicationReminder(-1, null, obatId, obatNama, waktu, dosis);
+    }
+
+    /**
+     * Show medication reminder notification untuk satu dosis.
+     * Aksi "Sudah Minum"/"Lewati" membawa ID jadwal dan tanggal dosis sehingga
+     * NotificationActionReceiver langsung mengupdate dosis yang benar.
+     * @param jadwalId ID jadwal dosis
+     * @param tanggal Tanggal dosis (YYYY-MM-DD)
+     */
+    public void showMedicationReminder(int jadwalId, @Nullable String tanggal, int obatId, @NonNull String obatNama,
+                                       @NonNull String waktu, @NonNull String dosis) {
         try {
             // Create intent untuk buka DetailJadwalActivity
             Intent intent = new Intent(context, DetailJadwalActivity.class);
@@ -92,9 +105,11 @@ public class NotificationHelper {
             // Create "Sudah Minum" action
             Intent sudahMinumIntent = new Intent(context, NotificationActionReceiver.class);
             sudahMinumIntent.setAction(NotificationActionReceiver.ACTION_SUDAH_MINUM);
-            sudahMinumIntent.putExtra("obat_id", obatId);
-            sudahMinumIntent.putExtra("obat_nama", obatNama);
-            sudahMinumIntent.putExtra("waktu", waktu);
+            sudahMinumIntent.putExtra(NotificationReceiver.EXTRA_JADWAL_ID, jadwalId);
+            sudahMinumIntent.putExtra(NotificationReceiver.EXTRA_TANGGAL, tanggal);
+            sudahMinumIntent.putExtra(NotificationReceiver.EXTRA_OBAT_ID, obatId);
+            sudahMinumIntent.putExtra(NotificationReceiver.EXTRA_OBAT_NAMA, obatNama);
+            sudahMinumIntent.putExtra(NotificationReceiver.EXTRA_WAKTU, waktu);
 
             PendingIntent sudahMinumPendingIntent = PendingIntent.getBroadcast(
                     context,
@@ -106,9 +121,11 @@ public class NotificationHelper {
             // Create "Lewati" action
             Intent lewatiIntent = new Intent(context, NotificationActionReceiver.class);
             lewatiIntent.setAction(NotificationActionReceiver.ACTION_LEWATI);
-            lewatiIntent.putExtra("obat_id", obatId);
-            lewatiIntent.putExtra("obat_nama", obatNama);
-            lewatiIntent.putExtra("waktu", waktu);
+            lewatiIntent.putExtra(NotificationReceiver.EXTRA_JADWAL_ID, jadwalId);
+            lewatiIntent.putExtra(NotificationReceiver.EXTRA_TANGGAL, tanggal);
+            lewatiIntent.putExtra(NotificationReceiver.EXTRA_OBAT_ID, obatId);
+            lewatiIntent.putExtra(NotificationReceiver.EXTRA_OBAT_NAMA, obatNama);
+            lewatiIntent.putExtra(NotificationReceiver.EXTRA_WAKTU, waktu);
 
             PendingIntent lewatiPendingIntent = PendingIntent.getBroadcast(
                     context,
@@ -238,6 +255,14 @@ public class NotificationHelper {
         }
     }
 
+    /**
+     * Batas stok rendah: <=3 untuk tablet, <=500 untuk obat dalam mg
+     */
+    public static boolean isLowStock(@Nullable String jenisObat, int jumlah) {
+        String jenis = jenisObat != null ? jenisObat.toLowerCase() : "";
+        return (jenis.contains("tablet") && jumlah <= 3) || (jenis.contains("mg") && jumlah <= 500);
+    }
+
     /**
      * Cancel medication reminder for specific obat
      */
@@ -5,15 +5,17 @@ import android.content.Context;
 import android.content.Intent;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.example.medremind.data.helper.JadwalHelper;
 import com.example.medremind.data.helper.ObatHelper;
 import com.example.medremind.data.model.Jadwal;
 import com.example.medremind.data.model.Obat;
 
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
-import java.util.Locale;
 
 public class NotificationReceiver extends BroadcastReceiver {
     private static final String TAG = "NotificationReceiver";
@@ -22,79 +24,142 @@ public class NotificationReceiver extends BroadcastReceiver {
     public static final String EXTRA_OBAT_ID = "obat_id";
     public static final String EXTRA_OBAT_NAMA = "obat_nama";
     public static final String EXTRA_WAKTU = "waktu";
+    public static final String EXTRA_REQUEST_CODE = "request_code";
+    // ID jadwal dan tanggal dosis (YYYY-MM-DD), juga dibawa aksi notifikasi
+    public static final String EXTRA_JADWAL_ID = "jadwal_id";
+    public static final String EXTRA_TANGGAL = "tanggal";
+
+    public static final String ACTION_NEXT_DUE_REMINDER = "com.example.medremind.NEXT_DUE_REMINDER";
+    public static final String EXTRA_MINUTE_OF_DAY = "minute_of_day";
 
     @Override
     public void onReceive(Context context, Intent intent) {
         String action = intent.getAction();
         Log.d(TAG, "Received broadcast action: " + action);
 
+        // 🔑 Reset harian, sweep terlewat dan query berjalan di background, bukan di main thread
+        Context appContext = context.getApplicationContext();
         if (ACTION_MEDICATION_REMINDER.equals(action)) {
-            handleMedicationReminder(context, intent);
+            ReceiverExecutor.runAsync(this, appContext, TAG + ":reminder", () -> handleMedicationReminder(appContext, intent));
+        } else if (ACTION_NEXT_DUE_REMINDER.equals(action)) {
+            ReceiverExecutor.runAsync(this, appContext, TAG + ":next_due", () -> handleNextDueReminder(appContext, intent));
         }
     }
 
+    private void handleNextDueReminder(Context context, Intent intent) {
+        int armedMinute = intent.getIntExtra(EXTRA_MINUTE_OF_DAY, -1);
+        if (armedMinute < 0) {
+            Log.e(TAG, "Invalid next due reminder data - Minute: " + armedMinute);
+            return;
+        }
+
+        // Alarm bisa tertunda (doze), jadi kirim semua dosis dari menit alarm sampai sekarang
+        int toMinute = Math.max(armedMinute, getCurrentMinuteOfDay());
+
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        try {
+            jadwalHelper.open();
+
+            // Perform daily reset to ensure data consistency
+            jadwalHelper.checkAndPerformDailyReset();
+            jadwalHelper.autoMarkTerlewatJadwal();
+
+            deliverDueReminders(context, jadwalHelper, armedMinute, toMinute);
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error handling next due reminder: " + e.getMessage(), e);
+        } finally {
+            jadwalHelper.close();
+        }
+    }
+
+    /**
+     * Tampilkan notifikasi untuk semua dosis yang masih menunggu dalam rentang menit,
+     * lalu pasang alarm rantai berikutnya setelah menit akhir
+     * @return Jadwal yang notifikasinya ditampilkan, sesuai urutan pengiriman
+     */
+    @NonNull
+    List<Jadwal> deliverDueReminders(@NonNull Context context, @NonNull JadwalHelper jadwalHelper,
+                                     int fromMinute, int toMinute) {
+        List<Jadwal> delivered = new ArrayList<>();
+        NotificationHelper notificationHelper = new NotificationHelper(context);
+        String tanggal = jadwalHelper.getCurrentDate();
+
+        // 🔑 Query pending sudah menyaring obat aktif dengan stok dan membawa nama/dosis/jenis/stok (JOIN),
+        // jadi tidak ada lookup obat per dosis
+        for (Jadwal jadwal : jadwalHelper.getPendingJadwalHariIni(fromMinute, toMinute)) {
+            showReminder(notificationHelper, jadwal, tanggal,
+                    jadwal.getObatId(),
+                    jadwal.getTambahan("namaObat"),
+                    jadwal.getTambahan("dosisObat"),
+                    jadwal.getTambahan("jenisObat"),
+                    parseJumlahObat(jadwal.getTambahan("jumlahObat")));
+            delivered.add(jadwal);
+        }
+
+        Log.d(TAG, "Delivered " + delivered.size() + " reminders for minute " + fromMinute + "-" + toMinute);
+
+        new AlarmScheduler(context).scheduleNextDue(jadwalHelper, toMinute);
+        return delivered;
+    }
+
     private void handleMedicationReminder(Context context, Intent intent) {
         try {
-            int obatId = intent.getIntExtra(EXTRA_OBAT_ID, -1);
+            int jadwalId = intent.getIntExtra(EXTRA_JADWAL_ID, -1);
+            int requestCode = intent.getIntExtra(EXTRA_REQUEST_CODE, -1);
+            String tanggal = intent.getStringExtra(EXTRA_TANGGAL);
             String obatNama = intent.getStringExtra(EXTRA_OBAT_NAMA);
             String waktu = intent.getStringExtra(EXTRA_WAKTU);
 
-            if (obatId == -1 || obatNama == null || waktu == null) {
-                Log.e(TAG, "Invalid medication reminder data - ObatId: " + obatId +
-                        ", Nama: " + obatNama + ", Waktu: " + waktu);
+            if (jadwalId == -1 && requestCode == -1) {
+                // Alarm dari versi lama tanpa request code; rantai next-due yang mengirim pengingatnya
+                Log.w(TAG, "Ignoring medication reminder without jadwal - Nama: " + obatNama + ", Waktu: " + waktu);
                 return;
             }
 
             Log.d(TAG, "Processing medication reminder - Obat: " + obatNama +
-                    ", Waktu: " + waktu + ", ObatId: " + obatId);
+                    ", Waktu: " + waktu + ", Jadwal: " + jadwalId + ", RequestCode: " + requestCode);
+
+            // Pinjam koneksi sekali untuk seluruh proses reminder ini
+            JadwalHelper jadwalHelper = new JadwalHelper(context);
+            ObatHelper obatHelper = new ObatHelper(context);
+            try {
+                jadwalHelper.open();
+                obatHelper.open();
+
+                // Validate if reminder is still relevant
+                if (jadwalId == -1) {
+                    // Alarm yang dipasang sebelum intent membawa ID jadwal
+                    jadwalId = jadwalHelper.getJadwalIdForRequestCode(requestCode);
+                }
+                if (tanggal == null) {
+                    tanggal = jadwalHelper.getCurrentDate();
+                }
+
+                Jadwal jadwal = findPendingJadwal(jadwalHelper, jadwalId, tanggal);
+                if (jadwal == null) {
+                    Log.d(TAG, "Medication reminder not valid anymore: " + obatNama + " at " + waktu);
+                    return;
+                }
 
-            // Validate if reminder is still relevant
-            if (isValidMedicationReminder(context, obatId, waktu)) {
                 // Get obat details
-                ObatHelper obatHelper = new ObatHelper(context);
-                try {
-                    obatHelper.open();
-                    Obat obat = obatHelper.getObatById(obatId);
-
-                    if (obat != null && obat.isAktif()) {
-                        // Check stock
-                        if (obat.getJumlahObat() <= 0) {
-                            Log.w(TAG, "Obat out of stock, skipping reminder: " + obatNama);
-                            return;
-                        }
-
-                        // Show notification
-                        NotificationHelper notificationHelper = new NotificationHelper(context);
-                        notificationHelper.showMedicationReminder(
-                                obatId,
-                                obatNama,
-                                waktu,
-                                obat.getDosisObat()
-                        );
-
-                        Log.d(TAG, "Medication reminder notification shown for: " + obatNama);
-
-                        // Check low stock warning (<=3 tablet atau <=500mg)
-                        String jenis = obat.getJenisObat().toLowerCase();
-                        int jumlah = obat.getJumlahObat();
-                        boolean lowStock = false;
-                        if (jenis.contains("tablet") && jumlah <= 3) {
-                            lowStock = true;
-                        } else if (jenis.contains("mg") && jumlah <= 500) {
-                            lowStock = true;
-                        }
-                        if (lowStock) {
-                            notificationHelper.showLowStockWarning(obatNama, jumlah);
-                        }
-
-                    } else {
-                        Log.w(TAG, "Obat not found or inactive: " + obatNama + " (ID: " + obatId + ")");
+                Obat obat = obatHelper.getObatById(jadwal.getObatId());
+
+                if (obat != null && obat.isAktif()) {
+                    // Check stock
+                    if (obat.getJumlahObat() <= 0) {
+                        Log.w(TAG, "Obat out of stock, skipping reminder: " + obat.getNamaObat());
+                        return;
                     }
-                } finally {
-                    obatHelper.close();
+
+                    showReminder(new NotificationHelper(context), obat, jadwal, tanggal);
+
+                } else {
+                    Log.w(TAG, "Obat not found or inactive: " + obatNama + " (ID: " + jadwal.getObatId() + ")");
                 }
-            } else {
-                Log.d(TAG, "Medication reminder not valid anymore: " + obatNama + " at " + waktu);
+            } finally {
+                obatHelper.close();
+                jadwalHelper.close();
             }
 
         } catch (Exception e) {
@@ -102,73 +167,76 @@ public class NotificationReceiver extends BroadcastReceiver {
         }
     }
 
-    private boolean isValidMedicationReminder(Context context, int obatId, String waktu) {
-        JadwalHelper jadwalHelper = new JadwalHelper(context);
-        try {
-            jadwalHelper.open();
-
-            // Perform daily reset to ensure data consistency
-            jadwalHelper.checkAndPerformDailyReset();
-            jadwalHelper.autoMarkTerlewatJadwal();
-
-            // Get today's jadwal
-            List<Jadwal> todayJadwal = filterJadwalForToday(jadwalHelper, obatId);
-
-            // Check if this specific jadwal exists and is still pending
-            for (Jadwal jadwal : todayJadwal) {
-                if (jadwal.getObatId() == obatId &&
-                        jadwal.getWaktu().equals(waktu) &&
-                        jadwal.getStatus() == Jadwal.STATUS_BELUM_DIMINUM) {
-
-                    Log.d(TAG, "Found valid pending jadwal for obat " + obatId + " at " + waktu);
-                    return true;
-                }
-            }
-
-            Log.d(TAG, "No valid pending jadwal found for obat " + obatId + " at " + waktu);
-            return false;
+    private void showReminder(NotificationHelper notificationHelper, Obat obat, Jadwal jadwal, String tanggal) {
+        showReminder(notificationHelper, jadwal, tanggal, obat.getId(), obat.getNamaObat(),
+                obat.getDosisObat(), obat.getJenisObat(), obat.getJumlahObat());
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error validating medication reminder: " + e.getMessage(), e);
-            return false;
-        } finally {
-            jadwalHelper.close();
+    private void showReminder(NotificationHelper notificationHelper, Jadwal jadwal, String tanggal,
+                              int obatId, String namaObat, String dosisObat, String jenisObat, int jumlahObat) {
+        // Show notification
+        notificationHelper.showMedicationReminder(
+                jadwal.getId(),
+                tanggal,
+                obatId,
+                namaObat,
+                jadwal.getWaktu(),
+                dosisObat
+        );
+
+        Log.d(TAG, "Medication reminder notification shown for: " + namaObat);
+
+        // Check low stock warning (<=3 tablet atau <=500mg)
+        if (NotificationHelper.isLowStock(jenisObat, jumlahObat)) {
+            notificationHelper.showLowStockWarning(namaObat, jumlahObat);
         }
     }
 
-    private List<Jadwal> filterJadwalForToday(JadwalHelper jadwalHelper, int obatId) {
+    private static int parseJumlahObat(@Nullable String jumlahObat) {
         try {
-            // Get all jadwal for this obat
-            List<Jadwal> allJadwal = jadwalHelper.getJadwalByObatId(obatId);
-
-            // Filter for today only
-            Calendar now = Calendar.getInstance();
-            String currentDay = getCurrentDayName(now);
+            return jumlahObat != null ? Integer.parseInt(jumlahObat) : 0;
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Invalid jumlah obat from pending query: " + jumlahObat);
+            return 0;
+        }
+    }
 
-            return allJadwal.stream()
-                    .filter(jadwal -> {
-                        String jadwalHari = jadwal.getHari();
+    /**
+     * Jadwal milik alarm (satu lookup primary key), jika dosisnya untuk hari ini dan belum diminum
+     */
+    @Nullable
+    private Jadwal findPendingJadwal(JadwalHelper jadwalHelper, int jadwalId, @NonNull String tanggal) {
+        if (jadwalId <= 0) {
+            Log.d(TAG, "Reminder no longer belongs to any jadwal");
+            return null;
+        }
 
-                        // Daily schedule
-                        if (jadwalHari.equalsIgnoreCase("daily") ||
-                                jadwalHari.equalsIgnoreCase("setiap hari") ||
-                                jadwalHari.equalsIgnoreCase("harian")) {
-                            return true;
-                        }
+        // Perform daily reset to ensure data consistency
+        jadwalHelper.checkAndPerformDailyReset();
+        jadwalHelper.autoMarkTerlewatJadwal();
 
-                        // Weekly schedule - check if today matches
-                        return jadwalHari.equalsIgnoreCase(currentDay);
-                    })
-                    .collect(java.util.stream.Collectors.toList());
+        // Alarm yang terlambat sampai lewat tengah malam sudah basi
+        if (!tanggal.equals(jadwalHelper.getCurrentDate())) {
+            Log.d(TAG, "Stale reminder for jadwal " + jadwalId + " on " + tanggal);
+            return null;
+        }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error filtering jadwal for today: " + e.getMessage(), e);
-            return new java.util.ArrayList<>();
+        Jadwal jadwal = jadwalHelper.getJadwalById(jadwalId, tanggal);
+        if (jadwal == null || jadwal.getStatus() != Jadwal.STATUS_BELUM_DIMINUM || !isScheduledToday(jadwal)) {
+            Log.d(TAG, "No valid pending jadwal for jadwal ID: " + jadwalId);
+            return null;
         }
+
+        Log.d(TAG, "Found valid pending jadwal " + jadwalId);
+        return jadwal;
+    }
+
+    private boolean isScheduledToday(Jadwal jadwal) {
+        return jadwal.isScheduledOn(Calendar.getInstance().get(Calendar.DAY_OF_WEEK));
     }
 
-    private String getCurrentDayName(Calendar calendar) {
-        SimpleDateFormat dayFormat = new SimpleDateFormat("EEEE", new Locale("id", "ID"));
-        return dayFormat.format(calendar.getTime());
+    private int getCurrentMinuteOfDay() {
+        Calendar now = Calendar.getInstance();
+        return now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE);
     }
 }
\ No newline at end of file
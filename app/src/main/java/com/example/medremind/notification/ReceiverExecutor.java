@@ -0,0 +1,141 @@
+package com.example.medremind.notification;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor bersama untuk pekerjaan database dari BroadcastReceiver.
+ * Receiver memanggil {@link #runAsync} dari onReceive: broadcast ditahan dengan goAsync(),
+ * pekerjaan dijalankan di thread background, lalu PendingResult diselesaikan
+ * paling lambat {@link #DEADLINE_MS} setelah broadcast diterima.
+ * <p>
+ * Setelah finish() proses boleh dimatikan sistem walaupun pekerjaan masih berjalan. Itu aman karena:
+ * setiap tulisan dari receiver adalah satu statement atau satu transaksi SQLite (recordDoseTaken, sweep terlewat, upsert dose_event),
+ * sehingga proses yang mati di tengah transaksi di-rollback saat database dibuka lagi, tanpa status setengah jadi;
+ * dosis yang belum tercatat tetap "belum diminum" dan diambil lagi oleh alarm berikutnya/sweep.
+ * Yang bisa hilang hanya alarm berikutnya yang belum sempat dipasang, jadi saat batas waktu terlewat
+ * {@link RescheduleWorker} diminta (WorkManager tetap berjalan setelah proses mati) untuk memasang ulang semua alarm.
+ */
+final class ReceiverExecutor {
+    private static final String TAG = "ReceiverExecutor";
+
+    // Sistem memberi ~10 detik untuk broadcast goAsync; sisakan margin
+    static final long DEADLINE_MS = 8_000;
+    // Di atas ini receiver dicatat sebagai lambat
+    static final long SLOW_THRESHOLD_MS = 1_000;
+
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private ReceiverExecutor() {
+    }
+
+    @NonNull
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "receiver-bg-" + threadCount.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                POOL_SIZE, POOL_SIZE,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+                threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Jalankan pekerjaan receiver di background dengan goAsync()
+     * @param receiver Receiver yang sedang berada di onReceive
+     * @param context Application context (untuk reschedule jika batas waktu terlewat)
+     * @param name Nama pekerjaan untuk log dan trace (contoh: "NotificationReceiver:next_due")
+     * @param work Pekerjaan database
+     */
+    static void runAsync(@NonNull BroadcastReceiver receiver, @NonNull Context context,
+                         @NonNull String name, @NonNull Runnable work) {
+        BroadcastReceiver.PendingResult pendingResult = receiver.goAsync();
+        AtomicBoolean finished = new AtomicBoolean(false);
+        long receivedAt = SystemClock.elapsedRealtime();
+
+        // 🔑 Selesaikan broadcast sebelum batas waktu sistem walaupun pekerjaan belum selesai
+        Runnable deadline = () -> {
+            if (finished.compareAndSet(false, true)) {
+                Log.w(TAG, name + " exceeded deadline of " + DEADLINE_MS + "ms, finishing broadcast early");
+                pendingResult.finish();
+                // Proses bisa mati sebelum pekerjaan memasang alarm berikutnya; transaksi yang terputus di-rollback
+                try {
+                    RescheduleWorker.enqueue(context);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error requesting reschedule after " + name + ": " + e.getMessage(), e);
+                }
+            }
+        };
+        MAIN_HANDLER.postDelayed(deadline, DEADLINE_MS);
+
+        try {
+            EXECUTOR.execute(() -> {
+                long startedAt = SystemClock.elapsedRealtime();
+                Trace.beginSection(name);
+                try {
+                    work.run();
+                } catch (Exception e) {
+                    Log.e(TAG, "Error running " + name + ": " + e.getMessage(), e);
+                } finally {
+                    Trace.endSection();
+                    MAIN_HANDLER.removeCallbacks(deadline);
+                    if (finished.compareAndSet(false, true)) {
+                        pendingResult.finish();
+                    }
+                    logTiming(name, startedAt - receivedAt, SystemClock.elapsedRealtime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Antrian penuh: lepaskan broadcast daripada menahannya sampai ANR
+            Log.e(TAG, "Queue full, dropping " + name + " (active: " + EXECUTOR.getActiveCount() +
+                    ", queued: " + EXECUTOR.getQueue().size() + ")");
+            MAIN_HANDLER.removeCallbacks(deadline);
+            if (finished.compareAndSet(false, true)) {
+                pendingResult.finish();
+            }
+        }
+    }
+
+    /**
+     * Jalankan di main thread (contoh: Toast dari pekerjaan background)
+     */
+    static void postToMain(@NonNull Runnable action) {
+        MAIN_HANDLER.post(action);
+    }
+
+    private static void logTiming(@NonNull String name, long queuedMs, long runMs) {
+        long totalMs = queuedMs + runMs;
+        String message = name + " took " + totalMs + "ms (queued " + queuedMs + "ms, run " + runMs + "ms)";
+        if (totalMs >= SLOW_THRESHOLD_MS) {
+            Log.w(TAG, "Slow receiver: " + message);
+        } else {
+            Log.d(TAG, message);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.medremind.notification;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.work.BackoffPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.WorkRequest;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Satu-satunya jalur untuk menjadwalkan ulang semua alarm pengingat.
+ * Permintaan dari activity, fragment dan BootReceiver digabung menjadi satu unique work:
+ * permintaan yang datang selama {@link #COALESCE_WINDOW_MS} ikut run yang sama.
+ */
+public class RescheduleWorker extends Worker {
+    private static final String TAG = "RescheduleWorker";
+
+    @VisibleForTesting
+    static final String UNIQUE_WORK_NAME = "reschedule_alarms";
+
+    // Jendela penggabungan permintaan sebelum run dimulai
+    static final long COALESCE_WINDOW_MS = 2_000;
+
+    // Naik setiap ada permintaan; run yang melihat permintaan baru selama berjalan akan diulang
+    private static final AtomicLong requestedGeneration = new AtomicLong();
+
+    public RescheduleWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    /**
+     * Minta reschedule semua alarm. Aman dipanggil berkali-kali dari main thread.
+     */
+    public static void enqueue(@NonNull Context context) {
+        requestedGeneration.incrementAndGet();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(RescheduleWorker.class)
+                .setInitialDelay(COALESCE_WINDOW_MS, TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.LINEAR, WorkRequest.MIN_BACKOFF_MILLIS, TimeUnit.MILLISECONDS)
+                .build();
+
+        // 🔑 KEEP: jika run masih menunggu, permintaan ini digabung ke run tersebut
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniqueWork(UNIQUE_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        long generation = requestedGeneration.get();
+        long startedAt = System.currentTimeMillis();
+
+        new AlarmScheduler(getApplicationContext()).scheduleAllMedicationReminders();
+
+        Log.d(TAG, "Rescheduled alarms in " + (System.currentTimeMillis() - startedAt) + "ms (attempt " + getRunAttemptCount() + ")");
+
+        // Permintaan yang masuk saat run berjalan tidak bisa digabung dengan KEEP; ulangi sekali lagi
+        if (requestedGeneration.get() != generation) {
+            Log.d(TAG, "Reschedule requested while running, retrying");
+            return Result.retry();
+        }
+        return Result.success();
+    }
+}
@@ -17,19 +17,18 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 
 import com.example.medremind.R;
+import com.example.medremind.data.helper.DbHelper;
 import com.example.medremind.data.helper.JadwalHelper;
 import com.example.medremind.data.helper.ObatHelper;
 import com.example.medremind.data.model.Jadwal;
 import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ScheduleEncoding;
+import com.example.medremind.data.repository.ObservableQuery;
 import com.google.android.material.button.MaterialButton;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -58,6 +57,10 @@ public class DetailJadwalActivity extends AppCompatActivity {
     private ObatHelper obatHelper;
     private JadwalHelper jadwalHelper;
 
+    // Hasil query yang dijalankan ulang otomatis saat tabelnya berubah
+    private ObservableQuery<Obat> obatQuery;
+    private ObservableQuery<List<Jadwal>> jadwalQuery;
+
     // Background executor
     private ExecutorService executor;
 
@@ -81,7 +84,7 @@ public class DetailJadwalActivity extends AppCompatActivity {
         setupClickListeners();
 
         // Load data
-        loadObatDetail();
+        observeObatDetail();
 
         Log.d(TAG, "DetailObatActivity created for obat: " + obatNama);
     }
@@ -179,46 +182,57 @@ public class DetailJadwalActivity extends AppCompatActivity {
         });
     }
 
-    private void loadObatDetail() {
-        // Load data in background
-        executor.execute(() -> {
+    private void observeObatDetail() {
+        obatQuery = new ObservableQuery<>(executor, () -> {
             try {
-                // Open database connections
                 obatHelper.open();
-                jadwalHelper.open();
-
-                // 🔑 Perform daily reset dan auto-mark
-                jadwalHelper.checkAndPerformDailyReset();
-                jadwalHelper.autoMarkTerlewatJadwal();
+                return obatHelper.getObatById(obatId);
+            } finally {
+                obatHelper.close();
+            }
+        }, DbHelper.TABLE_OBAT);
 
-                // Get obat detail
-                obatDetail = obatHelper.getObatById(obatId);
+        // 🔑 Jadwal + status hari ini (reset harian dan auto-mark hanya saat cache tidak berlaku)
+        jadwalQuery = new ObservableQuery<>(executor, () -> {
+            try {
+                return jadwalHelper.getJadwalObatHariIni(obatId);
+            } finally {
+                jadwalHelper.close();
+            }
+        }, DbHelper.TABLE_JADWAL, DbHelper.TABLE_DOSE_EVENT, DbHelper.TABLE_OBAT);
 
-                if (obatDetail == null) {
-                    throw new Exception("Obat tidak ditemukan dengan ID: " + obatId);
+        obatQuery.observe(this, obat -> {
+            if (obat == null) {
+                // Obat dihapus dari halaman ini sendiri: activity sudah ditutup
+                if (!isFinishing()) {
+                    handleLoadError(new Exception("Obat tidak ditemukan dengan ID: " + obatId));
                 }
+                return;
+            }
+            obatDetail = obat;
+            if (jadwalQuery.getValue() != null) {
+                updateUI(obatDetail, jadwalList);
+            }
+        });
 
-                // Get jadwal list
-                jadwalList = jadwalHelper.getJadwalByObatId(obatId);
-
-                // Update UI on main thread
-                runOnUiThread(() -> updateUI(obatDetail, jadwalList));
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading obat detail: " + e.getMessage(), e);
-                runOnUiThread(() -> handleLoadError(e));
-            } finally {
-                // Close database connections
-                try {
-                    obatHelper.close();
-                    jadwalHelper.close();
-                } catch (Exception e) {
-                    Log.e(TAG, "Error closing database: " + e.getMessage(), e);
-                }
+        jadwalQuery.observe(this, jadwal -> {
+            jadwalList = jadwal != null ? jadwal : new ArrayList<>();
+            if (obatDetail != null) {
+                updateUI(obatDetail, jadwalList);
             }
         });
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        // Status jadwal bergantung pada jam; dilayani dari cache jadwal hari ini tanpa query selama masih berlaku
+        if (jadwalQuery != null) {
+            jadwalQuery.refresh();
+        }
+    }
+
     private void updateUI(@NonNull Obat obat, @NonNull List<Jadwal> jadwalList) {
         try {
             // Update basic obat info
@@ -233,11 +247,7 @@ public class DetailJadwalActivity extends AppCompatActivity {
             int jumlahMakan = jadwalList.size();
 
             if (tipeJadwal != null) {
-                if (tipeJadwal.equalsIgnoreCase("harian") || tipeJadwal.equalsIgnoreCase("daily")) {
-                    tvTipeJadwal.setText("Sehari");
-                } else {
-                    tvTipeJadwal.setText("Seminggu");
-                }
+                tvTipeJadwal.setText(obat.isHarian() ? "Sehari" : "Seminggu");
             }
 
             tvJumlahMakan.setText(jumlahMakan + " x");
@@ -278,10 +288,9 @@ public class DetailJadwalActivity extends AppCompatActivity {
         List<Jadwal> weeklyJadwal = filterJadwalForWeek(jadwalList);
 
         // Sort jadwal by time untuk hari ini
-        todayJadwal.sort((j1, j2) -> j1.getWaktu().compareTo(j2.getWaktu()));
+        todayJadwal.sort((j1, j2) -> Integer.compare(j1.getMinuteOfDay(), j2.getMinuteOfDay()));
 
-        Calendar now = Calendar.getInstance();
-        String currentDay = getCurrentDayName(now);
+        int today = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
 
         // 🔑 Add rows untuk jadwal HARI INI dulu
         for (Jadwal jadwal : todayJadwal) {
@@ -292,10 +301,10 @@ public class DetailJadwalActivity extends AppCompatActivity {
 
         // 🔑 Add rows untuk jadwal HARI LAIN dalam seminggu
         for (Jadwal jadwal : weeklyJadwal) {
-            if (!isJadwalForToday(jadwal, currentDay)) {
+            if (!jadwal.isScheduledOn(today)) {
                 // Untuk jadwal hari lain, tampilkan hari dan berapa hari lagi
                 String hariJadwal = jadwal.getHari();
-                int daysDiff = calculateDaysUntilHari(hariJadwal);
+                int daysDiff = ScheduleEncoding.daysUntilNext(jadwal.getDayMask(), today);
 
                 String status = daysDiff + " Hari Lagi";
                 int statusColor = R.color.purple; // Warna untuk jadwal masa depan
@@ -312,22 +321,11 @@ public class DetailJadwalActivity extends AppCompatActivity {
 
     private List<Jadwal> filterJadwalForToday(@NonNull List<Jadwal> jadwalList) {
         List<Jadwal> todayJadwal = new ArrayList<>();
+        int today = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
 
-        // Get current day of week
-        Calendar now = Calendar.getInstance();
-        String currentDay = getCurrentDayName(now);
-
+        // Jadwal harian dan jadwal mingguan yang bit hari ini-nya aktif
         for (Jadwal jadwal : jadwalList) {
-            String jadwalHari = jadwal.getHari();
-
-            // For daily schedule
-            if (jadwalHari.equalsIgnoreCase("daily") ||
-                    jadwalHari.equalsIgnoreCase("setiap hari") ||
-                    jadwalHari.equalsIgnoreCase("harian")) {
-                todayJadwal.add(jadwal);
-            }
-            // For weekly schedule - check if today matches
-            else if (jadwalHari.equalsIgnoreCase(currentDay)) {
+            if (jadwal.isScheduledOn(today)) {
                 todayJadwal.add(jadwal);
             }
         }
@@ -335,11 +333,6 @@ public class DetailJadwalActivity extends AppCompatActivity {
         return todayJadwal;
     }
 
-    private String getCurrentDayName(Calendar calendar) {
-        SimpleDateFormat dayFormat = new SimpleDateFormat("EEEE", new Locale("id", "ID"));
-        return dayFormat.format(calendar.getTime());
-    }
-
     private String calculateJadwalStatus(Jadwal jadwal) {
         try {
             // 🔑 Check status dari database (sudah di-reset daily)
@@ -351,7 +344,7 @@ public class DetailJadwalActivity extends AppCompatActivity {
                 case Jadwal.STATUS_BELUM_DIMINUM:
                 default:
                     // Calculate real-time status
-                    return calculateRealTimeStatus(jadwal.getWaktu());
+                    return calculateRealTimeStatus(jadwal.getMinuteOfDay());
             }
 
         } catch (Exception e) {
@@ -360,18 +353,13 @@ public class DetailJadwalActivity extends AppCompatActivity {
         }
     }
 
-    private String calculateRealTimeStatus(String waktuJadwal) {
+    private String calculateRealTimeStatus(int minuteOfDay) {
         try {
             Calendar now = Calendar.getInstance();
             Calendar jadwalTime = Calendar.getInstance();
 
-            // Parse waktu (format HH:mm)
-            String[] timeParts = waktuJadwal.split(":");
-            int hour = Integer.parseInt(timeParts[0]);
-            int minute = Integer.parseInt(timeParts[1]);
-
-            jadwalTime.set(Calendar.HOUR_OF_DAY, hour);
-            jadwalTime.set(Calendar.MINUTE, minute);
+            jadwalTime.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+            jadwalTime.set(Calendar.MINUTE, minuteOfDay % 60);
             jadwalTime.set(Calendar.SECOND, 0);
 
             long diffMillis = jadwalTime.getTimeInMillis() - now.getTimeInMillis();
@@ -403,90 +391,16 @@ public class DetailJadwalActivity extends AppCompatActivity {
     private List<Jadwal> filterJadwalForWeek(@NonNull List<Jadwal> jadwalList) {
         List<Jadwal> weeklyJadwal = new ArrayList<>();
 
-        String[] validDays = {"Senin", "Selasa", "Rabu", "Kamis", "Jumat", "Sabtu", "Minggu"};
-
         for (Jadwal jadwal : jadwalList) {
-            String jadwalHari = jadwal.getHari();
-
             // Skip daily schedule (sudah dihandle di filterJadwalForToday)
-            if (jadwalHari.equalsIgnoreCase("daily") ||
-                    jadwalHari.equalsIgnoreCase("setiap hari") ||
-                    jadwalHari.equalsIgnoreCase("harian")) {
-                continue;
-            }
-
-            // Check if it's a valid day name
-            for (String day : validDays) {
-                if (jadwalHari.equalsIgnoreCase(day)) {
-                    weeklyJadwal.add(jadwal);
-                    break;
-                }
+            if (!jadwal.isDaily() && jadwal.getDayMask() != ScheduleEncoding.MASK_NONE) {
+                weeklyJadwal.add(jadwal);
             }
         }
 
         return weeklyJadwal;
     }
 
-    /**
-     * Check apakah jadwal ini untuk hari ini
-     */
-    private boolean isJadwalForToday(Jadwal jadwal, String currentDay) {
-        String jadwalHari = jadwal.getHari();
-
-        // Daily schedule selalu untuk hari ini
-        if (jadwalHari.equalsIgnoreCase("daily") ||
-                jadwalHari.equalsIgnoreCase("setiap hari") ||
-                jadwalHari.equalsIgnoreCase("harian")) {
-            return true;
-        }
-
-        // Weekly schedule - check if today matches
-        return jadwalHari.equalsIgnoreCase(currentDay);
-    }
-
-    /**
-     * Hitung berapa hari sampai hari tertentu dalam seminggu
-     */
-    private int calculateDaysUntilHari(@NonNull String targetDay) {
-        try {
-            // Map nama hari ke nomor hari (Calendar format)
-            Map<String, Integer> dayMap = new HashMap<>();
-            dayMap.put("minggu", Calendar.SUNDAY);    // 1
-            dayMap.put("senin", Calendar.MONDAY);     // 2
-            dayMap.put("selasa", Calendar.TUESDAY);   // 3
-            dayMap.put("rabu", Calendar.WEDNESDAY);   // 4
-            dayMap.put("kamis", Calendar.THURSDAY);   // 5
-            dayMap.put("jumat", Calendar.FRIDAY);     // 6
-            dayMap.put("sabtu", Calendar.SATURDAY);   // 7
-
-            Integer targetDayNum = dayMap.get(targetDay.toLowerCase());
-            if (targetDayNum == null) {
-                Log.w(TAG, "Unknown day: " + targetDay);
-                return 0;
-            }
-
-            Calendar now = Calendar.getInstance();
-            int currentDayNum = now.get(Calendar.DAY_OF_WEEK);
-
-            // Hitung selisih hari
-            int daysDiff = targetDayNum - currentDayNum;
-
-            // Jika hari target sudah lewat minggu ini, hitung untuk minggu depan
-            if (daysDiff <= 0) {
-                daysDiff += 7; // Tambah 7 hari untuk minggu depan
-            }
-
-            Log.d(TAG, "Days until " + targetDay + ": " + daysDiff +
-                    " (current: " + currentDayNum + ", target: " + targetDayNum + ")");
-
-            return daysDiff;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error calculating days until " + targetDay + ": " + e.getMessage(), e);
-            return 0;
-        }
-    }
-
     /**
      * Update getStatusColor untuk handle status baru
      */
@@ -666,34 +580,33 @@ public class DetailJadwalActivity extends AppCompatActivity {
     }
 
     private void updateJadwalStatus(int jadwalId, int newStatus, String catatan) {
-        jadwalHelper.open();
-        obatHelper.open();
-        int rowsAffected = jadwalHelper.updateJadwalStatus(jadwalId, newStatus, catatan);
         executor.execute(() -> {
             try {
-
-
-                if (rowsAffected > 0) {
-                    // Reload data
-                    jadwalList = jadwalHelper.getJadwalByObatId(obatId);
-                    obatDetail = obatHelper.getObatById(obatId);
-
-                    runOnUiThread(() -> {
-                        Obat1 = obatDetail; // Update Obat1 reference
-                        populateJadwalTable(jadwalList);
-                        calculateDailyProgress();
-                        updateActionButtons();
-
-                        String statusMsg = newStatus == Jadwal.STATUS_SUDAH_DIMINUM ? "Sudah Diminum" : "Dilewati";
-                        Toast.makeText(this, "Status berhasil diubah: " + statusMsg, Toast.LENGTH_SHORT).show();
-                    });
+                int rowsAffected;
+                boolean stokTidakCukup = false;
+                if (newStatus == Jadwal.STATUS_SUDAH_DIMINUM) {
+                    int sisaStok = jadwalHelper.recordDoseTaken(jadwalId, jadwalHelper.getCurrentDate(), catatan);
+                    stokTidakCukup = sisaStok == JadwalHelper.RECORD_DOSE_STOK_TIDAK_CUKUP;
+                    rowsAffected = sisaStok != JadwalHelper.RECORD_DOSE_GAGAL ? 1 : 0;
                 } else {
-                    runOnUiThread(() ->
-                            Toast.makeText(this, "Gagal mengubah status", Toast.LENGTH_SHORT).show());
+                    rowsAffected = jadwalHelper.updateJadwalStatus(jadwalId, newStatus, catatan);
                 }
-
                 jadwalHelper.close();
 
+                // Tampilan diperbarui oleh obatQuery/jadwalQuery yang menerima notifikasi perubahan
+                boolean finalStokTidakCukup = stokTidakCukup;
+                runOnUiThread(() -> {
+                    if (finalStokTidakCukup) {
+                        // Dosis tetap tercatat; stok dijadikan 0
+                        Toast.makeText(this, "Sudah Diminum dicatat. Stok obat habis, perbarui stok", Toast.LENGTH_LONG).show();
+                    } else if (rowsAffected > 0) {
+                        String statusMsg = newStatus == Jadwal.STATUS_SUDAH_DIMINUM ? "Sudah Diminum" : "Dilewati";
+                        Toast.makeText(this, "Status berhasil diubah: " + statusMsg, Toast.LENGTH_SHORT).show();
+                    } else {
+                        Toast.makeText(this, "Gagal mengubah status", Toast.LENGTH_SHORT).show();
+                    }
+                });
+
             } catch (Exception e) {
                 Log.e(TAG, "Error updating jadwal status: " + e.getMessage(), e);
                 runOnUiThread(() ->
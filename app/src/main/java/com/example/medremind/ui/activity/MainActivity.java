@@ -22,6 +22,7 @@ import androidx.navigation.ui.NavigationUI;
 import com.example.medremind.R;
 import com.example.medremind.notification.AlarmScheduler;
 import com.example.medremind.notification.NotificationHelper;
+import com.example.medremind.notification.RescheduleWorker;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class MainActivity extends AppCompatActivity {
@@ -112,10 +113,8 @@ public class MainActivity extends AppCompatActivity {
     // 🔑 Schedule medication reminders
     private void scheduleReminders() {
         try {
-            if (alarmScheduler != null) {
-                alarmScheduler.scheduleAllMedicationReminders();
-                Log.d(TAG, "Medication reminders scheduled");
-            }
+            RescheduleWorker.enqueue(this);
+            Log.d(TAG, "Medication reminders reschedule requested");
         } catch (Exception e) {
             Log.e(TAG, "Error scheduling reminders: " + e.getMessage(), e);
         }
@@ -1,6 +1,5 @@
 package com.example.medremind.ui.adapter;
 
-import android.content.Context;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -8,193 +7,126 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.medremind.R;
-import com.example.medremind.data.helper.JadwalHelper;
-import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.DailyProgress;
 import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ObatSummary;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
-public class ObatAdapter extends RecyclerView.Adapter<ObatAdapter.ObatViewHolder> {
+/**
+ * Adapter daftar obat di Home. Item berupa {@link ObatSummary} (obat + jumlah jadwal + progress);
+ * perbedaan list dihitung DiffUtil di background sehingga hanya baris yang berubah di-bind ulang.
+ * Data dimuat per halaman: saat baris dekat akhir list di-bind, {@link OnLoadMoreListener} diminta memuat halaman berikutnya.
+ */
+public class ObatAdapter extends ListAdapter<ObatSummary, ObatAdapter.ObatViewHolder> {
     private static final String TAG = "ObatAdapter";
 
-    private List<Obat> obatList;
+    // Payload untuk perubahan yang hanya menyentuh progress harian
+    static final Object PAYLOAD_PROGRESS = new Object();
+
+    // Halaman berikutnya diminta saat baris sejauh ini dari akhir list di-bind
+    private static final int PREFETCH_DISTANCE = 5;
+
     private ObatClickListener listener;
-    private Map<Integer, Integer> jumlahMakanMap = new HashMap<>();
-    private Map<Integer, String> dailyProgressMap = new HashMap<>(); // 🔑 NEW
-    private Context context; // 🔑 NEW
+    private OnLoadMoreListener loadMoreListener;
+    private boolean hasMore = false;
 
     public interface ObatClickListener {
         void onObatClick(Obat obat);
         void onLihatSelengkapnyaClick(Obat obat);
     }
 
-    // 🔑 KEEP original constructor
-    public ObatAdapter() {
-        this.obatList = new ArrayList<>();
+    public interface OnLoadMoreListener {
+        /**
+         * Dipanggil di thread UI; pemanggil menambahkan halaman berikutnya lewat submitList
+         */
+        void onLoadMore();
     }
 
-    // 🔑 NEW METHOD untuk set context (dipanggil setelah constructor)
-    public void setContext(@NonNull Context context) {
-        this.context = context.getApplicationContext();
+    // 🔑 KEEP original constructor
+    public ObatAdapter() {
+        super(DIFF_CALLBACK);
     }
 
     public void setObatClickListener(ObatClickListener listener) {
         this.listener = listener;
     }
 
-    public void setObatList(List<Obat> obatList) {
-        this.obatList = obatList != null ? obatList : new ArrayList<>();
-
-        // Only calculate progress if context is set
-        if (context != null) {
-            calculateAllDailyProgress(); // 🔑 Calculate progress saat set data
-        }
+    public void setOnLoadMoreListener(@Nullable OnLoadMoreListener loadMoreListener) {
+        this.loadMoreListener = loadMoreListener;
+    }
 
-        notifyDataSetChanged();
+    /**
+     * @param hasMore false jika halaman terakhir sudah dimuat
+     */
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
     }
 
-    public void setJumlahMakanMap(Map<Integer, Integer> jumlahMakanMap) {
-        this.jumlahMakanMap = jumlahMakanMap != null ? jumlahMakanMap : new HashMap<>();
-        notifyDataSetChanged();
+    @NonNull
+    @Override
+    public ObatViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_obat, parent, false);
+        return new ObatViewHolder(view);
     }
 
-    // 🔑 NEW METHOD untuk set daily progress map
-    public void setDailyProgressMap(Map<Integer, String> dailyProgressMap) {
-        this.dailyProgressMap = dailyProgressMap != null ? dailyProgressMap : new HashMap<>();
-        notifyDataSetChanged();
+    @Override
+    public void onBindViewHolder(@NonNull ObatViewHolder holder, int position) {
+        holder.bind(getItem(position));
     }
 
-    // 🔑 NEW METHOD untuk calculate semua daily progress
-    private void calculateAllDailyProgress() {
-        if (obatList == null || obatList.isEmpty() || context == null) {
-            return;
+    @Override
+    public void onBindViewHolder(@NonNull ObatViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_PROGRESS)) {
+            // Partial bind: hanya progress yang berubah (contoh: dosis ditandai sudah diminum)
+            holder.bindProgress(getItem(position).getDailyProgress());
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
         }
 
-        dailyProgressMap.clear();
-
-        JadwalHelper jadwalHelper = new JadwalHelper(context);
-        try {
-            jadwalHelper.open();
-
-            // Perform daily reset untuk konsistensi
-            jadwalHelper.checkAndPerformDailyReset();
-            jadwalHelper.autoMarkTerlewatJadwal();
-
-            for (Obat obat : obatList) {
-                String progress = calculateDailyProgressForObat(jadwalHelper, obat.getId());
-                dailyProgressMap.put(obat.getId(), progress);
-            }
-
-            Log.d(TAG, "Calculated daily progress for " + obatList.size() + " obat");
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error calculating daily progress: " + e.getMessage(), e);
-        } finally {
-            jadwalHelper.close();
+        if (hasMore && loadMoreListener != null && position >= getItemCount() - PREFETCH_DISTANCE) {
+            loadMoreListener.onLoadMore();
         }
     }
 
-    // 🔑 NEW METHOD untuk calculate daily progress untuk obat tertentu
-    private String calculateDailyProgressForObat(@NonNull JadwalHelper jadwalHelper, int obatId) {
-        try {
-            // Get jadwal untuk obat ini
-            List<Jadwal> allJadwal = jadwalHelper.getJadwalByObatId(obatId);
-
-            if (allJadwal.isEmpty()) {
-                return "0/0";
-            }
-
-            // Filter untuk jadwal hari ini
-            List<Jadwal> todayJadwal = filterJadwalForToday(allJadwal);
-
-            if (todayJadwal.isEmpty()) {
-                return "0/0";
-            }
-
-            // Hitung completed vs total
-            int completed = 0;
-            int total = todayJadwal.size();
-
-            for (Jadwal jadwal : todayJadwal) {
-                if (jadwal.getStatus() == Jadwal.STATUS_SUDAH_DIMINUM) {
-                    completed++;
-                }
-            }
-
-            return completed + "/" + total;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error calculating progress for obat " + obatId + ": " + e.getMessage(), e);
-            return "0/0";
+    private static final DiffUtil.ItemCallback<ObatSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<ObatSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ObatSummary oldItem, @NonNull ObatSummary newItem) {
+            return oldItem.getObat().getId() == newItem.getObat().getId();
         }
-    }
-
-    // 🔑 NEW METHOD untuk filter jadwal hari ini (sama seperti di DetailObatActivity)
-    private List<Jadwal> filterJadwalForToday(@NonNull List<Jadwal> jadwalList) {
-        List<Jadwal> todayJadwal = new ArrayList<>();
-
-        // Get current day of week
-        Calendar now = Calendar.getInstance();
-        String currentDay = getCurrentDayName(now);
 
-        for (Jadwal jadwal : jadwalList) {
-            String jadwalHari = jadwal.getHari();
+        @Override
+        public boolean areContentsTheSame(@NonNull ObatSummary oldItem, @NonNull ObatSummary newItem) {
+            return isSameObatContent(oldItem, newItem)
+                    && oldItem.getDailyProgress().equals(newItem.getDailyProgress());
+        }
 
-            // For daily schedule
-            if (jadwalHari.equalsIgnoreCase("daily") ||
-                    jadwalHari.equalsIgnoreCase("setiap hari") ||
-                    jadwalHari.equalsIgnoreCase("harian")) {
-                todayJadwal.add(jadwal);
-            }
-            // For weekly schedule - check if today matches
-            else if (jadwalHari.equalsIgnoreCase(currentDay)) {
-                todayJadwal.add(jadwal);
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull ObatSummary oldItem, @NonNull ObatSummary newItem) {
+            if (isSameObatContent(oldItem, newItem)) {
+                return PAYLOAD_PROGRESS;
             }
+            return null; // Full rebind
         }
 
-        return todayJadwal;
-    }
-
-    // 🔑 NEW METHOD untuk get nama hari saat ini
-    private String getCurrentDayName(Calendar calendar) {
-        SimpleDateFormat dayFormat = new SimpleDateFormat("EEEE", new Locale("id", "ID"));
-        return dayFormat.format(calendar.getTime());
-    }
-
-    // 🔑 NEW METHOD untuk refresh progress (dipanggil dari fragment/activity)
-    public void refreshDailyProgress() {
-        if (context != null) {
-            calculateAllDailyProgress();
-            notifyDataSetChanged();
+        private boolean isSameObatContent(@NonNull ObatSummary oldItem, @NonNull ObatSummary newItem) {
+            Obat oldObat = oldItem.getObat();
+            Obat newObat = newItem.getObat();
+            return oldItem.getJumlahJadwal() == newItem.getJumlahJadwal()
+                    && oldObat.getJumlahObat() == newObat.getJumlahObat()
+                    && oldObat.getNamaObat().equals(newObat.getNamaObat())
+                    && oldObat.getDosisObat().equals(newObat.getDosisObat())
+                    && oldObat.getTipeJadwal().equals(newObat.getTipeJadwal());
         }
-    }
-
-    @NonNull
-    @Override
-    public ObatViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_obat, parent, false);
-        return new ObatViewHolder(view);
-    }
-
-    @Override
-    public void onBindViewHolder(@NonNull ObatViewHolder holder, int position) {
-        holder.bind(obatList.get(position));
-    }
-
-    @Override
-    public int getItemCount() {
-        return obatList.size();
-    }
+    };
 
     public class ObatViewHolder extends RecyclerView.ViewHolder {
         private TextView tvJumlahMakan;
@@ -219,19 +151,21 @@ public class ObatAdapter extends RecyclerView.Adapter<ObatAdapter.ObatViewHolder
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onObatClick(obatList.get(position));
+                    listener.onObatClick(getItem(position).getObat());
                 }
             });
 
             tvLihatSelengkapnya.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && listener != null) {
-                    listener.onLihatSelengkapnyaClick(obatList.get(position));
+                    listener.onLihatSelengkapnyaClick(getItem(position).getObat());
                 }
             });
         }
 
-        public void bind(Obat obat) {
+        public void bind(ObatSummary summary) {
+            Obat obat = summary.getObat();
+
             // Set data ke views
             tvNamaObat.setText(obat.getNamaObat());
             tvDosisObat.setText(obat.getDosisObat());
@@ -239,28 +173,20 @@ public class ObatAdapter extends RecyclerView.Adapter<ObatAdapter.ObatViewHolder
             // Set tipe jadwal
             String tipeJadwal = obat.getTipeJadwal();
             if (tipeJadwal != null) {
-                if (tipeJadwal.equalsIgnoreCase("harian") || tipeJadwal.equalsIgnoreCase("daily")) {
-                    tvTipeJadwal.setText("Sehari");
-                } else {
-                    tvTipeJadwal.setText("Seminggu");
-                }
+                tvTipeJadwal.setText(obat.isHarian() ? "Sehari" : "Seminggu");
             }
 
-            // Set jumlah makan dari map
-            int jumlahMakan = 0;
-            if (jumlahMakanMap != null && jumlahMakanMap.containsKey(obat.getId())) {
-                jumlahMakan = jumlahMakanMap.get(obat.getId());
-            }
-            tvJumlahMakan.setText(jumlahMakan + " x");
+            // Set jumlah makan
+            tvJumlahMakan.setText(summary.getJumlahJadwal() + " x");
 
-            // 🔑 Set daily progress dari map
-            String dailyProgress = "0/0";
-            if (dailyProgressMap != null && dailyProgressMap.containsKey(obat.getId())) {
-                dailyProgress = dailyProgressMap.get(obat.getId());
-            }
-            tvDailyProgress.setText(dailyProgress);
+            bindProgress(summary.getDailyProgress());
+
+            Log.d(TAG, "Bind obat " + obat.getNamaObat() + " - Progress: " + summary.getDailyProgress().getText());
+        }
 
-            Log.d(TAG, "Bind obat " + obat.getNamaObat() + " - Progress: " + dailyProgress);
+        // 🔑 Set daily progress dari snapshot
+        public void bindProgress(@NonNull DailyProgress dailyProgress) {
+            tvDailyProgress.setText(dailyProgress.getText());
         }
     }
-}
\ No newline at end of file
+}
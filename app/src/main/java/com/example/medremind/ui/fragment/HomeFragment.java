@@ -11,24 +11,23 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.medremind.R;
-import com.example.medremind.data.helper.ObatHelper;
-import com.example.medremind.data.helper.JadwalHelper;
 import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ObatSummary;
+import com.example.medremind.data.repository.HomeSummaryRepository;
+import com.example.medremind.notification.RescheduleWorker;
 import com.example.medremind.ui.activity.DetailJadwalActivity;
-import com.example.medremind.ui.activity.MainActivity;
 import com.example.medremind.ui.adapter.ObatAdapter;
+import com.example.medremind.ui.viewmodel.HomeViewModel;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListener {
     private static final String TAG = "HomeFragment";
@@ -39,12 +38,11 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
     private SwipeRefreshLayout swipeRefreshLayout;
     private ObatAdapter adapter;
 
-    // Database helpers
-    private ObatHelper obatHelper;
-    private JadwalHelper jadwalHelper;
+    // Data source (query dan executor hidup di ViewModel, bertahan saat pindah tab)
+    private HomeViewModel viewModel;
 
-    // Background executor
-    private ExecutorService executor;
+    // Paging: halaman berikutnya sedang dimuat
+    private boolean loadingPage = false;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -59,6 +57,7 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
         initializeComponents(view);
         setupRecyclerView();
         setupSwipeRefresh();
+        observeObatData();
 
         Log.d(TAG, "HomeFragment initialized successfully");
     }
@@ -74,20 +73,14 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
 //            Log.d(TAG, "SwipeRefreshLayout not found in layout, using manual refresh");
 //        }
 
-        // Initialize database helpers
-        obatHelper = new ObatHelper(requireContext());
-        jadwalHelper = new JadwalHelper(requireContext());
-
-        // Initialize executor for background tasks
-        executor = Executors.newSingleThreadExecutor();
+        // Initialize data source
+        viewModel = new ViewModelProvider(this).get(HomeViewModel.class);
     }
 
     private void setupRecyclerView() {
         adapter = new ObatAdapter();
         adapter.setObatClickListener(this);
-
-        // 🔑 Set context ke adapter setelah constructor
-        adapter.setContext(requireContext());
+        adapter.setOnLoadMoreListener(this::loadNextPage);
 
         rvObat.setLayoutManager(new LinearLayoutManager(requireContext()));
         rvObat.setAdapter(adapter);
@@ -98,7 +91,7 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
 
     private void setupSwipeRefresh() {
         if (swipeRefreshLayout != null) {
-            swipeRefreshLayout.setOnRefreshListener(this::loadObatData);
+            swipeRefreshLayout.setOnRefreshListener(this::reloadObatData);
             swipeRefreshLayout.setColorSchemeResources(
                     R.color.green,
                     android.R.color.holo_blue_bright,
@@ -108,7 +101,82 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
         }
     }
 
-    private void loadObatData() {
+    private void observeObatData() {
+        // Observer aktif mulai onStart: kembali ke halaman ini tanpa perubahan data tidak menjalankan query
+        viewModel.getSummaries().observe(getViewLifecycleOwner(), summaries -> {
+            if (swipeRefreshLayout != null) {
+                swipeRefreshLayout.setRefreshing(false);
+            }
+            if (summaries == null) {
+                return;
+            }
+
+            viewModel.setLoadedCount(summaries.size());
+            // Halaman penuh: mungkin masih ada halaman berikutnya
+            adapter.setHasMore(summaries.size() >= HomeSummaryRepository.PAGE_SIZE);
+            updateUI(summaries);
+            // Alarm hanya disegarkan jika obat/jadwal benar-benar berubah, bukan saat nilai lama dikirim ke view baru
+            if (viewModel.consumeScheduleChange()) {
+                refreshNotificationAlarms();
+            }
+        });
+    }
+
+    /**
+     * Muat halaman berikutnya setelah item terakhir yang tampil (dipanggil adapter saat mendekati akhir list)
+     */
+    private void loadNextPage() {
+        if (loadingPage || adapter == null || viewModel == null) {
+            return;
+        }
+
+        List<ObatSummary> current = adapter.getCurrentList();
+        if (current.isEmpty()) {
+            return;
+        }
+
+        loadingPage = true;
+        ObatSummary last = current.get(current.size() - 1);
+
+        viewModel.loadPageAfter(last, new HomeViewModel.PageCallback() {
+            @Override
+            public void onPageLoaded(@NonNull List<ObatSummary> page) {
+                // 🔑 CHECK: Fragment masih attached? Flag tetap dilepas agar halaman berikutnya bisa dimuat
+                if (!isAdded() || getActivity() == null) {
+                    loadingPage = false;
+                    return;
+                }
+                appendPage(current, page);
+            }
+
+            @Override
+            public void onPageFailed() {
+                loadingPage = false;
+            }
+        });
+    }
+
+    private void appendPage(@NonNull List<ObatSummary> base, @NonNull List<ObatSummary> page) {
+        loadingPage = false;
+
+        // 🔑 CHECK: List sudah diganti hasil query ulang? Halaman ini dihitung dari list lama
+        if (adapter == null || adapter.getCurrentList() != base) {
+            return;
+        }
+
+        List<ObatSummary> merged = new ArrayList<>(base.size() + page.size());
+        merged.addAll(base);
+        merged.addAll(page);
+
+        viewModel.setLoadedCount(merged.size());
+        adapter.setHasMore(page.size() >= HomeSummaryRepository.PAGE_SIZE);
+        if (!page.isEmpty()) {
+            showObatList(merged);
+        }
+        Log.d(TAG, "Loaded page of " + page.size() + " obat, total " + merged.size());
+    }
+
+    private void reloadObatData() {
         // 🔑 CHECK: Fragment masih attached?
         if (!isAdded() || getContext() == null) {
             Log.w(TAG, "Fragment not attached, skipping data load");
@@ -120,59 +188,10 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
             swipeRefreshLayout.setRefreshing(true);
         }
 
-        // Load data in background thread
-        executor.execute(() -> {
-            try {
-                // Open database connections
-                obatHelper.open();
-                jadwalHelper.open();
-
-                // Get obat list
-                List<Obat> obatList = obatHelper.getAllObat(true); // Only active obat
-
-                // Calculate jadwal count for each obat
-                Map<Integer, Integer> jumlahMakanMap = new HashMap<>();
-                for (Obat obat : obatList) {
-                    int count = jadwalHelper.getJadwalByObatId(obat.getId()).size();
-                    jumlahMakanMap.put(obat.getId(), count);
-                }
-
-                // 🔑 CHECK: Fragment masih attached sebelum update UI?
-                if (isAdded() && getActivity() != null) {
-                    getActivity().runOnUiThread(() -> updateUI(obatList, jumlahMakanMap));
-                } else {
-                    Log.w(TAG, "Fragment detached during data loading");
-                }
-
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading obat data: " + e.getMessage(), e);
-
-                // 🔑 SAFE: Only update UI if fragment still attached
-                if (isAdded() && getActivity() != null) {
-                    getActivity().runOnUiThread(() -> handleLoadError(e));
-                }
-            } finally {
-                // Close database connections
-                try {
-                    obatHelper.close();
-                    jadwalHelper.close();
-                } catch (Exception e) {
-                    Log.e(TAG, "Error closing database: " + e.getMessage(), e);
-                }
-
-                // 🔑 SAFE: Hide loading indicator jika fragment masih attached
-                if (isAdded() && getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        if (swipeRefreshLayout != null) {
-                            swipeRefreshLayout.setRefreshing(false);
-                        }
-                    });
-                }
-            }
-        });
+        viewModel.refresh();
     }
 
-    private void updateUI(@NonNull List<Obat> obatList, @NonNull Map<Integer, Integer> jumlahMakanMap) {
+    private void updateUI(@NonNull List<ObatSummary> summaries) {
         try {
             // 🔑 CHECK: Fragment masih attached?
             if (!isAdded() || getContext() == null) {
@@ -186,13 +205,13 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
                 return;
             }
 
-            if (obatList.isEmpty()) {
+            if (summaries.isEmpty()) {
                 showEmptyState();
             } else {
-                showObatList(obatList, jumlahMakanMap);
+                showObatList(summaries);
             }
 
-            Log.d(TAG, "UI updated successfully with " + obatList.size() + " obat");
+            Log.d(TAG, "UI updated successfully with " + summaries.size() + " obat");
 
         } catch (Exception e) {
             Log.e(TAG, "Error updating UI: " + e.getMessage(), e);
@@ -225,7 +244,7 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
         }
     }
 
-    private void showObatList(@NonNull List<Obat> obatList, @NonNull Map<Integer, Integer> jumlahMakanMap) {
+    private void showObatList(@NonNull List<ObatSummary> summaries) {
         try {
             // 🔑 CHECK: Views exist?
             if (tvEmpty == null || rvObat == null || adapter == null) {
@@ -236,54 +255,16 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
             tvEmpty.setVisibility(View.GONE);
             rvObat.setVisibility(View.VISIBLE);
 
-            adapter.setObatList(obatList);
-            adapter.setJumlahMakanMap(jumlahMakanMap);
+            // Diff dihitung di background, hanya baris yang berubah di-bind ulang
+            adapter.submitList(summaries);
 
-            Log.d(TAG, "Obat list shown with " + obatList.size() + " items");
+            Log.d(TAG, "Obat list shown with " + summaries.size() + " items");
 
         } catch (Exception e) {
             Log.e(TAG, "Error showing obat list: " + e.getMessage(), e);
         }
     }
 
-    private void handleLoadError(@NonNull Exception e) {
-        try {
-            Log.e(TAG, "Failed to load obat data: " + e.getMessage(), e);
-
-            // 🔑 SAFE: Only show toast if fragment attached
-            if (isAdded() && getContext() != null) {
-                Toast.makeText(getContext(),
-                        "Gagal memuat data: " + e.getMessage(),
-                        Toast.LENGTH_LONG).show();
-            }
-
-            // 🔑 CHECK: Views exist before showing error state?
-            if (tvEmpty != null && rvObat != null) {
-                tvEmpty.setVisibility(View.VISIBLE);
-                rvObat.setVisibility(View.GONE);
-                tvEmpty.setText("Error memuat data.\nTarik ke bawah untuk mencoba lagi.");
-            }
-
-        } catch (Exception ex) {
-            Log.e(TAG, "Error in handleLoadError: " + ex.getMessage(), ex);
-        }
-    }
-
-    @Override
-    public void onResume() {
-        super.onResume();
-
-        // 🔑 CHECK: Fragment attached dan views initialized?
-        if (isAdded() && getContext() != null && tvEmpty != null && rvObat != null) {
-            loadObatData();
-            refreshNotificationAlarms();
-            refreshObatProgress();
-            Log.d(TAG, "HomeFragment resumed, loading data and refreshing notifications");
-        } else {
-            Log.w(TAG, "HomeFragment resumed but not ready for data loading");
-        }
-    }
-
     @Override
     public void onObatClick(@NonNull Obat obat) {
         try {
@@ -325,31 +306,14 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
                 return;
             }
 
-            if (getActivity() instanceof MainActivity) {
-                MainActivity mainActivity = (MainActivity) getActivity();
-                if (mainActivity.getAlarmScheduler() != null) {
-                    mainActivity.getAlarmScheduler().scheduleAllMedicationReminders();
-                    Log.d(TAG, "Notification alarms refreshed");
-                }
-            }
+            // Digabung dengan permintaan lain (MainActivity, simpan jadwal) menjadi satu run
+            RescheduleWorker.enqueue(requireContext());
+            Log.d(TAG, "Notification alarms refresh requested");
         } catch (Exception e) {
             Log.e(TAG, "Error refreshing notification alarms: " + e.getMessage(), e);
         }
     }
 
-    private void refreshObatProgress() {
-        try {
-            if (adapter != null && adapter.getClass().getMethod("refreshDailyProgress") != null) {
-                adapter.refreshDailyProgress();
-                Log.d(TAG, "Obat progress refreshed");
-            }
-        } catch (NoSuchMethodException e) {
-            Log.d(TAG, "refreshDailyProgress method not found in adapter");
-        } catch (Exception e) {
-            Log.e(TAG, "Error refreshing obat progress: " + e.getMessage(), e);
-        }
-    }
-
     private void navigateToJadwalDetail(@NonNull Obat obat) {
         try {
             Bundle bundle = new Bundle();
@@ -374,46 +338,21 @@ public class HomeFragment extends Fragment implements ObatAdapter.ObatClickListe
     public void onDestroyView() {
         super.onDestroyView();
 
-        // Shutdown executor
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
+        // Executor dan query milik ViewModel, tidak dimatikan di sini
 
         // Clear adapter
         if (adapter != null) {
             adapter.setObatClickListener(null);
+            adapter.setOnLoadMoreListener(null);
             adapter = null;
         }
 
-        // Close database connections if still open
-        try {
-            if (obatHelper != null && obatHelper.isOpen()) {
-                obatHelper.close();
-            }
-            if (jadwalHelper != null && jadwalHelper.isOpen()) {
-                jadwalHelper.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error closing database in onDestroyView: " + e.getMessage(), e);
-        }
-
         // Clear references
         rvObat = null;
         tvEmpty = null;
         swipeRefreshLayout = null;
-        obatHelper = null;
-        jadwalHelper = null;
+        loadingPage = false;
 
         Log.d(TAG, "HomeFragment destroyed");
     }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-
-        // Final cleanup
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdownNow();
-        }
-    }
 }
\ No newline at end of file
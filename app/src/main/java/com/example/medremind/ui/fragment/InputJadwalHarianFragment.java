@@ -21,15 +21,15 @@ import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 
 import com.example.medremind.R;
-import com.example.medremind.data.helper.JadwalHelper;
-import com.example.medremind.data.helper.ObatHelper;
 import com.example.medremind.data.model.Jadwal;
 import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.repository.ObatRepository;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -46,9 +46,8 @@ public class InputJadwalHarianFragment extends Fragment {
     private ArrayList<String> jamList = new ArrayList<>();
     private Set<String> uniqueTimeSet = new HashSet<>(); // Prevent duplicate times
 
-    // Database helpers
-    private ObatHelper obatHelper;
-    private JadwalHelper jadwalHelper;
+    // Repository untuk simpan obat + jadwal dalam satu transaksi
+    private ObatRepository obatRepository;
 
     // Background executor
     private ExecutorService executor;
@@ -82,9 +81,8 @@ public class InputJadwalHarianFragment extends Fragment {
         btnTambahJam = view.findViewById(R.id.btn_tambah_jam);
         btnSimpan = view.findViewById(R.id.btn_simpan_harian);
 
-        // Initialize database helpers
-        obatHelper = new ObatHelper(requireContext());
-        jadwalHelper = new JadwalHelper(requireContext());
+        // Initialize repository
+        obatRepository = new ObatRepository(requireContext());
 
         // Initialize executor
         executor = Executors.newSingleThreadExecutor();
@@ -291,10 +289,6 @@ public class InputJadwalHarianFragment extends Fragment {
 
     private void saveJadwalHarian() {
         try {
-            // Open database connections
-            obatHelper.open();
-            jadwalHelper.open();
-
             // Create Obat object
             Obat obat = new Obat(
                     obatData.namaObat,
@@ -305,35 +299,22 @@ public class InputJadwalHarianFragment extends Fragment {
                     obatData.tipeJadwal
             );
 
-            // Insert obat first
-            long obatId = obatHelper.insertObat(obat);
-
-            if (obatId == -1) {
-                throw new Exception("Gagal menyimpan data obat");
-            }
-
-            // Use array wrapper untuk variable yang akan diakses di lambda
-            final int[] successCount = {0}; // Array wrapper
-
-            // Insert jadwal for each time
+            // Jadwal for each time (obat ID diisi repository)
+            List<Jadwal> jadwalList = new ArrayList<>(jamList.size());
             for (String jam : jamList) {
-                Jadwal jadwal = new Jadwal((int) obatId, HARI_DAILY, jam);
-                long jadwalId = jadwalHelper.tambahJadwal(jadwal);
-
-                if (jadwalId != -1) {
-                    successCount[0]++; // Access array element
-                }
+                jadwalList.add(new Jadwal(HARI_DAILY, jam));
             }
 
-            // Check if all schedules were saved
-            if (successCount[0] != jamList.size()) {
-                Log.w(TAG, "Not all schedules saved. Expected: " + jamList.size() + ", Actual: " + successCount[0]);
+            // 🔑 Obat + semua jadwal dalam satu transaksi, alarm langsung dipasang
+            List<Integer> jadwalIds = obatRepository.createObatWithSchedules(obat, jadwalList);
+            if (jadwalIds.isEmpty()) {
+                throw new Exception("Gagal menyimpan data obat");
             }
 
-            Log.d(TAG, "Jadwal harian saved successfully. Obat ID: " + obatId + ", Schedules: " + successCount[0]);
+            Log.d(TAG, "Jadwal harian saved successfully. Obat ID: " + obat.getId() + ", Schedules: " + jadwalIds);
 
             // Create final variable untuk lambda
-            final int finalSuccessCount = successCount[0];
+            final int finalSuccessCount = jadwalIds.size();
 
             // Update UI on main thread
             if (getActivity() != null) {
@@ -346,14 +327,6 @@ public class InputJadwalHarianFragment extends Fragment {
             if (getActivity() != null) {
                 getActivity().runOnUiThread(() -> handleSaveError(e));
             }
-        } finally {
-            // Close database connections
-            try {
-                obatHelper.close();
-                jadwalHelper.close();
-            } catch (Exception e) {
-                Log.e(TAG, "Error closing database: " + e.getMessage(), e);
-            }
         }
     }
 
@@ -412,24 +385,11 @@ public class InputJadwalHarianFragment extends Fragment {
             executor.shutdown();
         }
 
-        // Close database connections if still open
-        try {
-            if (obatHelper != null && obatHelper.isOpen()) {
-                obatHelper.close();
-            }
-            if (jadwalHelper != null && jadwalHelper.isOpen()) {
-                jadwalHelper.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error closing database in onDestroyView: " + e.getMessage(), e);
-        }
-
         // Clear references
         jamContainer = null;
         btnTambahJam = null;
         btnSimpan = null;
-        obatHelper = null;
-        jadwalHelper = null;
+        obatRepository = null;
         jamList = null;
         uniqueTimeSet = null;
         obatData = null;
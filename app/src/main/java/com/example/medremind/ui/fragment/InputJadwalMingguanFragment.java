@@ -20,15 +20,16 @@ import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 
 import com.example.medremind.R;
-import com.example.medremind.data.helper.JadwalHelper;
-import com.example.medremind.data.helper.ObatHelper;
 import com.example.medremind.data.model.Jadwal;
 import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.repository.ObatRepository;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -45,9 +46,8 @@ public class InputJadwalMingguanFragment extends Fragment {
     private final Map<String, TextInputEditText> hariJamMap = new HashMap<>();
     private final Map<String, CheckBox> hariCheckBoxMap = new HashMap<>();
 
-    // Database helpers
-    private ObatHelper obatHelper;
-    private JadwalHelper jadwalHelper;
+    // Repository untuk simpan obat + jadwal dalam satu transaksi
+    private ObatRepository obatRepository;
 
     // Background executor
     private ExecutorService executor;
@@ -78,9 +78,8 @@ public class InputJadwalMingguanFragment extends Fragment {
         hariGrid = view.findViewById(R.id.hari_grid_container);
         btnSimpan = view.findViewById(R.id.btn_simpan_mingguan);
 
-        // Initialize database helpers
-        obatHelper = new ObatHelper(requireContext());
-        jadwalHelper = new JadwalHelper(requireContext());
+        // Initialize repository
+        obatRepository = new ObatRepository(requireContext());
 
         // Initialize executor
         executor = Executors.newSingleThreadExecutor();
@@ -272,10 +271,6 @@ public class InputJadwalMingguanFragment extends Fragment {
 
     private void saveJadwalMingguan(@NonNull Map<String, String> hasil) {
         try {
-            // Open database connections
-            obatHelper.open();
-            jadwalHelper.open();
-
             // Create Obat object
             Obat obat = new Obat(
                     obatData.namaObat,
@@ -286,40 +281,22 @@ public class InputJadwalMingguanFragment extends Fragment {
                     obatData.tipeJadwal
             );
 
-            // Insert obat first
-            long obatId = obatHelper.insertObat(obat);
-
-            if (obatId == -1) {
-                throw new Exception("Gagal menyimpan data obat");
-            }
-
-            // Use array wrapper untuk variable yang akan diakses di lambda
-            final int[] successCount = {0}; // Array wrapper
-
-            // Insert jadwal for each selected day
+            // Jadwal for each selected day (obat ID diisi repository)
+            List<Jadwal> jadwalList = new ArrayList<>(hasil.size());
             for (Map.Entry<String, String> entry : hasil.entrySet()) {
-                String hari = entry.getKey();
-                String jam = entry.getValue();
-
-                Jadwal jadwal = new Jadwal((int) obatId, hari, jam);
-                long jadwalId = jadwalHelper.tambahJadwal(jadwal);
-
-                if (jadwalId != -1) {
-                    successCount[0]++; // Access array element
-                } else {
-                    Log.w(TAG, "Failed to save schedule for " + hari + " at " + jam);
-                }
+                jadwalList.add(new Jadwal(entry.getKey(), entry.getValue()));
             }
 
-            // Check if all schedules were saved
-            if (successCount[0] != hasil.size()) {
-                Log.w(TAG, "Not all schedules saved. Expected: " + hasil.size() + ", Actual: " + successCount[0]);
+            // 🔑 Obat + semua jadwal dalam satu transaksi, alarm langsung dipasang
+            List<Integer> jadwalIds = obatRepository.createObatWithSchedules(obat, jadwalList);
+            if (jadwalIds.isEmpty()) {
+                throw new Exception("Gagal menyimpan jadwal obat");
             }
 
-            Log.d(TAG, "Jadwal mingguan saved successfully. Obat ID: " + obatId + ", Schedules: " + successCount[0]);
+            Log.d(TAG, "Jadwal mingguan saved successfully. Obat ID: " + obat.getId() + ", Schedules: " + jadwalIds);
 
             // Create final variables untuk lambda
-            final int finalSuccessCount = successCount[0];
+            final int finalSuccessCount = jadwalIds.size();
             final Map<String, String> finalHasil = new HashMap<>(hasil);
 
             // Update UI on main thread
@@ -333,14 +310,6 @@ public class InputJadwalMingguanFragment extends Fragment {
             if (getActivity() != null) {
                 getActivity().runOnUiThread(() -> handleSaveError(e));
             }
-        } finally {
-            // Close database connections
-            try {
-                obatHelper.close();
-                jadwalHelper.close();
-            } catch (Exception e) {
-                Log.e(TAG, "Error closing database: " + e.getMessage(), e);
-            }
         }
     }
 
@@ -406,23 +375,10 @@ public class InputJadwalMingguanFragment extends Fragment {
             executor.shutdown();
         }
 
-        // Close database connections if still open
-        try {
-            if (obatHelper != null && obatHelper.isOpen()) {
-                obatHelper.close();
-            }
-            if (jadwalHelper != null && jadwalHelper.isOpen()) {
-                jadwalHelper.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error closing database in onDestroyView: " + e.getMessage(), e);
-        }
-
         // Clear references
         hariGrid = null;
         btnSimpan = null;
-        obatHelper = null;
-        jadwalHelper = null;
+        obatRepository = null;
         hariJamMap.clear();
         hariCheckBoxMap.clear();
         obatData = null;
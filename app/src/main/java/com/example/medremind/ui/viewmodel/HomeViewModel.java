@@ -0,0 +1,129 @@
+package com.example.medremind.ui.viewmodel;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+
+import com.example.medremind.data.helper.DataChangeNotifier;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.model.ObatSummary;
+import com.example.medremind.data.repository.HomeSummaryRepository;
+import com.example.medremind.data.repository.ObservableQuery;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Data halaman Home yang bertahan selama pindah tab/rotasi: query ringkasan obat dan executornya
+ * hidup sepanjang ViewModel, jadi view yang dibuat ulang langsung memakai hasil terakhir tanpa query.
+ */
+public class HomeViewModel extends AndroidViewModel {
+    private static final String TAG = "HomeViewModel";
+
+    /**
+     * Hasil {@link #loadPageAfter}; tepat satu method dipanggil, di main thread
+     */
+    public interface PageCallback {
+        void onPageLoaded(@NonNull List<ObatSummary> page);
+
+        /**
+         * Halaman tidak dimuat (ViewModel sudah dibersihkan atau query gagal)
+         */
+        void onPageFailed();
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final HomeSummaryRepository summaryRepository;
+    private final ObservableQuery<List<ObatSummary>> summaryQuery;
+    private final DataChangeNotifier notifier = DataChangeNotifier.getInstance();
+
+    // Paging: jumlah baris yang sudah tampil (dimuat ulang sekaligus saat data berubah)
+    private volatile int loadedCount = HomeSummaryRepository.PAGE_SIZE;
+
+    // Versi obat + jadwal saat emisi terakhir ditangani (hanya diakses di main thread)
+    private long handledScheduleVersion;
+
+    public HomeViewModel(@NonNull Application application) {
+        super(application);
+        summaryRepository = new HomeSummaryRepository(application);
+
+        // Satu query agregat per halaman: obat aktif + jumlah jadwal + progress hari ini.
+        // Hanya dijalankan ulang jika obat/jadwal/dose_event berubah atau tanggal berganti;
+        // saat itu semua baris yang sudah tampil dimuat ulang dalam satu query
+        summaryQuery = new ObservableQuery<>(executor,
+                () -> summaryRepository.getActiveObatSummaryPage(null,
+                        Math.max(HomeSummaryRepository.PAGE_SIZE, loadedCount)),
+                DbHelper.TABLE_OBAT, DbHelper.TABLE_JADWAL, DbHelper.TABLE_DOSE_EVENT);
+
+        handledScheduleVersion = currentScheduleVersion();
+    }
+
+    @NonNull
+    public LiveData<List<ObatSummary>> getSummaries() {
+        return summaryQuery;
+    }
+
+    /**
+     * Muat ulang walaupun tabel tidak berubah (pull-to-refresh)
+     */
+    public void refresh() {
+        summaryQuery.refresh();
+    }
+
+    public void setLoadedCount(int count) {
+        loadedCount = count;
+    }
+
+    /**
+     * Muat satu halaman setelah {@code last} di executor yang sama dengan query utama
+     */
+    public void loadPageAfter(@NonNull ObatSummary last, @NonNull PageCallback callback) {
+        try {
+            executor.execute(() -> {
+                try {
+                    List<ObatSummary> page = summaryRepository.getActiveObatSummaryPage(last, HomeSummaryRepository.PAGE_SIZE);
+                    mainHandler.post(() -> callback.onPageLoaded(page));
+                } catch (Exception e) {
+                    Log.e(TAG, "Error loading page: " + e.getMessage(), e);
+                    mainHandler.post(callback::onPageFailed);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 🔑 Tetap laporkan, supaya pemanggil tidak menunggu halaman yang tidak pernah datang
+            Log.w(TAG, "Executor shut down, skipping page load");
+            mainHandler.post(callback::onPageFailed);
+        }
+    }
+
+    /**
+     * true jika obat/jadwal berubah sejak emisi terakhir yang ditangani (perlu segarkan alarm).
+     * Emisi pertama dan nilai yang dikirim ulang ke view baru tidak dihitung sebagai perubahan.
+     */
+    public boolean consumeScheduleChange() {
+        long version = currentScheduleVersion();
+        if (version == handledScheduleVersion) {
+            return false;
+        }
+        handledScheduleVersion = version;
+        return true;
+    }
+
+    private long currentScheduleVersion() {
+        // Versi hanya naik, jadi jumlahnya berubah jika salah satu tabel berubah
+        return notifier.getVersion(DbHelper.TABLE_OBAT) + notifier.getVersion(DbHelper.TABLE_JADWAL);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        executor.shutdownNow();
+    }
+}
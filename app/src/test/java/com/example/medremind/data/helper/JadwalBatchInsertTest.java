@@ -0,0 +1,85 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Insert 10k jadwal dalam satu batch: semua baris tersimpan dan statement insert dari cache tidak di-compile ulang.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class JadwalBatchInsertTest {
+    private static final int SCHEDULE_COUNT = 10_000;
+
+    private Context context;
+    private DatabaseManager databaseManager;
+    private JadwalHelper jadwalHelper;
+    private int obatId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        databaseManager = DatabaseManager.getInstance(context);
+        jadwalHelper = new JadwalHelper(context);
+        jadwalHelper.open();
+
+        ObatHelper obatHelper = new ObatHelper(context);
+        obatHelper.open();
+        obatId = (int) obatHelper.insertObat(new Obat("Obat", "Tablet", "1", "Sesudah makan", 100, "harian"));
+        obatHelper.close();
+    }
+
+    @After
+    public void tearDown() {
+        jadwalHelper.close();
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void insertMultipleJadwal_10k_reusesOneStatement() {
+        // Pemanasan: statement insert jadwal masuk cache
+        jadwalHelper.tambahJadwal(new Jadwal(obatId, Jadwal.HARI_DAILY, "00:00"));
+        int compilesBefore = databaseManager.getStatementCompileCount();
+
+        List<Jadwal> jadwalList = createJadwalList();
+        int inserted = jadwalHelper.insertMultipleJadwal(jadwalList);
+
+        assertEquals(SCHEDULE_COUNT, inserted);
+        assertEquals("batch must not recompile the insert statement",
+                compilesBefore, databaseManager.getStatementCompileCount());
+        for (Jadwal jadwal : jadwalList) {
+            assertTrue(jadwal.getId() > 0);
+        }
+        assertEquals(SCHEDULE_COUNT + 1, jadwalHelper.getJadwalByObatId(obatId).size());
+    }
+
+    private List<Jadwal> createJadwalList() {
+        List<Jadwal> jadwalList = new ArrayList<>(SCHEDULE_COUNT);
+        for (int i = 0; i < SCHEDULE_COUNT; i++) {
+            int minute = i % (24 * 60);
+            String waktu = String.format(Locale.US, "%02d:%02d", minute / 60, minute % 60);
+            jadwalList.add(new Jadwal(obatId, Jadwal.HARI_DAILY, waktu));
+        }
+        return jadwalList;
+    }
+}
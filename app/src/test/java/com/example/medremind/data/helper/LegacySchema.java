@@ -0,0 +1,67 @@
+package com.example.medremind.data.helper;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.File;
+
+/**
+ * Membuat file database dengan skema lama (hanya tabel obat dan jadwal) untuk test migrasi.
+ */
+final class LegacySchema {
+
+    private static final String CREATE_TABLE_OBAT = "CREATE TABLE obat (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, nama_obat TEXT NOT NULL, jenis_obat TEXT NOT NULL, " +
+            "dosis_obat TEXT NOT NULL, aturan_minum TEXT NOT NULL, " +
+            "jumlah_obat INTEGER NOT NULL DEFAULT 0 CHECK(jumlah_obat >= 0), " +
+            "tipe_jadwal TEXT NOT NULL CHECK(tipe_jadwal IN ('harian', 'mingguan')), " +
+            "tanggal_dibuat INTEGER NOT NULL DEFAULT (strftime('%s', 'now')), " +
+            "tanggal_diperbarui INTEGER NOT NULL DEFAULT (strftime('%s', 'now')), " +
+            "is_aktif INTEGER NOT NULL DEFAULT 1 CHECK(is_aktif IN (0, 1)))";
+
+    // Jadwal sampai v8: waktu "HH:mm" dan hari teks bebas
+    private static final String CREATE_TABLE_JADWAL_V8 = "CREATE TABLE jadwal (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT, obat_id INTEGER NOT NULL, hari TEXT NOT NULL, waktu TEXT NOT NULL, " +
+            "status INTEGER NOT NULL DEFAULT 0 CHECK(status IN (0, 1, 2)), " +
+            "tanggal_dibuat INTEGER NOT NULL DEFAULT (strftime('%s', 'now')), " +
+            "tanggal_diperbarui INTEGER NOT NULL DEFAULT (strftime('%s', 'now')), " +
+            "tanggal_diminum INTEGER, catatan TEXT, last_reset_date TEXT DEFAULT NULL, " +
+            "FOREIGN KEY(obat_id) REFERENCES obat(id) ON DELETE CASCADE)";
+
+    // Trigger persis seperti skema v7
+    static final String TRIGGER_OBAT_V7 =
+            "CREATE TRIGGER trigger_obat_update AFTER UPDATE ON obat " +
+                    "BEGIN UPDATE obat SET tanggal_diperbarui = strftime('%s', 'now') WHERE id = NEW.id; END";
+    static final String TRIGGER_JADWAL_V7 =
+            "CREATE TRIGGER trigger_jadwal_update AFTER UPDATE ON jadwal " +
+                    "BEGIN UPDATE jadwal SET tanggal_diperbarui = strftime('%s', 'now') WHERE id = NEW.id; END";
+
+    private LegacySchema() {
+    }
+
+    /**
+     * Buka file database baru dengan tabel obat/jadwal versi lama; pemanggil menutupnya
+     * @param version 7 (dengan trigger) atau 8
+     */
+    static SQLiteDatabase create(Context context, int version) {
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        File file = context.getDatabasePath(DbHelper.DATABASE_NAME);
+        file.getParentFile().mkdirs();
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(file, null);
+        db.execSQL(CREATE_TABLE_OBAT);
+        db.execSQL(CREATE_TABLE_JADWAL_V8);
+        if (version <= 7) {
+            db.execSQL(TRIGGER_OBAT_V7);
+            db.execSQL(TRIGGER_JADWAL_V7);
+        }
+        db.setVersion(version);
+        return db;
+    }
+
+    static long insertObat(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO obat (nama_obat, jenis_obat, dosis_obat, aturan_minum, jumlah_obat, tipe_jadwal) " +
+                "VALUES ('Obat', 'Tablet', '1', 'Sesudah makan', 100, 'harian')");
+        return DatabaseUtils.longForQuery(db, "SELECT last_insert_rowid()", null);
+    }
+}
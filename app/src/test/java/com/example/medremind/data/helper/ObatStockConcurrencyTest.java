@@ -0,0 +1,130 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banyak thread mengurangi/menambah stok obat yang sama sekaligus: tidak ada update yang hilang
+ * dan stok tidak pernah negatif.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ObatStockConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int INITIAL_STOCK = 600;
+
+    private Context context;
+    private ObatHelper obatHelper;
+    private long obatId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        obatHelper = new ObatHelper(context);
+        obatHelper.open();
+        obatId = obatHelper.insertObat(new Obat("Paracetamol", "Tablet", "1 tablet", "Sesudah makan", INITIAL_STOCK, "harian"));
+        assertTrue(obatId > 0);
+    }
+
+    @After
+    public void tearDown() {
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void concurrentDecrements_neverLoseUpdatesOrOversell() throws Exception {
+        // 800 percobaan untuk 600 stok: tepat 600 yang boleh berhasil
+        int successes = runConcurrently((helper, thread) -> helper.kurangiJumlahObat(obatId, 1));
+
+        assertEquals(INITIAL_STOCK, successes);
+        assertEquals(0, obatHelper.getObatById(obatId).getJumlahObat());
+    }
+
+    @Test
+    public void concurrentDoseDecrementsAndRestocks_addUp() throws Exception {
+        // Separuh thread minum satu dosis, separuh menambah satu; total tidak berubah
+        int successes = runConcurrently((helper, thread) -> thread % 2 == 0
+                ? helper.kurangiJumlahObat(obatId)
+                : helper.tambahJumlahObat(obatId, 1));
+
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, successes);
+        assertEquals(INITIAL_STOCK, obatHelper.getObatById(obatId).getJumlahObat());
+    }
+
+    @Test
+    public void insufficientStock_isRejectedByRowsAffected() {
+        assertTrue(obatHelper.kurangiJumlahObat(obatId, INITIAL_STOCK));
+        assertFalse(obatHelper.kurangiJumlahObat(obatId));
+        assertFalse(obatHelper.kurangiJumlahObat(obatId, 1));
+        assertEquals(0, obatHelper.getObatById(obatId).getJumlahObat());
+        assertFalse(obatHelper.tambahJumlahObat(obatId + 1, 1));
+    }
+
+    private interface StockOperation {
+        boolean apply(ObatHelper helper, int threadIndex);
+    }
+
+    /**
+     * Jalankan operasi dari banyak thread, masing-masing dengan helper sendiri seperti receiver
+     * @return Jumlah operasi yang berhasil
+     */
+    private int runConcurrently(StockOperation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int threadIndex = t;
+            results.add(executor.submit(() -> {
+                ObatHelper helper = new ObatHelper(context);
+                helper.open();
+                try {
+                    start.await();
+                    int ok = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (operation.apply(helper, threadIndex)) {
+                            ok++;
+                        }
+                    }
+                    return ok;
+                } finally {
+                    helper.close();
+                }
+            }));
+        }
+
+        start.countDown();
+        int successes = 0;
+        for (Future<Integer> result : results) {
+            successes += result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        return successes;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.repository.HomeSummaryRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * EXPLAIN QUERY PLAN untuk setiap statement SQL_* di helper dan repository.
+ * Gagal jika ada full table scan (SCAN tabel tanpa index) di luar daftar pengecualian.
+ * Statement lewat SQLiteDatabase.update/delete/query di helper hanya memakai primary key, jadi tidak didaftar di sini.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class QueryPlanTest {
+
+    private static final Class<?>[] STATEMENT_OWNERS = {
+            JadwalHelper.class,
+            ObatHelper.class,
+            HomeSummaryRepository.class
+    };
+
+    // "SCAN j" (SQLite >= 3.36) atau "SCAN TABLE jadwal AS j" (versi lama); SCAN ... USING INDEX tidak termasuk
+    private static final Pattern FULL_TABLE_SCAN = Pattern.compile("^SCAN (TABLE )?\\S+( AS \\S+)?$");
+
+    // Memang membaca seluruh tabel
+    private static final Set<String> FULL_SCAN_ALLOWED = new HashSet<>(Collections.singletonList(
+            "ObatHelper.SQL_SELECT_ALL_OBAT"
+    ));
+
+    private Context context;
+    private DbHelper dbHelper;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        dbHelper = new DbHelper(context);
+        db = dbHelper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void everyStatement_hasNoFullTableScan() throws Exception {
+        Map<String, String> statements = collectStatements();
+        assertTrue("Tidak ada statement SQL_* yang ditemukan", statements.size() > 10);
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, String> entry : statements.entrySet()) {
+            List<String> plan = explain(entry.getValue());
+
+            if (FULL_SCAN_ALLOWED.contains(entry.getKey())) {
+                continue;
+            }
+            for (String step : plan) {
+                if (FULL_TABLE_SCAN.matcher(step).matches()) {
+                    // Plan lengkap hanya muncul di pesan gagal
+                    violations.add(entry.getKey() + " -> " + step + " (plan: " + String.join(" | ", plan) + ")");
+                }
+            }
+        }
+
+        if (!violations.isEmpty()) {
+            fail("Full table scan:\n" + String.join("\n", violations));
+        }
+    }
+
+    @Test
+    public void jadwalByObat_usesCompositeIndexWithoutSort() throws Exception {
+        List<String> plan = explain(statement(JadwalHelper.class, "SQL_SELECT_JADWAL_BY_OBAT"));
+
+        assertPlanContains(plan, "idx_jadwal_obat_minute");
+        assertPlanLacks(plan, "TEMP B-TREE");
+    }
+
+    @Test
+    public void overdueSweep_readsJadwalFromCoveringIndex() throws Exception {
+        assertPlanContains(explain(statement(JadwalHelper.class, "SQL_SELECT_OVERDUE_IDS")),
+                "COVERING INDEX idx_jadwal_minute_day_obat");
+        assertPlanContains(explain(statement(JadwalHelper.class, "SQL_SELECT_NEXT_PENDING_MINUTE")),
+                "COVERING INDEX idx_jadwal_minute_day_obat");
+    }
+
+    @Test
+    public void activeObatQueries_usePartialIndexes() throws Exception {
+        assertPlanContains(explain(statement(ObatHelper.class, "SQL_SELECT_LOW_STOCK")), "idx_obat_aktif_stok");
+
+        List<String> aktif = explain(statement(ObatHelper.class, "SQL_SELECT_ACTIVE_OBAT"));
+        assertPlanContains(aktif, "idx_obat_aktif_dibuat");
+        assertPlanLacks(aktif, "TEMP B-TREE");
+
+    }
+
+    @Test
+    public void keysetPages_seekNameIndexWithoutSort() throws Exception {
+        List<String> page = explain(statement(ObatHelper.class, "SQL_SELECT_ACTIVE_OBAT_PAGE"));
+        // Seek ke posisi (nama, id) terakhir, bukan scan dari awal index
+        assertPlanContains(page, "idx_obat_aktif_nama (nama_obat>?)");
+        assertPlanLacks(page, "TEMP B-TREE");
+
+        List<String> summary = explain(statement(HomeSummaryRepository.class, "SQL_SUMMARY_PAGE"));
+        assertPlanContains(summary, "idx_obat_aktif_nama (nama_obat>?)");
+        assertPlanLacks(summary, "TEMP B-TREE");
+    }
+
+    /**
+     * Semua konstanta static final String berprefix SQL_ milik STATEMENT_OWNERS
+     * @return Map "Kelas.NAMA" ke SQL, urut deklarasi
+     */
+    private Map<String, String> collectStatements() throws IllegalAccessException {
+        Map<String, String> statements = new LinkedHashMap<>();
+        for (Class<?> owner : STATEMENT_OWNERS) {
+            for (Field field : owner.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers) ||
+                        field.getType() != String.class || !field.getName().startsWith("SQL_")) {
+                    continue;
+                }
+                field.setAccessible(true);
+                statements.put(owner.getSimpleName() + "." + field.getName(), (String) field.get(null));
+            }
+        }
+        return statements;
+    }
+
+    private String statement(Class<?> owner, String name) throws Exception {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        return (String) field.get(null);
+    }
+
+    /**
+     * @return Kolom detail EXPLAIN QUERY PLAN, satu elemen per langkah
+     */
+    private List<String> explain(String sql) {
+        // Nilai placeholder tidak memengaruhi rencana (tanpa sqlite_stat4), cukup jumlahnya yang cocok
+        String[] args = new String[countPlaceholders(sql)];
+        Arrays.fill(args, "0");
+
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detail));
+            }
+        }
+        return plan;
+    }
+
+    private int countPlaceholders(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void assertPlanContains(List<String> plan, String expected) {
+        for (String step : plan) {
+            if (step.contains(expected)) {
+                return;
+            }
+        }
+        fail("Plan tidak memakai " + expected + ": " + plan);
+    }
+
+    private void assertPlanLacks(List<String> plan, String unexpected) {
+        for (String step : plan) {
+            assertFalse("Plan memuat " + unexpected + ": " + plan, step.contains(unexpected));
+        }
+    }
+}
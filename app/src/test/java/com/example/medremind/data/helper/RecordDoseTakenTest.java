@@ -0,0 +1,162 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.List;
+
+/**
+ * recordDoseTaken: status, waktu minum dan stok berubah bersama dan hanya sekali per dosis.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class RecordDoseTakenTest {
+    private Context context;
+    private JadwalHelper jadwalHelper;
+    private ObatHelper obatHelper;
+    private long obatId;
+    private long jadwalId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        obatHelper = new ObatHelper(context);
+        jadwalHelper = new JadwalHelper(context);
+        obatHelper.open();
+        jadwalHelper.open();
+
+        obatId = obatHelper.insertObat(new Obat("Amoxicillin", "Tablet", "2 tablet", "Sesudah makan", 5, "harian"));
+        jadwalId = jadwalHelper.tambahJadwal(new Jadwal((int) obatId, Jadwal.HARI_DAILY, "08:00"));
+        assertTrue(jadwalId > 0);
+    }
+
+    @After
+    public void tearDown() {
+        jadwalHelper.close();
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void recordDoseTaken_marksDoseAndReturnsNewStock() {
+        String today = jadwalHelper.getCurrentDate();
+
+        assertEquals(3, jadwalHelper.recordDoseTaken(jadwalId, today));
+
+        Jadwal jadwal = jadwalHelper.getJadwalById(jadwalId, today);
+        assertNotNull(jadwal);
+        assertEquals(Jadwal.STATUS_SUDAH_DIMINUM, jadwal.getStatus());
+        assertNotNull(jadwal.getTanggalDiminum());
+        assertEquals(3, obatHelper.getObatById(obatId).getJumlahObat());
+    }
+
+    @Test
+    public void recordDoseTaken_twice_decrementsOnce() {
+        String today = jadwalHelper.getCurrentDate();
+
+        assertEquals(3, jadwalHelper.recordDoseTaken(jadwalId, today));
+        assertEquals(3, jadwalHelper.recordDoseTaken(jadwalId, today));
+        assertEquals(3, obatHelper.getObatById(obatId).getJumlahObat());
+    }
+
+    @Test
+    public void recordDoseTaken_otherDate_isSeparateDose() {
+        assertEquals(3, jadwalHelper.recordDoseTaken(jadwalId, "2026-01-01"));
+        assertEquals(1, jadwalHelper.recordDoseTaken(jadwalId, "2026-01-02"));
+
+        Jadwal jadwal = jadwalHelper.getJadwalById(jadwalId, "2026-01-03");
+        assertNotNull(jadwal);
+        assertEquals(Jadwal.STATUS_BELUM_DIMINUM, jadwal.getStatus());
+    }
+
+    @Test
+    public void recordDoseTaken_unknownJadwal_fails() {
+        assertEquals(JadwalHelper.RECORD_DOSE_GAGAL, jadwalHelper.recordDoseTaken(jadwalId + 100, jadwalHelper.getCurrentDate()));
+        assertEquals(5, obatHelper.getObatById(obatId).getJumlahObat());
+    }
+
+    @Test
+    public void recordDoseTaken_insufficientStock_recordsDoseAndClampsStock() {
+        // Stok 5, dosis 2: dua dosis tercatat, dosis ketiga melebihi stok tercatat
+        assertEquals(3, jadwalHelper.recordDoseTaken(jadwalId, "2026-01-01"));
+        assertEquals(1, jadwalHelper.recordDoseTaken(jadwalId, "2026-01-02"));
+
+        assertEquals(JadwalHelper.RECORD_DOSE_STOK_TIDAK_CUKUP, jadwalHelper.recordDoseTaken(jadwalId, "2026-01-03"));
+
+        // Dosis tetap tercatat diminum, stok dijadikan 0 (tidak negatif)
+        Jadwal jadwal = jadwalHelper.getJadwalById(jadwalId, "2026-01-03");
+        assertNotNull(jadwal);
+        assertEquals(Jadwal.STATUS_SUDAH_DIMINUM, jadwal.getStatus());
+        assertNotNull(jadwal.getTanggalDiminum());
+        assertEquals(0, obatHelper.getObatById(obatId).getJumlahObat());
+
+        // Stok habis juga tidak menghalangi dosis berikutnya
+        assertEquals(1, jadwalHelper.updateJadwalStatus(jadwalId, Jadwal.STATUS_SUDAH_DIMINUM, null, "2026-01-04"));
+        assertEquals(0, obatHelper.getObatById(obatId).getJumlahObat());
+    }
+
+    @Test
+    public void updateJadwalStatus_belumDiminum_makesDosePendingAgain() {
+        String today = jadwalHelper.getCurrentDate();
+
+        assertEquals(1, jadwalHelper.updateJadwalStatus(jadwalId, Jadwal.STATUS_TERLEWAT, null, today));
+        assertFalse(containsJadwal(jadwalHelper.getPendingJadwalHariIni(0, 1439)));
+
+        // Belum diminum menghapus event, jadi dosis kembali masuk query pending
+        assertEquals(1, jadwalHelper.updateJadwalStatus(jadwalId, Jadwal.STATUS_BELUM_DIMINUM, null, today));
+        assertTrue(containsJadwal(jadwalHelper.getPendingJadwalHariIni(0, 1439)));
+        assertEquals(Jadwal.STATUS_BELUM_DIMINUM, jadwalHelper.getJadwalById(jadwalId, today).getStatus());
+    }
+
+    @Test
+    public void updateJadwal_doesNotCopyTodayStatusIntoJadwalRow() {
+        String today = jadwalHelper.getCurrentDate();
+        assertEquals(3, jadwalHelper.recordDoseTaken(jadwalId, today, "Pagi"));
+
+        Jadwal jadwal = jadwalHelper.getJadwalById(jadwalId, today);
+        assertEquals(Jadwal.STATUS_SUDAH_DIMINUM, jadwal.getStatus());
+        jadwal.setWaktu("09:00");
+        assertEquals(1, jadwalHelper.updateJadwal(jadwal));
+
+        // Baris jadwal hanya definisi; status/catatan tetap dari dose_event
+        SQLiteDatabase database = DatabaseManager.getInstance(context).openDatabase();
+        try (Cursor cursor = database.rawQuery("SELECT " + DbHelper.KEY_STATUS + ", " + DbHelper.KEY_JADWAL_CATATAN +
+                " FROM " + DbHelper.TABLE_JADWAL + " WHERE " + DbHelper.KEY_JADWAL_ID + " = ?", new String[]{String.valueOf(jadwalId)})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(Jadwal.STATUS_BELUM_DIMINUM, cursor.getInt(0));
+            assertTrue(cursor.isNull(1));
+        } finally {
+            DatabaseManager.getInstance(context).closeDatabase();
+        }
+        assertEquals(Jadwal.STATUS_SUDAH_DIMINUM, jadwalHelper.getJadwalById(jadwalId, today).getStatus());
+    }
+
+    private boolean containsJadwal(List<Jadwal> list) {
+        for (Jadwal jadwal : list) {
+            if (jadwal.getId() == jadwalId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Jadwal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Property test alokasi request code alarm untuk ID jadwal acak di seluruh rentang int.
+ * Skema lama (obatId * 10000 + jam * 100 + menit) overflow mulai obatId ~214k.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class RequestCodeAllocatorTest {
+    private static final long[] SEEDS = {1L, 42L, 20251017L, 0xC0FFEEL};
+    private static final int IDS_PER_SEED = 250;
+
+    private Context context;
+    private SQLiteDatabase database;
+    private JadwalHelper jadwalHelper;
+    private long obatId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        database = DatabaseManager.getInstance(context).openDatabase();
+        jadwalHelper = new JadwalHelper(context);
+        jadwalHelper.open();
+
+        ContentValues obat = new ContentValues();
+        obat.put(DbHelper.KEY_NAMA_OBAT, "Obat");
+        obat.put(DbHelper.KEY_JENIS_OBAT, "Tablet");
+        obat.put(DbHelper.KEY_DOSIS_OBAT, "1");
+        obat.put(DbHelper.KEY_ATURAN_MINUM, "Sesudah makan");
+        obat.put(DbHelper.KEY_JUMLAH_OBAT, 10);
+        obat.put(DbHelper.KEY_TIPE_JADWAL, "harian");
+        obatId = database.insertOrThrow(DbHelper.TABLE_OBAT, null, obat);
+    }
+
+    @After
+    public void tearDown() {
+        jadwalHelper.close();
+        DatabaseManager.getInstance(context).closeDatabase();
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void allocatedCodes_areUniqueReversibleAndStable() {
+        for (long seed : SEEDS) {
+            List<Integer> jadwalIds = insertRandomJadwal(new Random(seed), IDS_PER_SEED);
+
+            Map<Integer, Integer> codes = jadwalHelper.getOrAllocateRequestCodes(jadwalIds);
+            assertEquals("seed " + seed, jadwalIds.size(), codes.size());
+            assertEquals("codes must be unique, seed " + seed, codes.size(), new HashSet<>(codes.values()).size());
+
+            for (int jadwalId : jadwalIds) {
+                int code = codes.get(jadwalId);
+                assertTrue("reserved range, seed " + seed, code >= DbHelper.FIRST_ALLOCATED_REQUEST_CODE);
+                assertEquals("reverse lookup, seed " + seed, jadwalId, jadwalHelper.getJadwalIdForRequestCode(code));
+                assertEquals("stable, seed " + seed, code, jadwalHelper.getOrAllocateRequestCode(jadwalId));
+            }
+        }
+    }
+
+    @Test
+    public void codesOfDeletedJadwal_areNeverReused() {
+        Random random = new Random(7L);
+        List<Integer> firstIds = insertRandomJadwal(random, IDS_PER_SEED);
+        Map<Integer, Integer> firstCodes = jadwalHelper.getOrAllocateRequestCodes(firstIds);
+
+        Map<Integer, Integer> deletedCodes = new HashMap<>();
+        for (int i = 0; i < firstIds.size(); i += 2) {
+            int jadwalId = firstIds.get(i);
+            assertTrue(jadwalHelper.deleteJadwal(jadwalId));
+            deletedCodes.put(jadwalId, firstCodes.get(jadwalId));
+        }
+
+        for (int code : deletedCodes.values()) {
+            assertEquals(-1, jadwalHelper.getJadwalIdForRequestCode(code));
+        }
+
+        List<Integer> secondIds = insertRandomJadwal(random, IDS_PER_SEED);
+        for (int code : jadwalHelper.getOrAllocateRequestCodes(secondIds).values()) {
+            assertFalse("code " + code + " reused", deletedCodes.containsValue(code));
+        }
+    }
+
+    /**
+     * Insert jadwal dengan ID acak di [1, Integer.MAX_VALUE], termasuk batas rentang
+     */
+    private List<Integer> insertRandomJadwal(Random random, int count) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        ids.add(Integer.MAX_VALUE - random.nextInt(1000));
+        ids.add(1 + random.nextInt(1000));
+        while (ids.size() < count) {
+            ids.add(1 + random.nextInt(Integer.MAX_VALUE));
+        }
+
+        List<Integer> inserted = new ArrayList<>();
+        for (int id : ids) {
+            ContentValues values = new ContentValues();
+            values.put(DbHelper.KEY_JADWAL_ID, id);
+            values.put(DbHelper.KEY_OBAT_ID_FK, obatId);
+            values.put(DbHelper.KEY_HARI, Jadwal.HARI_DAILY);
+            values.put(DbHelper.KEY_WAKTU, "08:00");
+            if (database.insertWithOnConflict(DbHelper.TABLE_JADWAL, null, values, SQLiteDatabase.CONFLICT_IGNORE) != -1) {
+                inserted.add(id);
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.MatrixCursor;
+
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Pemetaan 10k baris lewat JadwalRowMapper/ObatRowMapper, dengan projection penuh dan sebagian.
+ * Cursor dibungkus penghitung akses kolom: mapper hanya boleh membaca kolom yang ada di projection.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class RowMapperTest {
+    private static final int ROWS = 10_000;
+    private static final long TIMESTAMP_SECONDS = 1_700_000_000L;
+
+    private static final String[] JADWAL_FULL_COLUMNS = {
+            DbHelper.KEY_JADWAL_ID, DbHelper.KEY_OBAT_ID_FK, DbHelper.KEY_HARI, DbHelper.KEY_WAKTU,
+            DbHelper.KEY_MINUTE_OF_DAY, DbHelper.KEY_DAY_MASK, DbHelper.KEY_STATUS, DbHelper.KEY_JADWAL_CATATAN,
+            DbHelper.KEY_LAST_RESET_DATE, DbHelper.KEY_JADWAL_TANGGAL_DIBUAT, DbHelper.KEY_JADWAL_TANGGAL_DIPERBARUI,
+            DbHelper.KEY_JADWAL_TANGGAL_DIMINUM,
+            // Kolom obat dari JOIN
+            DbHelper.KEY_NAMA_OBAT, DbHelper.KEY_DOSIS_OBAT, DbHelper.KEY_ATURAN_MINUM, DbHelper.KEY_JENIS_OBAT
+    };
+
+    // Projection seperti query jadwal hari ini tanpa JOIN
+    private static final String[] JADWAL_PARTIAL_COLUMNS = {
+            DbHelper.KEY_JADWAL_ID, DbHelper.KEY_OBAT_ID_FK, DbHelper.KEY_HARI, DbHelper.KEY_WAKTU,
+            DbHelper.KEY_MINUTE_OF_DAY, DbHelper.KEY_DAY_MASK
+    };
+
+    private static final String[] OBAT_FULL_COLUMNS = {
+            DbHelper.KEY_OBAT_ID, DbHelper.KEY_NAMA_OBAT, DbHelper.KEY_JENIS_OBAT, DbHelper.KEY_DOSIS_OBAT,
+            DbHelper.KEY_ATURAN_MINUM, DbHelper.KEY_JUMLAH_OBAT, DbHelper.KEY_TIPE_JADWAL,
+            DbHelper.KEY_OBAT_TANGGAL_DIBUAT, DbHelper.KEY_OBAT_TANGGAL_DIPERBARUI, DbHelper.KEY_OBAT_IS_AKTIF
+    };
+
+    // Projection seperti daftar obat di home
+    private static final String[] OBAT_PARTIAL_COLUMNS = {
+            DbHelper.KEY_OBAT_ID, DbHelper.KEY_NAMA_OBAT, DbHelper.KEY_DOSIS_OBAT
+    };
+
+    @Test
+    public void jadwalFullProjection_mapsEveryColumn() {
+        CountingCursor cursor = new CountingCursor(jadwalCursor(JADWAL_FULL_COLUMNS));
+        List<Jadwal> list = CursorHelper.cursorToList(cursor, new JadwalRowMapper(cursor));
+
+        assertEquals(ROWS, list.size());
+        assertTrue(cursor.isClosed());
+        for (int i : sampleRows()) {
+            Jadwal jadwal = list.get(i);
+            assertEquals(i + 1, jadwal.getId());
+            assertEquals(i % 50 + 1, jadwal.getObatId());
+            assertEquals(Jadwal.HARI_DAILY, jadwal.getHari());
+            assertEquals(waktu(i), jadwal.getWaktu());
+            assertEquals(i % 1440, jadwal.getMinuteOfDay());
+            assertEquals(0x7F, jadwal.getDayMask());
+            assertEquals(i % 3, jadwal.getStatus());
+            assertEquals("Catatan " + i, jadwal.getCatatan());
+            assertEquals("2024-01-01", jadwal.getLastResetDate());
+            assertEquals((TIMESTAMP_SECONDS + i) * 1000, jadwal.getTanggalDibuat().getTime());
+            assertEquals((TIMESTAMP_SECONDS + i) * 1000, jadwal.getTanggalDiperbarui().getTime());
+            assertEquals("Obat " + (i % 50 + 1), jadwal.getTambahan("namaObat"));
+            assertEquals("1 tablet", jadwal.getTambahan("dosisObat"));
+            assertEquals("Sesudah makan", jadwal.getTambahan("aturanMinum"));
+            assertEquals("Tablet", jadwal.getTambahan("jenisObat"));
+        }
+        assertEquals(allIndexes(JADWAL_FULL_COLUMNS), cursor.readColumns);
+    }
+
+    @Test
+    public void jadwalPartialProjection_skipsUnselectedColumns() {
+        CountingCursor cursor = new CountingCursor(jadwalCursor(JADWAL_PARTIAL_COLUMNS));
+        List<Jadwal> list = CursorHelper.cursorToList(cursor, new JadwalRowMapper(cursor));
+
+        assertEquals(ROWS, list.size());
+        for (int i : sampleRows()) {
+            Jadwal jadwal = list.get(i);
+            assertEquals(i + 1, jadwal.getId());
+            assertEquals(i % 50 + 1, jadwal.getObatId());
+            assertEquals(waktu(i), jadwal.getWaktu());
+            assertEquals(i % 1440, jadwal.getMinuteOfDay());
+            assertEquals(0x7F, jadwal.getDayMask());
+
+            // Kolom di luar projection tetap nilai default model
+            assertEquals(Jadwal.STATUS_BELUM_DIMINUM, jadwal.getStatus());
+            assertNull(jadwal.getCatatan());
+            assertNull(jadwal.getLastResetDate());
+            assertNull(jadwal.getTanggalDiminum());
+            assertNull(jadwal.getTambahan("namaObat"));
+        }
+        assertEquals(allIndexes(JADWAL_PARTIAL_COLUMNS), cursor.readColumns);
+    }
+
+    @Test
+    public void obatFullProjection_mapsEveryColumn() {
+        CountingCursor cursor = new CountingCursor(obatCursor(OBAT_FULL_COLUMNS));
+        List<Obat> list = CursorHelper.cursorToList(cursor, new ObatRowMapper(cursor));
+
+        assertEquals(ROWS, list.size());
+        for (int i : sampleRows()) {
+            Obat obat = list.get(i);
+            assertEquals(i + 1, obat.getId());
+            assertEquals("Obat " + (i + 1), obat.getNamaObat());
+            assertEquals("Tablet", obat.getJenisObat());
+            assertEquals("1 tablet", obat.getDosisObat());
+            assertEquals("Sesudah makan", obat.getAturanMinum());
+            assertEquals(i % 100, obat.getJumlahObat());
+            assertEquals("harian", obat.getTipeJadwal());
+            assertEquals((TIMESTAMP_SECONDS + i) * 1000, obat.getTanggalDibuat().getTime());
+            assertEquals((TIMESTAMP_SECONDS + i) * 1000, obat.getTanggalDiperbarui().getTime());
+            assertEquals(i % 2 == 0, obat.isAktif());
+        }
+        assertEquals(allIndexes(OBAT_FULL_COLUMNS), cursor.readColumns);
+    }
+
+    @Test
+    public void obatPartialProjection_skipsUnselectedColumns() {
+        CountingCursor cursor = new CountingCursor(obatCursor(OBAT_PARTIAL_COLUMNS));
+        List<Obat> list = CursorHelper.cursorToList(cursor, new ObatRowMapper(cursor));
+
+        assertEquals(ROWS, list.size());
+        for (int i : sampleRows()) {
+            Obat obat = list.get(i);
+            assertEquals(i + 1, obat.getId());
+            assertEquals("Obat " + (i + 1), obat.getNamaObat());
+            assertEquals("1 tablet", obat.getDosisObat());
+
+            // Kolom di luar projection tetap nilai default model
+            assertNull(obat.getJenisObat());
+            assertNull(obat.getAturanMinum());
+            assertEquals(0, obat.getJumlahObat());
+            assertTrue(obat.isAktif());
+        }
+        assertEquals(allIndexes(OBAT_PARTIAL_COLUMNS), cursor.readColumns);
+    }
+
+    /**
+     * Isi kolom yang ada di projection; nilai diturunkan dari nomor baris agar bisa dicek ulang
+     */
+    private MatrixCursor jadwalCursor(String[] columns) {
+        MatrixCursor cursor = new MatrixCursor(columns, ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Object[] row = new Object[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                row[c] = jadwalValue(columns[c], c, i);
+            }
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    private Object jadwalValue(String column, int position, int i) {
+        // nama_obat dll. berasal dari JOIN, jadi dibedakan dari kolom jadwal lewat posisinya
+        if (position >= 12) {
+            switch (column) {
+                case DbHelper.KEY_NAMA_OBAT: return "Obat " + (i % 50 + 1);
+                case DbHelper.KEY_DOSIS_OBAT: return "1 tablet";
+                case DbHelper.KEY_ATURAN_MINUM: return "Sesudah makan";
+                default: return "Tablet";
+            }
+        }
+        switch (column) {
+            case DbHelper.KEY_JADWAL_ID: return i + 1;
+            case DbHelper.KEY_OBAT_ID_FK: return i % 50 + 1;
+            case DbHelper.KEY_HARI: return Jadwal.HARI_DAILY;
+            case DbHelper.KEY_WAKTU: return waktu(i);
+            case DbHelper.KEY_MINUTE_OF_DAY: return i % 1440;
+            case DbHelper.KEY_DAY_MASK: return 0x7F;
+            case DbHelper.KEY_STATUS: return i % 3;
+            case DbHelper.KEY_JADWAL_CATATAN: return "Catatan " + i;
+            case DbHelper.KEY_LAST_RESET_DATE: return "2024-01-01";
+            case DbHelper.KEY_JADWAL_TANGGAL_DIMINUM: return i % 3 == Jadwal.STATUS_SUDAH_DIMINUM ? TIMESTAMP_SECONDS + i : null;
+            default: return TIMESTAMP_SECONDS + i; // tanggal_dibuat / tanggal_diperbarui
+        }
+    }
+
+    private MatrixCursor obatCursor(String[] columns) {
+        MatrixCursor cursor = new MatrixCursor(columns, ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Object[] row = new Object[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                row[c] = obatValue(columns[c], i);
+            }
+            cursor.addRow(row);
+        }
+        return cursor;
+    }
+
+    private Object obatValue(String column, int i) {
+        switch (column) {
+            case DbHelper.KEY_OBAT_ID: return i + 1;
+            case DbHelper.KEY_NAMA_OBAT: return "Obat " + (i + 1);
+            case DbHelper.KEY_JENIS_OBAT: return "Tablet";
+            case DbHelper.KEY_DOSIS_OBAT: return "1 tablet";
+            case DbHelper.KEY_ATURAN_MINUM: return "Sesudah makan";
+            case DbHelper.KEY_JUMLAH_OBAT: return i % 100;
+            case DbHelper.KEY_TIPE_JADWAL: return "harian";
+            case DbHelper.KEY_OBAT_IS_AKTIF: return i % 2 == 0 ? 1 : 0;
+            default: return TIMESTAMP_SECONDS + i; // tanggal_dibuat / tanggal_diperbarui
+        }
+    }
+
+    private static String waktu(int i) {
+        int minute = i % 1440;
+        return String.format(Locale.US, "%02d:%02d", minute / 60, minute % 60);
+    }
+
+    private static int[] sampleRows() {
+        return new int[]{0, 1, 2, 1439, 1440, ROWS / 2, ROWS - 1};
+    }
+
+    private static Set<Integer> allIndexes(String[] columns) {
+        Set<Integer> indexes = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Catat index kolom yang dibaca mapper; index di luar projection akan melempar dari MatrixCursor
+     */
+    private static class CountingCursor extends CursorWrapper {
+        final Set<Integer> readColumns = new HashSet<>();
+
+        CountingCursor(Cursor cursor) {
+            super(cursor);
+        }
+
+        @Override
+        public boolean isNull(int columnIndex) {
+            readColumns.add(columnIndex);
+            return super.isNull(columnIndex);
+        }
+
+        @Override
+        public String getString(int columnIndex) {
+            readColumns.add(columnIndex);
+            return super.getString(columnIndex);
+        }
+
+        @Override
+        public int getInt(int columnIndex) {
+            readColumns.add(columnIndex);
+            return super.getInt(columnIndex);
+        }
+
+        @Override
+        public long getLong(int columnIndex) {
+            readColumns.add(columnIndex);
+            return super.getLong(columnIndex);
+        }
+    }
+}
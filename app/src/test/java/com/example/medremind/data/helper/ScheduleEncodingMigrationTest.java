@@ -0,0 +1,117 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ScheduleEncoding;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Migrasi dari v8 mengisi minute_of_day/day_mask dari teks lama, dan query hari ini memakai kolom tersebut.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ScheduleEncodingMigrationTest {
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromV8_backfillsEncodingAndIndex() {
+        SQLiteDatabase legacy = LegacySchema.create(context, 8);
+        try {
+            long obatId = LegacySchema.insertObat(legacy);
+            String[][] rows = {{"daily", "08:05"}, {"Setiap Hari", "00:00"}, {"harian", "23:59"}, {"JUMAT", "12:30"}, {"Minggu", "7:00"}};
+            for (String[] row : rows) {
+                legacy.execSQL("INSERT INTO jadwal (obat_id, hari, waktu) VALUES (?, ?, ?)", new Object[]{obatId, row[0], row[1]});
+            }
+        } finally {
+            legacy.close();
+        }
+
+        DbHelper dbHelper = new DbHelper(context);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try (Cursor cursor = db.rawQuery("SELECT minute_of_day, day_mask FROM jadwal ORDER BY id", null)) {
+            int[][] expected = {
+                    {8 * 60 + 5, ScheduleEncoding.MASK_EVERY_DAY},
+                    {0, ScheduleEncoding.MASK_EVERY_DAY},
+                    {23 * 60 + 59, ScheduleEncoding.MASK_EVERY_DAY},
+                    {12 * 60 + 30, ScheduleEncoding.dayBit(Calendar.FRIDAY)},
+                    {7 * 60, ScheduleEncoding.dayBit(Calendar.SUNDAY)}
+            };
+            assertEquals(expected.length, cursor.getCount());
+            for (int[] row : expected) {
+                cursor.moveToNext();
+                assertEquals(row[0], cursor.getInt(0));
+                assertEquals(row[1], cursor.getInt(1));
+            }
+            // idx_jadwal_minute_day dari v9 diganti versi covering di v10
+            assertEquals(0, DatabaseUtils.longForQuery(db,
+                    "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'idx_jadwal_minute_day'", null));
+            assertEquals(1, DatabaseUtils.longForQuery(db,
+                    "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'idx_jadwal_minute_day_obat'", null));
+        } finally {
+            dbHelper.close();
+        }
+    }
+
+    @Test
+    public void todayQueries_useDayMask() {
+        int today = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
+        int otherDay = today == Calendar.SATURDAY ? Calendar.SUNDAY : today + 1;
+
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        ObatHelper obatHelper = new ObatHelper(context);
+        jadwalHelper.open();
+        obatHelper.open();
+        try {
+            int obatId = (int) obatHelper.insertObat(new Obat("Obat", "Tablet", "1", "Sesudah makan", 10, "mingguan"));
+            jadwalHelper.tambahJadwal(new Jadwal(obatId, ScheduleEncoding.dayName(today), "21:00"));
+            jadwalHelper.tambahJadwal(new Jadwal(obatId, Jadwal.HARI_DAILY, "06:30"));
+            jadwalHelper.tambahJadwal(new Jadwal(obatId, ScheduleEncoding.dayName(otherDay), "07:00"));
+
+            List<Jadwal> hariIni = jadwalHelper.getJadwalHariIni();
+            assertEquals(2, hariIni.size());
+            assertEquals("06:30", hariIni.get(0).getWaktu());
+            assertEquals("21:00", hariIni.get(1).getWaktu());
+            assertEquals(21 * 60, hariIni.get(1).getMinuteOfDay());
+
+            assertEquals(1, jadwalHelper.getJadwalMingguan(ScheduleEncoding.dayName(otherDay)).size());
+            assertEquals(1, jadwalHelper.getJadwalHarian().size());
+            assertEquals(2, jadwalHelper.getJadwalByHari(ScheduleEncoding.dayName(otherDay), true).size());
+        } finally {
+            obatHelper.close();
+            jadwalHelper.close();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Locale;
+
+/**
+ * Migrasi v7 -> v8 menghapus trigger tanggal_diperbarui; penulis mengisi kolom itu sendiri.
+ * Reset status 5k jadwal dengan trigger lama menulis setiap baris dua kali (dihitung lewat total_changes()).
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class TimestampTriggerMigrationTest {
+    private static final int RESET_ROWS = 5_000;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void upgradeFromV7_dropsTriggersAndKeepsData() {
+        createV7Database();
+
+        DbHelper dbHelper = new DbHelper(context);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            assertEquals(DbHelper.DATABASE_VERSION, db.getVersion());
+            assertEquals(0, DatabaseUtils.longForQuery(db,
+                    "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger'", null));
+            assertEquals(1, DatabaseUtils.queryNumEntries(db, DbHelper.TABLE_OBAT));
+            assertEquals(1, DatabaseUtils.queryNumEntries(db, DbHelper.TABLE_JADWAL));
+        } finally {
+            dbHelper.close();
+        }
+    }
+
+    @Test
+    public void writers_setTanggalDiperbaruiWithoutTriggers() {
+        ObatHelper obatHelper = new ObatHelper(context);
+        obatHelper.open();
+        try {
+            long obatId = obatHelper.insertObat(new Obat("Obat", "Tablet", "1", "Sesudah makan", 10, "harian"));
+            SQLiteDatabase db = DatabaseManager.getInstance(context).openDatabase();
+            try {
+                db.execSQL("UPDATE obat SET tanggal_diperbarui = 0 WHERE id = ?", new Object[]{obatId});
+
+                assertTrue(obatHelper.kurangiJumlahObat(obatId));
+                assertTrue(DatabaseUtils.longForQuery(db,
+                        "SELECT tanggal_diperbarui FROM obat WHERE id = ?",
+                        new String[]{String.valueOf(obatId)}) > 0);
+            } finally {
+                DatabaseManager.getInstance(context).closeDatabase();
+            }
+        } finally {
+            obatHelper.close();
+        }
+    }
+
+    @Test
+    public void resetStatus5k_triggerDoublesRowWrites() {
+        DbHelper dbHelper = new DbHelper(context);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            seedJadwal(db);
+
+            db.execSQL(LegacySchema.TRIGGER_JADWAL_V7);
+            long withTrigger = resetAllStatuses(db,
+                    "UPDATE jadwal SET status = 0, last_reset_date = ?");
+
+            db.execSQL("DROP TRIGGER trigger_jadwal_update");
+            long explicitTimestamp = resetAllStatuses(db,
+                    "UPDATE jadwal SET status = 0, last_reset_date = ?, tanggal_diperbarui = " + DbHelper.SQL_NOW_EPOCH);
+
+            // total_changes() ikut menghitung baris yang ditulis ulang oleh trigger
+            assertEquals(2L * RESET_ROWS, withTrigger);
+            assertEquals(RESET_ROWS, explicitTimestamp);
+        } finally {
+            dbHelper.close();
+        }
+    }
+
+    /**
+     * Buat file database dengan skema dan trigger v7
+     */
+    private void createV7Database() {
+        SQLiteDatabase db = LegacySchema.create(context, 7);
+        try {
+            long obatId = LegacySchema.insertObat(db);
+            db.execSQL("INSERT INTO jadwal (obat_id, hari, waktu) VALUES (?, 'daily', '08:00')", new Object[]{obatId});
+        } finally {
+            db.close();
+        }
+    }
+
+    private void seedJadwal(SQLiteDatabase db) {
+        long obatId = LegacySchema.insertObat(db);
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < RESET_ROWS; i++) {
+                int minute = i % (24 * 60);
+                db.execSQL("INSERT INTO jadwal (obat_id, hari, waktu, status) VALUES (?, 'daily', ?, 1)",
+                        new Object[]{obatId, String.format(Locale.US, "%02d:%02d", minute / 60, minute % 60)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Jalankan reset status dalam satu transaksi
+     * @return Jumlah baris yang ditulis
+     */
+    private long resetAllStatuses(SQLiteDatabase db, String resetSql) {
+        db.beginTransaction();
+        try {
+            long changesBefore = totalChanges(db);
+            db.execSQL(resetSql, new Object[]{"2026-01-01"});
+            long rowWrites = totalChanges(db) - changesBefore;
+            db.setTransactionSuccessful();
+            return rowWrites;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private long totalChanges(SQLiteDatabase db) {
+        try (Cursor cursor = db.rawQuery("SELECT total_changes()", null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
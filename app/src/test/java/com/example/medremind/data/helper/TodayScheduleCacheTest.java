@@ -0,0 +1,154 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ScheduleEncoding;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cache jadwal hari ini per obat: hit mengembalikan list yang sama, setiap tulisan membuang entrinya.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class TodayScheduleCacheTest {
+
+    private Context context;
+    private ObatHelper obatHelper;
+    private JadwalHelper jadwalHelper;
+    private long obatId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        TodayScheduleCache.getInstance().invalidateAll();
+
+        obatHelper = new ObatHelper(context);
+        obatHelper.open();
+        jadwalHelper = new JadwalHelper(context);
+        jadwalHelper.open();
+
+        obatId = obatHelper.insertObat(new Obat("Obat", "Tablet", "1", "Sesudah makan", 10, "harian"));
+        // Waktu sekarang: entri tetap berlaku selama jendela auto-terlewat
+        jadwalHelper.tambahJadwal(new Jadwal((int) obatId, Jadwal.HARI_DAILY, currentTime()));
+    }
+
+    @After
+    public void tearDown() {
+        jadwalHelper.close();
+        obatHelper.close();
+        TodayScheduleCache.getInstance().invalidateAll();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void secondRead_isServedFromCache() {
+        List<Jadwal> first = jadwalHelper.getJadwalObatHariIni(obatId);
+        assertEquals(1, first.size());
+        assertSame(first, jadwalHelper.getJadwalObatHariIni(obatId));
+    }
+
+    @Test
+    public void statusChange_invalidatesEntry() {
+        List<Jadwal> before = jadwalHelper.getJadwalObatHariIni(obatId);
+        assertEquals(Jadwal.STATUS_BELUM_DIMINUM, before.get(0).getStatus());
+
+        assertEquals(1, jadwalHelper.recordDoseTaken(before.get(0).getId(), jadwalHelper.getCurrentDate()));
+
+        List<Jadwal> after = jadwalHelper.getJadwalObatHariIni(obatId);
+        assertNotSame(before, after);
+        assertEquals(Jadwal.STATUS_SUDAH_DIMINUM, after.get(0).getStatus());
+
+        jadwalHelper.updateJadwalStatus(after.get(0).getId(), Jadwal.STATUS_TERLEWAT);
+        assertEquals(Jadwal.STATUS_TERLEWAT, jadwalHelper.getJadwalObatHariIni(obatId).get(0).getStatus());
+    }
+
+    @Test
+    public void tambahJadwal_invalidatesEntry() {
+        assertEquals(1, jadwalHelper.getJadwalObatHariIni(obatId).size());
+        jadwalHelper.tambahJadwal(new Jadwal((int) obatId, Jadwal.HARI_DAILY, "23:59"));
+        assertEquals(2, jadwalHelper.getJadwalObatHariIni(obatId).size());
+    }
+
+    @Test
+    public void writeInsideOuterTransaction_invalidatesAfterFlush() {
+        TodayScheduleCache cache = TodayScheduleCache.getInstance();
+        List<Jadwal> before = jadwalHelper.getJadwalObatHariIni(obatId);
+        long version = cache.version();
+
+        DatabaseManager databaseManager = DatabaseManager.getInstance(context);
+        SQLiteDatabase database = databaseManager.openDatabase();
+        try {
+            database.beginTransaction();
+            try {
+                assertEquals(1, jadwalHelper.insertMultipleJadwal(
+                        Collections.singletonList(new Jadwal((int) obatId, Jadwal.HARI_DAILY, "23:59"))));
+                // Belum commit: pembaca lain masih melihat data lama, entri tidak boleh dibuang dulu
+                assertEquals(version, cache.version());
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+            assertEquals(version, cache.version());
+
+            cache.flush(database);
+        } finally {
+            databaseManager.closeDatabase();
+        }
+
+        assertTrue(cache.version() > version);
+        List<Jadwal> after = jadwalHelper.getJadwalObatHariIni(obatId);
+        assertNotSame(before, after);
+        assertEquals(2, after.size());
+    }
+
+    @Test
+    public void put_rejectsResultQueriedBeforeWrite() {
+        TodayScheduleCache cache = TodayScheduleCache.getInstance();
+        long version = cache.version();
+        cache.invalidate(obatId);
+
+        assertNull(cache.put(version, "2026-01-01", obatId, Collections.emptyList(), Integer.MAX_VALUE));
+        assertNull(cache.get("2026-01-01", obatId, 0));
+    }
+
+    @Test
+    public void get_missesForOtherDateAndExpiredEntry() {
+        TodayScheduleCache cache = TodayScheduleCache.getInstance();
+        assertTrue(cache.put(cache.version(), "2026-01-01", obatId, Collections.emptyList(), 600) != null);
+
+        assertTrue(cache.get("2026-01-01", obatId, 599) != null);
+        assertNull(cache.get("2026-01-01", obatId, 600));
+        assertNull(cache.get("2026-01-02", obatId, 0));
+    }
+
+    private static String currentTime() {
+        Calendar now = Calendar.getInstance();
+        return ScheduleEncoding.formatMinuteOfDay(now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE));
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.medremind.data.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pembacaan di thread lain selama transaksi tulis terbuka, dengan dan tanpa WAL.
+ * Dengan WAL pembaca memakai koneksi baca dari pool dan selesai tanpa menunggu commit;
+ * tanpa WAL pembaca tertahan sampai transaksi selesai.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class WalReadLatencyBenchmarkTest {
+    private static final int WRITE_TRANSACTIONS = 100;
+    private static final int ROWS_PER_TRANSACTION = 50;
+
+    // Batas baca selama transaksi tulis terbuka; jauh di atas latensi baca normal (mikrodetik)
+    private static final long READ_TIMEOUT_MS = 2_000;
+    // Berapa lama pembaca tanpa WAL dipastikan masih menunggu
+    private static final long BLOCKED_READ_MS = 300;
+
+    private Context context;
+    private ExecutorService writer;
+    private ExecutorService reader;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        writer = Executors.newSingleThreadExecutor();
+        reader = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        writer.shutdownNow();
+        reader.shutdownNow();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void defaultConfig_appliesPragmas() {
+        DbHelper dbHelper = new DbHelper(context);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        try {
+            // Di dalam transaksi query memakai koneksi utama yang dikonfigurasi onConfigure
+            db.beginTransaction();
+            try {
+                assertEquals("wal", queryString(db, "PRAGMA journal_mode"));
+                assertEquals("1", queryString(db, "PRAGMA synchronous")); // NORMAL
+                assertEquals("2", queryString(db, "PRAGMA temp_store")); // MEMORY
+                assertEquals(String.valueOf(-DbConfig.DEFAULT_CACHE_SIZE_KIB), queryString(db, "PRAGMA cache_size"));
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            dbHelper.close();
+        }
+    }
+
+    @Test
+    public void walRead_duringWriteTransaction_usesConfiguredPoolConnection() throws Exception {
+        DbHelper dbHelper = new DbHelper(context);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        try {
+            long obatId = insertObat(db);
+            Future<?> write = writer.submit(() -> holdWriteTransaction(db, obatId, writing, commit));
+            assertTrue(writing.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+            // Koneksi utama dipegang penulis, jadi SELECT ini berjalan di koneksi baca dari pool
+            Future<String[]> read = reader.submit(() -> new String[]{
+                    queryString(db, "SELECT * FROM pragma_journal_mode()"),
+                    queryString(db, "SELECT * FROM pragma_synchronous()"),
+                    queryString(db, "SELECT COUNT(*) FROM " + DbHelper.TABLE_JADWAL)
+            });
+            String[] result = read.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+            assertEquals("wal", result[0]);
+            assertEquals("1", result[1]); // NORMAL lewat OpenParams, bukan hanya koneksi utama
+            assertEquals("0", result[2]); // Transaksi yang belum commit tidak terlihat
+
+            commit.countDown();
+            write.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(String.valueOf(ROWS_PER_TRANSACTION), queryString(db, "SELECT COUNT(*) FROM " + DbHelper.TABLE_JADWAL));
+        } finally {
+            commit.countDown();
+            dbHelper.close();
+        }
+    }
+
+    @Test
+    public void rollbackJournalRead_waitsForWriteTransaction() throws Exception {
+        DbHelper dbHelper = new DbHelper(context, DbConfig.DEFAULT.withWriteAheadLogging(false));
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        try {
+            assertNotEquals("wal", queryString(db, "PRAGMA journal_mode"));
+
+            long obatId = insertObat(db);
+            Future<?> write = writer.submit(() -> holdWriteTransaction(db, obatId, writing, commit));
+            assertTrue(writing.await(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+            Future<String> read = reader.submit(() -> queryString(db, "SELECT COUNT(*) FROM " + DbHelper.TABLE_JADWAL));
+            try {
+                read.get(BLOCKED_READ_MS, TimeUnit.MILLISECONDS);
+                fail("Read finished while a write transaction was open without WAL");
+            } catch (TimeoutException expected) {
+                // Satu koneksi: pembaca menunggu commit
+            }
+
+            commit.countDown();
+            write.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(String.valueOf(ROWS_PER_TRANSACTION), read.get(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        } finally {
+            commit.countDown();
+            dbHelper.close();
+        }
+    }
+
+    @Test
+    public void readsDuringWrites_seeOnlyCommittedTransactions() throws Exception {
+        assertReadsSeeCommittedTransactions(DbConfig.DEFAULT.withWriteAheadLogging(false));
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        assertReadsSeeCommittedTransactions(DbConfig.DEFAULT);
+    }
+
+    /**
+     * Satu thread menulis jadwal dalam transaksi, thread ini membaca jumlah jadwal berulang kali
+     */
+    private void assertReadsSeeCommittedTransactions(DbConfig config) throws Exception {
+        DbHelper dbHelper = new DbHelper(context, config);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        try {
+            long obatId = insertObat(db);
+            Future<?> writes = writer.submit(() -> writeJadwalBatches(db, obatId));
+
+            int reads = 0;
+            while (!writes.isDone()) {
+                long count = Long.parseLong(queryString(db, "SELECT COUNT(*) FROM " + DbHelper.TABLE_JADWAL));
+                reads++;
+
+                // Pembaca hanya boleh melihat transaksi yang sudah commit penuh
+                assertEquals(0, count % ROWS_PER_TRANSACTION);
+            }
+            writes.get(60, TimeUnit.SECONDS);
+
+            assertEquals(String.valueOf(WRITE_TRANSACTIONS * ROWS_PER_TRANSACTION),
+                    queryString(db, "SELECT COUNT(*) FROM " + DbHelper.TABLE_JADWAL));
+            assertTrue("no reads sampled", reads > 0);
+        } finally {
+            dbHelper.close();
+        }
+    }
+
+    /**
+     * Tulis satu batch di transaksi yang tetap terbuka sampai {@code commit} dilepas
+     */
+    private void holdWriteTransaction(SQLiteDatabase db, long obatId, CountDownLatch writing, CountDownLatch commit) {
+        db.beginTransaction();
+        try {
+            insertJadwalBatch(db, obatId, 0);
+            writing.countDown();
+            if (!commit.await(READ_TIMEOUT_MS * 2, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("commit not released");
+            }
+            db.setTransactionSuccessful();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void writeJadwalBatches(SQLiteDatabase db, long obatId) {
+        for (int t = 0; t < WRITE_TRANSACTIONS; t++) {
+            db.beginTransaction();
+            try {
+                insertJadwalBatch(db, obatId, t);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+
+    private void insertJadwalBatch(SQLiteDatabase db, long obatId, int batch) {
+        for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+            int minute = (batch * ROWS_PER_TRANSACTION + i) % (24 * 60);
+            ContentValues values = new ContentValues();
+            values.put(DbHelper.KEY_OBAT_ID_FK, obatId);
+            values.put(DbHelper.KEY_HARI, "daily");
+            values.put(DbHelper.KEY_WAKTU, String.format(Locale.US, "%02d:%02d", minute / 60, minute % 60));
+            db.insertOrThrow(DbHelper.TABLE_JADWAL, null, values);
+        }
+    }
+
+    private long insertObat(SQLiteDatabase db) {
+        ContentValues values = new ContentValues();
+        values.put(DbHelper.KEY_NAMA_OBAT, "Obat");
+        values.put(DbHelper.KEY_JENIS_OBAT, "Tablet");
+        values.put(DbHelper.KEY_DOSIS_OBAT, "1");
+        values.put(DbHelper.KEY_ATURAN_MINUM, "Sesudah makan");
+        values.put(DbHelper.KEY_JUMLAH_OBAT, 100);
+        values.put(DbHelper.KEY_TIPE_JADWAL, "harian");
+        return db.insertOrThrow(DbHelper.TABLE_OBAT, null, values);
+    }
+
+    private String queryString(SQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getString(0);
+        }
+    }
+}
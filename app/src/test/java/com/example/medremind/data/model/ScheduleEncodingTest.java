@@ -0,0 +1,61 @@
+package com.example.medremind.data.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+public class ScheduleEncodingTest {
+
+    @Test
+    public void dayMaskOf_dailyAliasesAndDayNames() {
+        assertEquals(ScheduleEncoding.MASK_EVERY_DAY, ScheduleEncoding.dayMaskOf("daily"));
+        assertEquals(ScheduleEncoding.MASK_EVERY_DAY, ScheduleEncoding.dayMaskOf("Setiap Hari"));
+        assertEquals(ScheduleEncoding.MASK_EVERY_DAY, ScheduleEncoding.dayMaskOf(" harian "));
+        assertEquals(ScheduleEncoding.dayBit(Calendar.SUNDAY), ScheduleEncoding.dayMaskOf("Minggu"));
+        assertEquals(ScheduleEncoding.dayBit(Calendar.FRIDAY), ScheduleEncoding.dayMaskOf("JUMAT"));
+        assertEquals(ScheduleEncoding.MASK_NONE, ScheduleEncoding.dayMaskOf("Libur"));
+        assertEquals(ScheduleEncoding.MASK_NONE, ScheduleEncoding.dayMaskOf(null));
+    }
+
+    @Test
+    public void minuteOfDay_parsesAndRejects() {
+        assertEquals(0, ScheduleEncoding.minuteOfDay("00:00"));
+        assertEquals(8 * 60 + 5, ScheduleEncoding.minuteOfDay("08:05"));
+        assertEquals(23 * 60 + 59, ScheduleEncoding.minuteOfDay("23:59"));
+        assertEquals(ScheduleEncoding.INVALID_MINUTE, ScheduleEncoding.minuteOfDay("24:00"));
+        assertEquals(ScheduleEncoding.INVALID_MINUTE, ScheduleEncoding.minuteOfDay("8"));
+        assertEquals(ScheduleEncoding.INVALID_MINUTE, ScheduleEncoding.minuteOfDay("aa:bb"));
+        assertEquals("08:05", ScheduleEncoding.formatMinuteOfDay(8 * 60 + 5));
+    }
+
+    @Test
+    public void isScheduledOnAndDaysUntilNext() {
+        int senin = ScheduleEncoding.dayMaskOf("Senin");
+
+        assertTrue(ScheduleEncoding.isScheduledOn(senin, Calendar.MONDAY));
+        assertFalse(ScheduleEncoding.isScheduledOn(senin, Calendar.TUESDAY));
+        assertTrue(ScheduleEncoding.isScheduledOn(ScheduleEncoding.MASK_EVERY_DAY, Calendar.SATURDAY));
+
+        assertEquals(6, ScheduleEncoding.daysUntilNext(senin, Calendar.TUESDAY));
+        assertEquals(1, ScheduleEncoding.daysUntilNext(senin, Calendar.SUNDAY));
+        assertEquals(7, ScheduleEncoding.daysUntilNext(senin, Calendar.MONDAY));
+        assertEquals(0, ScheduleEncoding.daysUntilNext(ScheduleEncoding.MASK_NONE, Calendar.MONDAY));
+    }
+
+    @Test
+    public void jadwal_encodesOnConstructionAndSetters() {
+        Jadwal jadwal = new Jadwal(1, "Rabu", "19:30");
+        assertEquals(19 * 60 + 30, jadwal.getMinuteOfDay());
+        assertTrue(jadwal.isScheduledOn(Calendar.WEDNESDAY));
+        assertFalse(jadwal.isDaily());
+
+        jadwal.setHari(Jadwal.HARI_DAILY);
+        jadwal.setWaktu("06:15");
+        assertTrue(jadwal.isDaily());
+        assertEquals(6 * 60 + 15, jadwal.getMinuteOfDay());
+    }
+}
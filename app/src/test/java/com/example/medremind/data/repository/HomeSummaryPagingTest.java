@@ -0,0 +1,112 @@
+package com.example.medremind.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ObatSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset paging daftar obat: halaman berurutan menutup semua obat aktif tepat sekali,
+ * termasuk nama yang sama, dengan urutan nama lalu ID.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class HomeSummaryPagingTest {
+    private static final int OBAT_COUNT = 55;
+
+    private Context context;
+    private ObatHelper obatHelper;
+    private final List<Integer> activeIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        obatHelper = new ObatHelper(context);
+        obatHelper.open();
+
+        for (int i = 0; i < OBAT_COUNT; i++) {
+            // Setiap nama dipakai tiga obat; ID jadi penentu urutan di dalam nama yang sama
+            Obat obat = new Obat(String.format(Locale.US, "Obat %02d", i / 3), "Tablet", "1", "Sesudah makan", 10, "harian");
+            long id = obatHelper.insertObat(obat);
+            if (i % 10 == 9) {
+                obatHelper.deleteObat(id); // soft delete: tidak boleh muncul di halaman
+            } else {
+                activeIds.add((int) id);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void obatPages_coverActiveObatInNameThenIdOrder() {
+        List<Integer> ids = new ArrayList<>();
+        Obat last = null;
+        int pages = 0;
+
+        while (true) {
+            List<Obat> page = obatHelper.getActiveObatPage(last, 10);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Obat obat : page) {
+                ids.add(obat.getId());
+            }
+            last = page.get(page.size() - 1);
+            pages++;
+        }
+
+        // Nama diurutkan naik dan insert juga naik, jadi urutan (nama, id) = urutan insert
+        assertEquals(activeIds, ids);
+        assertEquals((activeIds.size() + 9) / 10, pages);
+    }
+
+    @Test
+    public void summaryPages_matchSingleLargePage() {
+        HomeSummaryRepository repository = new HomeSummaryRepository(context);
+
+        List<ObatSummary> paged = new ArrayList<>();
+        List<ObatSummary> page = repository.getActiveObatSummaryPage(null, HomeSummaryRepository.PAGE_SIZE);
+        assertEquals(HomeSummaryRepository.PAGE_SIZE, page.size());
+        while (!page.isEmpty()) {
+            paged.addAll(page);
+            page = repository.getActiveObatSummaryPage(page.get(page.size() - 1), HomeSummaryRepository.PAGE_SIZE);
+        }
+
+        List<ObatSummary> all = repository.getActiveObatSummaryPage(null, OBAT_COUNT);
+        assertEquals(activeIds.size(), all.size());
+        assertEquals(all.size(), paged.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(all.get(i).getObat().getId(), paged.get(i).getObat().getId());
+        }
+        assertTrue(all.get(0).getObat().getNamaObat().compareTo(all.get(all.size() - 1).getObat().getNamaObat()) < 0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.medremind.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.helper.JadwalHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * createObatWithSchedules: obat dan jadwal tersimpan bersama atau tidak sama sekali.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ObatRepositoryTest {
+    private Context context;
+    private ObatRepository obatRepository;
+    private ObatHelper obatHelper;
+    private JadwalHelper jadwalHelper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        obatRepository = new ObatRepository(context);
+        obatHelper = new ObatHelper(context);
+        jadwalHelper = new JadwalHelper(context);
+        obatHelper.open();
+        jadwalHelper.open();
+    }
+
+    @After
+    public void tearDown() {
+        jadwalHelper.close();
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void createObatWithSchedules_returnsIdsInInputOrder() {
+        Obat obat = new Obat("Metformin", "Tablet", "1 tablet", "Sesudah makan", 30, "harian");
+        List<Jadwal> jadwalList = Arrays.asList(
+                new Jadwal(Jadwal.HARI_DAILY, "07:00"),
+                new Jadwal(Jadwal.HARI_DAILY, "19:00"));
+
+        List<Integer> jadwalIds = obatRepository.createObatWithSchedules(obat, jadwalList);
+
+        assertEquals(2, jadwalIds.size());
+        assertTrue(obat.getId() > 0);
+        for (int i = 0; i < jadwalIds.size(); i++) {
+            Jadwal stored = jadwalHelper.getJadwalById(jadwalIds.get(i));
+            assertEquals(obat.getId(), stored.getObatId());
+            assertEquals(jadwalList.get(i).getWaktu(), stored.getWaktu());
+        }
+    }
+
+    @Test
+    public void createObatWithSchedules_invalidJadwal_rollsBackObat() {
+        Obat obat = new Obat("Metformin", "Tablet", "1 tablet", "Sesudah makan", 30, "mingguan");
+        List<Jadwal> jadwalList = Arrays.asList(
+                new Jadwal("Senin", "07:00"),
+                new Jadwal("Libur", "07:00"));
+
+        assertTrue(obatRepository.createObatWithSchedules(obat, jadwalList).isEmpty());
+        assertEquals(0, obatHelper.getAllObat(false).size());
+    }
+
+    @Test
+    public void createObatWithSchedules_failingRow_rollsBackAndClearsIds() {
+        // Baris yang valid di Java tapi ditolak database (trigger hanya ada di koneksi ini)
+        SQLiteDatabase database = DatabaseManager.getInstance(context).openDatabase();
+        try {
+            database.execSQL("CREATE TEMP TRIGGER fail_jadwal_1300 BEFORE INSERT ON " + DbHelper.TABLE_JADWAL +
+                    " WHEN NEW." + DbHelper.KEY_WAKTU + " = '13:00' BEGIN SELECT RAISE(ABORT, 'ditolak'); END");
+        } finally {
+            DatabaseManager.getInstance(context).closeDatabase();
+        }
+
+        Obat obat = new Obat("Metformin", "Tablet", "1 tablet", "Sesudah makan", 30, "harian");
+        List<Jadwal> jadwalList = Arrays.asList(
+                new Jadwal(Jadwal.HARI_DAILY, "07:00"),
+                new Jadwal(Jadwal.HARI_DAILY, "13:00"),
+                new Jadwal(Jadwal.HARI_DAILY, "19:00"));
+
+        assertTrue(obatRepository.createObatWithSchedules(obat, jadwalList).isEmpty());
+
+        // Jadwal 07:00 yang sempat ter-insert ikut di-rollback bersama obat
+        assertEquals(0, obatHelper.getAllObat(false).size());
+        assertEquals(0, jadwalHelper.getAllJadwal().size());
+        assertEquals(0, obat.getId());
+        for (Jadwal jadwal : jadwalList) {
+            assertEquals(0, jadwal.getId());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.medremind.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.lifecycle.Observer;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.helper.DataChangeNotifier;
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ObservableQuery hanya menjalankan query ulang saat tabel yang dipakai berubah;
+ * tulisan di dalam transaksi ObatRepository diumumkan sekali setelah commit.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ObservableQueryTest {
+    private Context context;
+    private ObatHelper obatHelper;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Observer<Integer> observer = value -> { };
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        obatHelper = new ObatHelper(context);
+        obatHelper.open();
+    }
+
+    @After
+    public void tearDown() {
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void reactivateWithoutChanges_runsNoQuery() {
+        ObservableQuery<Integer> query = countingQuery(DbHelper.TABLE_OBAT);
+
+        query.observeForever(observer);
+        idleMainLooper();
+        assertEquals(1, loads.get());
+
+        query.removeObserver(observer);
+        query.observeForever(observer);
+        idleMainLooper();
+        assertEquals(1, loads.get());
+        assertEquals(Integer.valueOf(0), query.getValue());
+
+        query.removeObserver(observer);
+    }
+
+    @Test
+    public void dependentTableWrite_rerunsQuery() {
+        ObservableQuery<Integer> query = countingQuery(DbHelper.TABLE_OBAT);
+        query.observeForever(observer);
+        idleMainLooper();
+
+        obatHelper.insertObat(newObat());
+        idleMainLooper();
+
+        assertEquals(2, loads.get());
+        assertEquals(Integer.valueOf(1), query.getValue());
+        query.removeObserver(observer);
+    }
+
+    @Test
+    public void changeWhileInactive_rerunsOnReactivate() {
+        ObservableQuery<Integer> query = countingQuery(DbHelper.TABLE_OBAT);
+        query.observeForever(observer);
+        idleMainLooper();
+        query.removeObserver(observer);
+
+        obatHelper.insertObat(newObat());
+        assertEquals(1, loads.get());
+
+        query.observeForever(observer);
+        idleMainLooper();
+        assertEquals(2, loads.get());
+        query.removeObserver(observer);
+    }
+
+    @Test
+    public void unrelatedTableWrite_runsNoQuery() {
+        ObservableQuery<Integer> query = countingQuery(DbHelper.TABLE_DOSE_EVENT);
+        query.observeForever(observer);
+        idleMainLooper();
+
+        obatHelper.insertObat(newObat());
+        idleMainLooper();
+
+        assertEquals(1, loads.get());
+        query.removeObserver(observer);
+    }
+
+    @Test
+    public void repositoryTransaction_notifiesOnceAfterCommit() {
+        List<Set<String>> notifications = new ArrayList<>();
+        DataChangeNotifier.OnTablesChangedListener listener = tables -> notifications.add(new HashSet<>(tables));
+        DataChangeNotifier.getInstance().addListener(listener);
+
+        try {
+            new ObatRepository(context).createObatWithSchedules(newObat(), Arrays.asList(
+                    new Jadwal(Jadwal.HARI_DAILY, "07:00"),
+                    new Jadwal(Jadwal.HARI_DAILY, "19:00")));
+        } finally {
+            DataChangeNotifier.getInstance().removeListener(listener);
+        }
+
+        assertEquals(1, notifications.size());
+        assertTrue(notifications.get(0).contains(DbHelper.TABLE_OBAT));
+        assertTrue(notifications.get(0).contains(DbHelper.TABLE_JADWAL));
+    }
+
+    /**
+     * Query jumlah obat di executor langsung (thread test), menghitung berapa kali dijalankan
+     */
+    private ObservableQuery<Integer> countingQuery(String table) {
+        return new ObservableQuery<>(Runnable::run, () -> {
+            loads.incrementAndGet();
+            return obatHelper.getTotalObatCount();
+        }, table);
+    }
+
+    private Obat newObat() {
+        return new Obat("Obat", "Tablet", "1", "Sesudah makan", 10, "harian");
+    }
+
+    private void idleMainLooper() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+}
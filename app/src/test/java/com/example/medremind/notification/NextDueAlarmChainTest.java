@@ -0,0 +1,160 @@
+package com.example.medremind.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.AlarmManager;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.helper.ArmedAlarmHelper;
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.JadwalHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.ArmedAlarm;
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+import org.robolectric.shadows.ShadowAlarmManager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rantai next-due: hanya satu alarm yang terpasang, dan setiap dosis dikirim sekali sesuai urutan waktu.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class NextDueAlarmChainTest {
+    private static final int OBAT_COUNT = 10;
+    private static final int SCHEDULE_COUNT = 200;
+    // 200 jadwal dibagi ke 150 menit berbeda, sehingga 50 menit berisi dua dosis sekaligus
+    private static final int DISTINCT_MINUTES = 150;
+
+    private Context context;
+    private JadwalHelper jadwalHelper;
+    private ObatHelper obatHelper;
+    private ShadowAlarmManager shadowAlarmManager;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        shadowAlarmManager = shadowOf((AlarmManager) context.getSystemService(Context.ALARM_SERVICE));
+
+        obatHelper = new ObatHelper(context);
+        jadwalHelper = new JadwalHelper(context);
+        obatHelper.open();
+        jadwalHelper.open();
+
+        List<Integer> obatIds = new ArrayList<>();
+        for (int i = 0; i < OBAT_COUNT; i++) {
+            Obat obat = new Obat("Obat " + i, "Tablet", "1", "Sesudah makan", 1000, "harian");
+            obatIds.add((int) obatHelper.insertObat(obat));
+        }
+
+        for (int i = 0; i < SCHEDULE_COUNT; i++) {
+            int minute = 30 + (i % DISTINCT_MINUTES) * 9;
+            String waktu = String.format(Locale.US, "%02d:%02d", minute / 60, minute % 60);
+            jadwalHelper.tambahJadwal(new Jadwal(obatIds.get(i % OBAT_COUNT), Jadwal.HARI_DAILY, waktu));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        jadwalHelper.close();
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void nextDueChain_keepsOneAlarmAndDeliversAllDosesInOrder() {
+        NotificationReceiver receiver = new NotificationReceiver();
+        AlarmScheduler scheduler = new AlarmScheduler(context, AlarmScheduler.MODE_NEXT_DUE);
+
+        assertTrue(scheduler.scheduleNextDue(jadwalHelper, -1));
+
+        List<Jadwal> delivered = new ArrayList<>();
+        int alarmsFired = 0;
+
+        while (!shadowAlarmManager.getScheduledAlarms().isEmpty()) {
+            assertEquals(1, shadowAlarmManager.getScheduledAlarms().size());
+
+            ShadowAlarmManager.ScheduledAlarm alarm = shadowAlarmManager.peekNextScheduledAlarm();
+            Intent intent = shadowOf(alarm.getOperation()).getSavedIntent();
+            int minute = intent.getIntExtra(NotificationReceiver.EXTRA_MINUTE_OF_DAY, -1);
+
+            delivered.addAll(receiver.deliverDueReminders(context, jadwalHelper, minute, minute));
+            alarmsFired++;
+            assertTrue("Alarm chain does not terminate", alarmsFired <= SCHEDULE_COUNT);
+        }
+
+        assertEquals(DISTINCT_MINUTES, alarmsFired);
+        assertEquals(SCHEDULE_COUNT, delivered.size());
+
+        for (int i = 1; i < delivered.size(); i++) {
+            Jadwal previous = delivered.get(i - 1);
+            Jadwal current = delivered.get(i);
+            int order = previous.getWaktu().compareTo(current.getWaktu());
+            assertTrue("Out of order at " + i, order < 0 || (order == 0 && previous.getId() < current.getId()));
+        }
+
+        // Data obat untuk notifikasi datang dari JOIN query pending, bukan lookup per dosis
+        for (Jadwal jadwal : delivered) {
+            assertEquals(obatHelper.getObatById(jadwal.getObatId()).getNamaObat(), jadwal.getTambahan("namaObat"));
+            assertEquals("1", jadwal.getTambahan("dosisObat"));
+            assertEquals("1000", jadwal.getTambahan("jumlahObat"));
+        }
+    }
+
+    @Test
+    public void scheduleNewJadwal_afterChainAlarmPassed_armsNewDose() {
+        Calendar now = Calendar.getInstance();
+        int currentMinute = now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE);
+        // Alarm pertama (00:30) harus sudah lewat dan 23:59 masih akan datang
+        assumeTrue(currentMinute > 30 && currentMinute < 23 * 60 + 58);
+
+        AlarmScheduler scheduler = new AlarmScheduler(context, AlarmScheduler.MODE_NEXT_DUE);
+        // Rantai dipasang ke 00:30 lalu tidak pernah dilanjutkan (receiver mati): catatan armed_alarm tertinggal
+        assertTrue(scheduler.scheduleNextDue(jadwalHelper, -1));
+        assertEquals(30, nextAlarmMinute());
+
+        Jadwal jadwal = new Jadwal(obatHelper.getAllObat().get(0).getId(), Jadwal.HARI_DAILY, "23:59");
+        assertTrue(jadwalHelper.tambahJadwal(jadwal) > 0);
+        List<Jadwal> newJadwal = new ArrayList<>();
+        newJadwal.add(jadwal);
+        scheduler.scheduleNewJadwal(newJadwal, "Obat baru");
+
+        // Catatan yang sudah lewat tidak menghalangi alarm dosis baru
+        assertEquals(1, shadowAlarmManager.getScheduledAlarms().size());
+        assertEquals(23 * 60 + 59, nextAlarmMinute());
+
+        ArmedAlarmHelper armedAlarmHelper = new ArmedAlarmHelper(context);
+        try {
+            armedAlarmHelper.open();
+            for (ArmedAlarm armed : armedAlarmHelper.getArmedAlarms().values()) {
+                assertTrue(armed.getTriggerAt() > System.currentTimeMillis());
+            }
+        } finally {
+            armedAlarmHelper.close();
+        }
+    }
+
+    private int nextAlarmMinute() {
+        ShadowAlarmManager.ScheduledAlarm alarm = shadowAlarmManager.peekNextScheduledAlarm();
+        return shadowOf(alarm.getOperation()).getSavedIntent().getIntExtra(NotificationReceiver.EXTRA_MINUTE_OF_DAY, -1);
+    }
+}
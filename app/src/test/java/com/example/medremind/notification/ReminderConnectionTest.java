@@ -0,0 +1,107 @@
+package com.example.medremind.notification;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.helper.JadwalHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.Jadwal;
+import com.example.medremind.data.model.Obat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+import org.robolectric.shadows.ShadowBroadcastPendingResult;
+import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jumlah koneksi fisik yang dibuka per alarm pengingat: helper (JadwalHelper, ObatHelper, ArmedAlarmHelper)
+ * meminjam koneksi bersama dari DatabaseManager, jadi satu alarm hanya membuka satu koneksi.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class ReminderConnectionTest {
+    private static final int FIRES = 20;
+    private static final long FIRE_TIMEOUT_MS = 10_000;
+
+    private Context context;
+    private DatabaseManager databaseManager;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+        databaseManager = DatabaseManager.getInstance(context);
+
+        ObatHelper obatHelper = new ObatHelper(context);
+        JadwalHelper jadwalHelper = new JadwalHelper(context);
+        try {
+            obatHelper.open();
+            jadwalHelper.open();
+            long obatId = obatHelper.insertObat(new Obat("Obat", "Tablet", "1", "Sesudah makan", 1000, "harian"));
+            jadwalHelper.tambahJadwal(new Jadwal((int) obatId, Jadwal.HARI_DAILY, "23:59"));
+        } finally {
+            jadwalHelper.close();
+            obatHelper.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseManager.resetInstance();
+        context.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void nextDueReminder_opensOneConnectionPerFire() throws Exception {
+        // Semua peminjam setup sudah selesai, jadi setiap alarm mulai tanpa koneksi terbuka
+        assertEquals(0, databaseManager.getOpenCounter());
+        int opensBefore = databaseManager.getConnectionOpenCount();
+
+        for (int i = 0; i < FIRES; i++) {
+            int opensBeforeFire = databaseManager.getConnectionOpenCount();
+            fireNextDueReminder(23 * 60 + 59);
+
+            assertEquals("Connection opens on fire " + i,
+                    1, databaseManager.getConnectionOpenCount() - opensBeforeFire);
+            assertEquals(0, databaseManager.getOpenCounter());
+        }
+
+        assertEquals(FIRES, databaseManager.getConnectionOpenCount() - opensBefore);
+    }
+
+    /**
+     * Kirim alarm next-due ke receiver baru dan tunggu sampai pekerjaan goAsync-nya selesai
+     */
+    private void fireNextDueReminder(int minuteOfDay) throws Exception {
+        NotificationReceiver receiver = new NotificationReceiver();
+        BroadcastReceiver.PendingResult pendingResult = ShadowBroadcastPendingResult.create(0, null, null, false);
+        ReflectionHelpers.callInstanceMethod(BroadcastReceiver.class, receiver, "setPendingResult",
+                ClassParameter.from(BroadcastReceiver.PendingResult.class, pendingResult));
+
+        Intent intent = new Intent(context, NotificationReceiver.class)
+                .setAction(NotificationReceiver.ACTION_NEXT_DUE_REMINDER)
+                .putExtra(NotificationReceiver.EXTRA_MINUTE_OF_DAY, minuteOfDay);
+
+        receiver.onReceive(context, intent);
+
+        // finish() dipanggil setelah pekerjaan (termasuk menutup helper) selesai
+        ShadowBroadcastPendingResult.getFuture(pendingResult).get(FIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.medremind.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.Configuration;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.testing.SynchronousExecutor;
+import androidx.work.testing.TestDriver;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import com.example.medremind.data.helper.DatabaseManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.List;
+
+/**
+ * Permintaan reschedule yang berdekatan digabung menjadi satu unique work.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class RescheduleWorkerTest {
+    private Context context;
+    private WorkManager workManager;
+    private TestDriver testDriver;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+
+        Configuration configuration = new Configuration.Builder()
+                .setMinimumLoggingLevel(Log.DEBUG)
+                .setExecutor(new SynchronousExecutor())
+                .build();
+        WorkManagerTestInitHelper.initializeTestWorkManager(context, configuration);
+
+        workManager = WorkManager.getInstance(context);
+        testDriver = WorkManagerTestInitHelper.getTestDriver(context);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseManager.resetInstance();
+    }
+
+    @Test
+    public void requestsWithinWindow_coalesceIntoOneRun() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            RescheduleWorker.enqueue(context);
+        }
+
+        WorkInfo pending = getSingleWork();
+        assertEquals(WorkInfo.State.ENQUEUED, pending.getState());
+
+        testDriver.setInitialDelayMet(pending.getId());
+
+        WorkInfo finished = getSingleWork();
+        assertEquals(pending.getId(), finished.getId());
+        assertEquals(WorkInfo.State.SUCCEEDED, finished.getState());
+    }
+
+    @Test
+    public void requestAfterRun_startsNewRun() throws Exception {
+        RescheduleWorker.enqueue(context);
+        WorkInfo first = getSingleWork();
+        testDriver.setInitialDelayMet(first.getId());
+
+        RescheduleWorker.enqueue(context);
+        WorkInfo second = getSingleWork();
+
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(WorkInfo.State.ENQUEUED, second.getState());
+    }
+
+    private WorkInfo getSingleWork() throws Exception {
+        List<WorkInfo> workInfos = workManager.getWorkInfosForUniqueWork(RescheduleWorker.UNIQUE_WORK_NAME).get();
+        assertEquals(1, workInfos.size());
+        return workInfos.get(0);
+    }
+}
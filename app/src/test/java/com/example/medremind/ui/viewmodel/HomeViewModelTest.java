@@ -0,0 +1,95 @@
+package com.example.medremind.ui.viewmodel;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.medremind.data.helper.DatabaseManager;
+import com.example.medremind.data.helper.DbHelper;
+import com.example.medremind.data.helper.ObatHelper;
+import com.example.medremind.data.model.DailyProgress;
+import com.example.medremind.data.model.Obat;
+import com.example.medremind.data.model.ObatSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Alarm Home hanya disegarkan untuk perubahan obat/jadwal yang nyata,
+ * bukan untuk emisi pertama atau nilai lama yang dikirim ulang ke view baru.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class HomeViewModelTest {
+    private Application application;
+    private ObatHelper obatHelper;
+
+    @Before
+    public void setUp() {
+        application = ApplicationProvider.getApplicationContext();
+        DatabaseManager.resetInstance();
+        application.deleteDatabase(DbHelper.DATABASE_NAME);
+        obatHelper = new ObatHelper(application);
+        obatHelper.open();
+    }
+
+    @After
+    public void tearDown() {
+        obatHelper.close();
+        DatabaseManager.resetInstance();
+        application.deleteDatabase(DbHelper.DATABASE_NAME);
+    }
+
+    @Test
+    public void consumeScheduleChange_onlyAfterObatOrJadwalWrite() {
+        HomeViewModel viewModel = new HomeViewModel(application);
+
+        // Emisi pertama dan emisi ulang untuk view baru
+        assertFalse(viewModel.consumeScheduleChange());
+        assertFalse(viewModel.consumeScheduleChange());
+
+        obatHelper.insertObat(new Obat("Obat", "Tablet", "1", "Sesudah makan", 10, "harian"));
+
+        assertTrue(viewModel.consumeScheduleChange());
+        assertFalse(viewModel.consumeScheduleChange());
+    }
+
+    @Test
+    public void loadPageAfter_afterCleared_reportsFailure() {
+        HomeViewModel viewModel = new HomeViewModel(application);
+        viewModel.onCleared();
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Obat obat = new Obat("Obat", "Tablet", "1", "Sesudah makan", 10, "harian");
+        viewModel.loadPageAfter(new ObatSummary(obat, 1, DailyProgress.EMPTY), new HomeViewModel.PageCallback() {
+            @Override
+            public void onPageLoaded(@NonNull List<ObatSummary> page) {
+                throw new AssertionError("Page must not load after onCleared");
+            }
+
+            @Override
+            public void onPageFailed() {
+                failed.set(true);
+            }
+        });
+
+        // Callback dikirim ke main thread
+        shadowOf(Looper.getMainLooper()).idle();
+        assertTrue(failed.get());
+    }
+}